@@ -0,0 +1,15 @@
+@echo off
+cd /d "%~dp0"
+
+REM Generation en lot, sans interface : une fiche par fichier .properties
+REM Usage : GenererLot.bat [-o dossier] fiche.properties^|dossier...
+REM Codes de sortie : 0 tout est genere, 1 au moins une fiche en echec, 2 usage incorrect
+
+java -version >nul 2>&1
+if %errorlevel% neq 0 (
+    echo Java est requis pour la generation en lot.
+    exit /b 2
+)
+
+java -Djava.awt.headless=true -cp FicheDeControle.jar com.fichedecontrole.BatchMain %*
+exit /b %errorlevel%
@@ -18,8 +18,24 @@ if %errorlevel% neq 0 (
 REM Créer le dossier logs s'il n'existe pas
 if not exist logs mkdir logs
 
+REM Instance déjà lancée : lui demander d'ouvrir une fenêtre (client léger, sans Swing)
+if exist FicheDeControle.jar (
+    java -XX:TieredStopAtLevel=1 -cp FicheDeControle.jar com.fichedecontrole.instance.InstanceClient >nul 2>&1
+    if not errorlevel 1 exit /b 0
+)
+
 REM Options JVM pour VM Citrix (mémoire limitée)
-set JVM_OPTS=-Xmx512m -Xms256m
+REM Tas initial réduit et ratios de mémoire libre : l'instance résidente rend
+REM la mémoire au système quand elle est inactive
+set JVM_OPTS=-Xmx512m -Xms64m -XX:MinHeapFreeRatio=10 -XX:MaxHeapFreeRatio=30
+
+REM Archive AppCDS (démarrage plus rapide) : utilisée seulement si elle
+REM correspond à la JVM installée, sinon lancement normal
+set CDS_OPTS=
+if exist app.jsa if exist FicheDeControle.jar (
+    java -XX:SharedArchiveFile=app.jsa -Xshare:on -cp FicheDeControle.jar -version >nul 2>&1
+    if not errorlevel 1 set CDS_OPTS=-XX:SharedArchiveFile=app.jsa -Xshare:auto
+)
 
 REM Lancer l'application
 if exist FicheDeControle.jar (
@@ -27,7 +43,8 @@ if exist FicheDeControle.jar (
     echo    🚀 Lancement de FicheDeControle
     echo ========================================
     echo.
-    java %JVM_OPTS% -jar FicheDeControle.jar
+    REM javaw détaché : l'instance résidente ne garde pas de console ouverte
+    start "FicheDeControle" javaw %JVM_OPTS% %CDS_OPTS% -jar FicheDeControle.jar
 ) else if exist build\libs\FicheDeControle.jar (
     echo ========================================
     echo    🚀 Lancement de FicheDeControle (dev)
@@ -0,0 +1,14 @@
+@echo off
+cd /d "%~dp0"
+
+REM Service de génération partagé par les sessions du serveur Citrix.
+REM Les postes le trouvent via service.generation.hote dans config\application.properties.
+
+java -version >nul 2>&1
+if %errorlevel% neq 0 (
+    echo Java est requis pour lancer le service de generation.
+    pause
+    exit /b 1
+)
+
+java -Xmx1g -cp FicheDeControle.jar com.fichedecontrole.remote.GenerationServer
@@ -0,0 +1,185 @@
+package com.fichedecontrole;
+
+import com.fichedecontrole.batch.BatchGenerator;
+import com.fichedecontrole.batch.BatchResult;
+import com.fichedecontrole.batch.BatchStatistics;
+import com.fichedecontrole.batch.FicheJsonLines;
+import com.fichedecontrole.batch.HotFolder;
+import com.fichedecontrole.batch.TableImporter;
+import com.fichedecontrole.batch.TableReader;
+import com.fichedecontrole.config.ConfigManager;
+import com.fichedecontrole.service.DocumentCache;
+import com.fichedecontrole.service.DocumentGenerationService;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Génération en ligne de commande, sans interface (migrations de fin de mois).
+ *
+ * Usage : {@code java -cp FicheDeControle.jar com.fichedecontrole.BatchMain [-o dossier] [-t threads] fiche.properties|tableau.csv|tableau.xlsx|fiches.jsonl|dossier...}
+ * Les dossiers sont parcourus pour leurs fichiers .properties, .csv, .xlsx et .jsonl (ordre alphabétique).
+ * Un tableau ou un fichier JSON Lines décrit une fiche par ligne ; ses lignes partent en
+ * génération au fil de la lecture.
+ * Avec {@code -w dossier}, le dossier de dépôt est surveillé jusqu'à l'arrêt (voir {@link HotFolder}).
+ * Les fiches sont générées en parallèle (lot.threads, ou -t) ; le rapport suit l'ordre des fiches.
+ *
+ * Codes de sortie : 0 tout est généré, 1 au moins une fiche en échec, 2 usage incorrect.
+ */
+public class BatchMain {
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_ECHEC = 1;
+    static final int EXIT_USAGE = 2;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.exit(run(args, System.out));
+    }
+
+    /**
+     * Exécute la ligne de commande et affiche le résumé
+     *
+     * @return le code de sortie
+     */
+    static int run(String[] args, PrintStream out) {
+        File outputDir = new File(".");
+        int threads = BatchGenerator.configuredParallelism();
+        List<File> definitions = new ArrayList<>();
+        File inbox = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if ("-o".equals(arg) || "--sortie".equals(arg)) {
+                if (i + 1 >= args.length) {
+                    return usage(out, "dossier de sortie manquant apres " + arg);
+                }
+                outputDir = new File(args[++i]);
+            } else if ("-t".equals(arg) || "--threads".equals(arg)) {
+                try {
+                    threads = Integer.parseInt(args[++i]);
+                } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                    return usage(out, "nombre de threads attendu apres " + arg);
+                }
+            } else if ("-w".equals(arg) || "--surveiller".equals(arg)) {
+                if (i + 1 >= args.length) {
+                    return usage(out, "dossier de depot manquant apres " + arg);
+                }
+                inbox = new File(args[++i]);
+                if (!inbox.isDirectory()) {
+                    return usage(out, "dossier de depot introuvable : " + inbox);
+                }
+            } else if (arg.startsWith("-")) {
+                return usage(out, "option inconnue : " + arg);
+            } else {
+                File file = new File(arg);
+                if (file.isDirectory()) {
+                    File[] files = file.listFiles((dir, name) -> name.endsWith(".properties")
+                        || TableReader.isTable(new File(name)) || FicheJsonLines.isJsonLines(new File(name)));
+                    if (files != null) {
+                        Arrays.sort(files);
+                        definitions.addAll(Arrays.asList(files));
+                    }
+                } else if (file.isFile()) {
+                    definitions.add(file);
+                } else {
+                    return usage(out, "fichier introuvable : " + arg);
+                }
+            }
+        }
+        if (definitions.isEmpty() && inbox == null) {
+            return usage(out, "aucune fiche a generer");
+        }
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            return usage(out, "dossier de sortie impossible a creer : " + outputDir);
+        }
+
+        boolean virtualThreads = Boolean.parseBoolean(ConfigManager.getValue("lot.threads.virtuels", "true"));
+        BatchGenerator generator = new BatchGenerator(new DocumentGenerationService(), outputDir,
+            threads, virtualThreads);
+        if (inbox != null) {
+            return watch(inbox, generator, out);
+        }
+
+        long start = System.nanoTime();
+        BatchGenerator.Run batch = generator.start();
+        try {
+            for (File definition : definitions) {
+                if (!TableReader.isTable(definition) && !FicheJsonLines.isJsonLines(definition)) {
+                    batch.submit(BatchGenerator.fromFile(definition));
+                    continue;
+                }
+                try {
+                    if (FicheJsonLines.isJsonLines(definition)) {
+                        FicheJsonLines.submit(definition, batch);
+                    } else {
+                        TableImporter.submit(definition, batch);
+                    }
+                } catch (InterruptedIOException e) {
+                    break;
+                } catch (IOException e) {
+                    batch.reject(definition.getName(), e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<BatchResult> results = batch.finish();
+        BatchStatistics statistics = BatchStatistics.of(results, (System.nanoTime() - start) / 1_000_000);
+
+        for (BatchResult result : results) {
+            if (result.isSuccess()) {
+                out.printf("OK     %6d ms  %s -> %s%n", result.getDurationMs(),
+                    result.getSource(), result.getOutput().getName());
+            } else {
+                out.printf("ECHEC  %6d ms  %s : %s%n", result.getDurationMs(),
+                    result.getSource(), result.getError());
+            }
+        }
+        out.println(statistics);
+        if (DocumentCache.get().isEnabled()) {
+            out.println(DocumentCache.get());
+        }
+
+        return statistics.getFailures() == 0 ? EXIT_OK : EXIT_ECHEC;
+    }
+
+    /**
+     * Surveille le dossier de dépôt jusqu'à l'arrêt du processus (Ctrl+C)
+     */
+    private static int watch(File inbox, BatchGenerator generator, PrintStream out) {
+        HotFolder hotFolder = new HotFolder(inbox.toPath(), generator,
+            ConfigManager.getInt("surveillance.delai.ms", 1000),
+            ConfigManager.getInt("surveillance.balayage.secondes", 30) * 1000L);
+        try {
+            hotFolder.start();
+        } catch (IOException e) {
+            out.println("Erreur : surveillance impossible : " + e.getMessage());
+            return EXIT_ECHEC;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(hotFolder::close, "arret-surveillance"));
+        out.println("Surveillance de " + inbox.getAbsolutePath() + " (Ctrl+C pour arreter)");
+        try {
+            new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            hotFolder.close();
+        }
+        return EXIT_OK;
+    }
+
+    private static int usage(PrintStream out, String message) {
+        out.println("Erreur : " + message);
+        out.println("Usage : java -cp FicheDeControle.jar com.fichedecontrole.BatchMain"
+            + " [-o dossier] [-t threads] fiche.properties|tableau.csv|tableau.xlsx|fiches.jsonl|dossier...");
+        out.println("       java -cp FicheDeControle.jar com.fichedecontrole.BatchMain"
+            + " [-o dossier] [-t threads] -w dossier_de_depot");
+        return EXIT_USAGE;
+    }
+}
@@ -0,0 +1,350 @@
+package com.fichedecontrole.batch;
+
+import com.fichedecontrole.config.ConfigManager;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.service.DocumentGenerationException;
+import com.fichedecontrole.service.DocumentGenerationService;
+import com.fichedecontrole.service.ValidationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Génération d'une série de fiches dans un dossier de sortie.
+ *
+ * Chaque fiche est lue, validée puis nommée comme dans l'interface
+ * (NumFormulaire - CJ - PCs.docx) ; une fiche en échec n'arrête pas la série.
+ * Les fiches sont générées en parallèle par au plus {@code parallelism} threads
+ * (threads virtuels si la JVM les propose) ; la lecture se fait dans le thread de
+ * travail, donc au plus {@code parallelism} fiches et leurs captures sont en mémoire.
+ * Les résultats sont rendus dans l'ordre des fiches.
+ */
+public class BatchGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchGenerator.class);
+
+    /**
+     * Fiche à générer : libellé pour le rapport et lecture différée (thread de travail)
+     */
+    public interface FicheSource {
+        String getLabel();
+
+        FicheDto load() throws IOException;
+    }
+
+    /**
+     * Fichier de sortie d'une fiche validée
+     */
+    interface OutputNaming {
+        /**
+         * @param baseName nom du document sans extension (NumFormulaire - CJ - PCs)
+         * @throws IOException si la fiche ne peut pas être écrite sous ce nom (fiche en échec)
+         */
+        File resolve(String baseName, FicheDto fiche) throws IOException;
+    }
+
+    private final DocumentGenerationService documentService;
+    private final File outputDir;
+    private final int parallelism;
+    private final boolean virtualThreads;
+    private final Set<String> usedNames = new HashSet<>();
+
+    /**
+     * Génération séquentielle
+     */
+    public BatchGenerator(DocumentGenerationService documentService, File outputDir) {
+        this(documentService, outputDir, 1, false);
+    }
+
+    /**
+     * @param parallelism    nombre maximal de fiches générées simultanément
+     * @param virtualThreads threads virtuels si disponibles (Java 21+), sinon pool de threads
+     */
+    public BatchGenerator(DocumentGenerationService documentService, File outputDir,
+                          int parallelism, boolean virtualThreads) {
+        this.documentService = documentService;
+        this.outputDir = outputDir;
+        this.parallelism = Math.max(1, parallelism);
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Parallélisme par défaut : lot.threads (0 : nombre de processeurs)
+     */
+    public static int configuredParallelism() {
+        int threads = ConfigManager.getInt("lot.threads", 0);
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Source lisant une fiche .properties (voir {@link FicheDefinitionReader})
+     */
+    public static FicheSource fromFile(File definition) {
+        return new FicheSource() {
+            @Override
+            public String getLabel() {
+                return definition.getName();
+            }
+
+            @Override
+            public FicheDto load() throws IOException {
+                return FicheDefinitionReader.read(definition);
+            }
+        };
+    }
+
+    /**
+     * Source d'une fiche déjà lue (import de tableau ou de flux JSON Lines)
+     */
+    public static FicheSource of(String label, FicheDto fiche) {
+        return new FicheSource() {
+            @Override
+            public String getLabel() {
+                return label;
+            }
+
+            @Override
+            public FicheDto load() {
+                return fiche;
+            }
+        };
+    }
+
+    /**
+     * Génère toutes les fiches décrites par des fichiers .properties
+     *
+     * @return un résultat par fiche, dans le même ordre
+     */
+    public List<BatchResult> generate(List<File> definitions) {
+        return generateAll(definitions.stream().map(BatchGenerator::fromFile).collect(Collectors.toList()));
+    }
+
+    /**
+     * Génère toutes les fiches
+     *
+     * @return un résultat par fiche, dans le même ordre
+     */
+    public List<BatchResult> generateAll(List<FicheSource> sources) {
+        Run run = start();
+        try {
+            for (FicheSource source : sources) {
+                run.submit(source);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<BatchResult> results = run.finish();
+        for (int i = results.size(); i < sources.size(); i++) {
+            results.add(BatchResult.failure(sources.get(i).getLabel(), "interrompu", 0));
+        }
+        return results;
+    }
+
+    /**
+     * Démarre une série alimentée au fil de l'eau (import d'un tableau lu en flux)
+     */
+    public Run start() {
+        return new Run();
+    }
+
+    /**
+     * Série en cours : chaque fiche soumise part aussitôt en génération ;
+     * {@link #submit} bloque tant que {@code parallelism} fiches sont en cours,
+     * ce qui freine la lecture de la source au rythme de la génération.
+     */
+    public final class Run {
+        private final ExecutorService executor;
+        private final Semaphore permits = new Semaphore(parallelism);
+        private final List<Future<BatchResult>> futures = new ArrayList<>();
+        private final List<String> labels = new ArrayList<>();
+
+        private Run() {
+            this.executor = parallelism > 1 ? newExecutor() : null;
+        }
+
+        /**
+         * Soumet une fiche (exécutée dans le thread appelant en mode séquentiel)
+         *
+         * @throws InterruptedException si l'attente d'une place est interrompue
+         */
+        public void submit(FicheSource source) throws InterruptedException {
+            labels.add(source.getLabel());
+            if (executor == null) {
+                futures.add(CompletableFuture.completedFuture(generate(source)));
+                return;
+            }
+            permits.acquire();
+            try {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return generate(source);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            } catch (RuntimeException e) {
+                permits.release();
+                labels.remove(labels.size() - 1);
+                throw e;
+            }
+        }
+
+        /**
+         * Enregistre une fiche écartée avant génération (ligne invalide, source illisible),
+         * à sa place dans le rapport
+         */
+        public void reject(String label, String error) {
+            labels.add(label);
+            futures.add(CompletableFuture.completedFuture(failure(label, error, System.nanoTime())));
+        }
+
+        /**
+         * Attend la fin des fiches soumises et arrête les threads de la série
+         *
+         * @return un résultat par fiche, dans l'ordre de soumission
+         */
+        public List<BatchResult> finish() {
+            List<BatchResult> results = new ArrayList<>(futures.size());
+            try {
+                for (int i = 0; i < futures.size(); i++) {
+                    results.add(await(futures.get(i), labels.get(i)));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                for (int i = results.size(); i < futures.size(); i++) {
+                    results.add(BatchResult.failure(labels.get(i), "interrompu", 0));
+                }
+            } finally {
+                if (executor != null) {
+                    executor.shutdown();
+                }
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Génère une fiche : lecture, validation, nommage puis écriture du document
+     */
+    public BatchResult generate(FicheSource source) {
+        return generate(source, (baseName, fiche) -> reserveOutput(baseName));
+    }
+
+    /**
+     * Document sous le seul nom de la fiche (NumFormulaire - CJ - PCs.docx), qui remplace
+     * un document du même nom : une fiche redéposée ou reprise après un redémarrage donne
+     * toujours le même document (dossier de dépôt)
+     */
+    File replacingOutput(String baseName) {
+        return new File(outputDir, baseName + ".docx");
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Génère une fiche dans le fichier choisi par {@code naming}
+     */
+    BatchResult generate(FicheSource source, OutputNaming naming) {
+        String label = source.getLabel();
+        long start = System.nanoTime();
+        try {
+            FicheDto fiche = source.load();
+
+            ValidationResult validation = documentService.validate(fiche);
+            if (!validation.isValid()) {
+                return failure(label, "validation : " + String.join(", ", validation.getErrors().values()), start);
+            }
+
+            File output = naming.resolve(documentService.generateFileName(
+                fiche.getNumFormulaire(), fiche.getContratJuridique(), fiche.getListePC()), fiche);
+            documentService.generateDocument(fiche, output);
+            long durationMs = elapsedMs(start);
+            logger.info("Fiche generee : {} -> {} ({} ms)", label, output.getName(), durationMs);
+            return BatchResult.success(label, output, durationMs);
+
+        } catch (IOException e) {
+            return failure(label, e.getMessage(), start);
+        } catch (DocumentGenerationException e) {
+            return failure(label, e.hasValidationErrors()
+                ? "validation : " + String.join(", ", e.getValidationErrors().values())
+                : e.getMessage(), start);
+        } catch (RuntimeException e) {
+            logger.error("Erreur inattendue pour la fiche {}", label, e);
+            return failure(label, e.toString(), start);
+        }
+    }
+
+    private static BatchResult await(Future<BatchResult> future, String label) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // generate() capture déjà les exceptions : seule une Error arrive ici
+            logger.error("Erreur grave pour la fiche {}", label, e.getCause());
+            return BatchResult.failure(label, String.valueOf(e.getCause()), 0);
+        }
+    }
+
+    /**
+     * Threads virtuels (Java 21+, par réflexion : le code reste compilé en Java 11)
+     * ou pool borné de threads démons
+     */
+    ExecutorService newExecutor() {
+        if (virtualThreads) {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                logger.info("Generation en lot : {} fiche(s) simultanee(s), threads virtuels", parallelism);
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                logger.debug("Threads virtuels indisponibles sur cette JVM");
+            }
+        }
+        logger.info("Generation en lot : {} fiche(s) simultanee(s)", parallelism);
+        AtomicInteger threadCount = new AtomicInteger(1);
+        return Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "lot-" + threadCount.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Nom de sortie unique dans la série : deux fiches de même nom ne s'écrasent pas
+     * (un document d'une exécution précédente est remplacé)
+     */
+    private synchronized File reserveOutput(String baseName) {
+        String name = baseName + ".docx";
+        for (int i = 2; !usedNames.add(name.toLowerCase(Locale.ROOT)); i++) {
+            name = baseName + " (" + i + ").docx";
+        }
+        return new File(outputDir, name);
+    }
+
+    private static BatchResult failure(String label, String error, long start) {
+        logger.warn("Fiche en echec : {} : {}", label, error);
+        return BatchResult.failure(label, error, elapsedMs(start));
+    }
+
+    private static long elapsedMs(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,65 @@
+package com.fichedecontrole.batch;
+
+import java.io.File;
+
+/**
+ * Résultat de la génération d'une fiche en lot
+ */
+public class BatchResult {
+
+    private final String source;
+    private final File output;
+    private final String error;
+    private final long durationMs;
+
+    private BatchResult(String source, File output, String error, long durationMs) {
+        this.source = source;
+        this.output = output;
+        this.error = error;
+        this.durationMs = durationMs;
+    }
+
+    static BatchResult success(String source, File output, long durationMs) {
+        return new BatchResult(source, output, null, durationMs);
+    }
+
+    static BatchResult failure(String source, String error, long durationMs) {
+        return new BatchResult(source, null, error, durationMs);
+    }
+
+    /**
+     * Origine de la fiche (nom du fichier de définition)
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Document généré (null en cas d'échec)
+     */
+    public File getOutput() {
+        return output;
+    }
+
+    /**
+     * Motif de l'échec (null en cas de succès)
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Taille du document généré en octets (0 en cas d'échec)
+     */
+    public long getSize() {
+        return output != null ? output.length() : 0;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+}
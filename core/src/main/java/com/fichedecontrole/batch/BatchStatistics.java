@@ -0,0 +1,101 @@
+package com.fichedecontrole.batch;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Statistiques d'une génération en lot : débit et latences par fiche
+ */
+public class BatchStatistics {
+
+    private final int total;
+    private final int failures;
+    private final long wallMs;
+    private final long meanMs;
+    private final long p50Ms;
+    private final long p95Ms;
+    private final long maxMs;
+
+    private BatchStatistics(int total, int failures, long wallMs, long meanMs, long p50Ms, long p95Ms, long maxMs) {
+        this.total = total;
+        this.failures = failures;
+        this.wallMs = wallMs;
+        this.meanMs = meanMs;
+        this.p50Ms = p50Ms;
+        this.p95Ms = p95Ms;
+        this.maxMs = maxMs;
+    }
+
+    /**
+     * @param results les résultats de la série
+     * @param wallMs  durée totale de la série (horloge murale)
+     */
+    public static BatchStatistics of(List<BatchResult> results, long wallMs) {
+        long[] durations = results.stream().mapToLong(BatchResult::getDurationMs).sorted().toArray();
+        int failures = (int) results.stream().filter(r -> !r.isSuccess()).count();
+        if (durations.length == 0) {
+            return new BatchStatistics(0, 0, wallMs, 0, 0, 0, 0);
+        }
+        long sum = 0;
+        for (long d : durations) {
+            sum += d;
+        }
+        return new BatchStatistics(durations.length, failures, wallMs, sum / durations.length,
+            percentile(durations, 50), percentile(durations, 95), durations[durations.length - 1]);
+    }
+
+    /**
+     * Percentile par la méthode du rang le plus proche (tableau trié, non vide)
+     */
+    public static long percentile(long[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+
+    public int getSuccesses() {
+        return total - failures;
+    }
+
+    public long getWallMs() {
+        return wallMs;
+    }
+
+    /**
+     * Fiches générées par seconde (horloge murale)
+     */
+    public double getThroughput() {
+        return wallMs > 0 ? getSuccesses() * 1000.0 / wallMs : 0;
+    }
+
+    public long getMeanMs() {
+        return meanMs;
+    }
+
+    public long getP50Ms() {
+        return p50Ms;
+    }
+
+    public long getP95Ms() {
+        return p95Ms;
+    }
+
+    public long getMaxMs() {
+        return maxMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+            "%d fiche(s) : %d generee(s), %d en echec, %d ms au total, %.1f fiche(s)/s ; "
+                + "duree par fiche : moyenne %d ms, mediane %d ms, p95 %d ms, max %d ms",
+            total, getSuccesses(), failures, wallMs, getThroughput(), meanMs, p50Ms, p95Ms, maxMs);
+    }
+}
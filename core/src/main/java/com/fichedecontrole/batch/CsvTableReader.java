@@ -0,0 +1,111 @@
+package com.fichedecontrole.batch;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecture en flux d'un fichier CSV (UTF-8, BOM toléré).
+ *
+ * Le séparateur (';' comme Excel en français, ou ',') est déduit de la ligne
+ * d'en-tête. Les valeurs entre guillemets peuvent contenir séparateurs,
+ * guillemets doublés et retours à la ligne.
+ */
+public class CsvTableReader implements TableReader {
+
+    private static final char BOM = '\uFEFF';
+
+    @Override
+    public void read(File file, RowHandler handler) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line == null) {
+                return;
+            }
+            if (!line.isEmpty() && line.charAt(0) == BOM) {
+                line = line.substring(1);
+            }
+            char separator = detectSeparator(line);
+
+            int rowNumber = 0;
+            while (line != null) {
+                rowNumber++;
+                List<String> cells = new ArrayList<>();
+                StringBuilder cell = new StringBuilder();
+                boolean quoted = false;
+                int i = 0;
+                while (true) {
+                    if (i == line.length()) {
+                        if (!quoted) {
+                            break;
+                        }
+                        // Retour à la ligne dans une valeur entre guillemets
+                        line = reader.readLine();
+                        if (line == null) {
+                            throw new IOException("Guillemet non ferme a la ligne " + rowNumber);
+                        }
+                        cell.append('\n');
+                        i = 0;
+                        continue;
+                    }
+                    char c = line.charAt(i++);
+                    if (quoted) {
+                        if (c != '"') {
+                            cell.append(c);
+                        } else if (i < line.length() && line.charAt(i) == '"') {
+                            cell.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == separator) {
+                        cells.add(cell.toString());
+                        cell.setLength(0);
+                    } else {
+                        cell.append(c);
+                    }
+                }
+                cells.add(cell.toString());
+                if (!isBlank(cells)) {
+                    handler.row(rowNumber, cells);
+                }
+                line = reader.readLine();
+            }
+        }
+    }
+
+    /**
+     * Séparateur le plus fréquent de l'en-tête hors guillemets (';' en cas d'égalité)
+     */
+    static char detectSeparator(String header) {
+        int semicolons = 0;
+        int commas = 0;
+        boolean quoted = false;
+        for (int i = 0; i < header.length(); i++) {
+            char c = header.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && c == ';') {
+                semicolons++;
+            } else if (!quoted && c == ',') {
+                commas++;
+            }
+        }
+        return commas > semicolons ? ',' : ';';
+    }
+
+    private static boolean isBlank(List<String> cells) {
+        for (String cell : cells) {
+            if (!cell.trim().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
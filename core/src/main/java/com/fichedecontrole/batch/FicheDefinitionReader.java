@@ -0,0 +1,96 @@
+package com.fichedecontrole.batch;
+
+import com.fichedecontrole.model.CaptureCategory;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.ScreenCapture;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Lecture d'une fiche décrite dans un fichier .properties (UTF-8) pour la génération
+ * en ligne de commande (classe utilitaire finale).
+ *
+ * Clés : les champs du formulaire (contratJuridique, numFormulaire, typeDemande,
+ * risque, natureDemande, elements, dateEffet, dispositif, raisonSocial, parametreur,
+ * formules, tauxChargement, structure, structure2, listePC), voir {@link FicheMapper}.
+ * Captures : {@code capture.<CATEGORIE>=image1.png, image2.jpg}, chemins relatifs
+ * au fichier de la fiche. Les PNG sont repris tels quels, sans décodage.
+ */
+public final class FicheDefinitionReader {
+
+    /** Préfixe des clés de captures, suivi du nom de la catégorie */
+    public static final String CAPTURE_PREFIX = "capture.";
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation
+     */
+    private FicheDefinitionReader() {
+        throw new UnsupportedOperationException("Classe utilitaire - ne peut pas être instanciee");
+    }
+
+    /**
+     * Lit une fiche et ses captures
+     *
+     * @param file le fichier .properties de la fiche
+     * @return la fiche (non validée)
+     * @throws IOException si le fichier, une valeur ou une image est invalide
+     */
+    public static FicheDto read(File file) throws IOException {
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            props.load(reader);
+        }
+
+        Map<String, String> fields = new HashMap<>();
+        for (String key : props.stringPropertyNames()) {
+            fields.put(key, props.getProperty(key));
+        }
+        FicheDto fiche = FicheMapper.toFiche(fields);
+
+        File baseDir = file.getAbsoluteFile().getParentFile();
+        List<ScreenCapture> captures = new ArrayList<>();
+        for (CaptureCategory category : CaptureCategory.values()) {
+            List<String> paths = getList(props, CAPTURE_PREFIX + category.name());
+            if (paths.size() > 1 && !category.isMultiple()) {
+                throw new IOException("Une seule capture autorisee pour " + category.name());
+            }
+            for (int i = 0; i < paths.size(); i++) {
+                File image = new File(paths.get(i));
+                if (!image.isAbsolute()) {
+                    image = new File(baseDir, paths.get(i));
+                }
+                captures.add(loadCapture(category, image, i + 1));
+            }
+        }
+        fiche.setCaptures(captures);
+        return fiche;
+    }
+
+    /**
+     * Charge une image : un PNG est gardé tel quel après vérification,
+     * les autres formats sont décodés puis réencodés en PNG à la génération
+     */
+    static ScreenCapture loadCapture(CaptureCategory category, File file, int index) throws IOException {
+        if (!file.isFile()) {
+            throw new IOException("Image introuvable : " + file.getPath());
+        }
+        try {
+            return ScreenCapture.fromEncoded(category, Files.readAllBytes(file.toPath()), index);
+        } catch (IOException e) {
+            throw new IOException(e.getMessage() + " : " + file.getPath(), e);
+        }
+    }
+
+    private static List<String> getList(Properties props, String key) {
+        return FicheMapper.splitList(props.getProperty(key));
+    }
+}
@@ -0,0 +1,434 @@
+package com.fichedecontrole.batch;
+
+import com.fichedecontrole.model.CaptureCategory;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.NatureDemande;
+import com.fichedecontrole.model.Risque;
+import com.fichedecontrole.model.ScreenCapture;
+import com.fichedecontrole.model.TypeDemande;
+import com.fichedecontrole.service.ValidationResult;
+import com.fichedecontrole.service.ValidationService;
+import com.fichedecontrole.util.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Format d'échange JSON Lines des fiches : une fiche par ligne, fichier UTF-8 (classe utilitaire finale).
+ *
+ * Ligne : objet JSON avec les champs de {@link FicheDto} (énumérations par leur nom, listes
+ * en tableaux, champs null omis) et {@code captures}, tableau d'objets
+ * {@code {"categorie":"TEST_ADHESION","index":1,"largeur":800,"hauteur":600,"png":"<base64>"}}
+ * (capture intégrée) ou {@code {"categorie":...,"index":1,"chemin":"captures/c1.png"}}
+ * (capture référencée, chemin relatif au fichier).
+ *
+ * Lecture et écriture se font fiche par fiche : un fichier de plusieurs gigaoctets
+ * est parcouru avec la mémoire d'une seule ligne.
+ */
+public final class FicheJsonLines {
+
+    private static final Logger logger = LoggerFactory.getLogger(FicheJsonLines.class);
+
+    public static final String EXTENSION = ".jsonl";
+
+    // Octets encodés par morceau de base64 (multiple de 3 : pas de remplissage intermédiaire)
+    private static final int BASE64_CHUNK = 3 * 16 * 1024;
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation
+     */
+    private FicheJsonLines() {
+        throw new UnsupportedOperationException("Classe utilitaire - ne peut pas être instanciee");
+    }
+
+    /**
+     * Indique si le fichier est au format JSON Lines (.jsonl)
+     */
+    public static boolean isJsonLines(File file) {
+        return file.getName().toLowerCase(Locale.ROOT).endsWith(EXTENSION);
+    }
+
+    /**
+     * Lit le fichier et soumet ses fiches à la série, comme un tableau
+     * (voir {@link TableImporter}) : une ligne illisible ou invalide est rapportée
+     * sans arrêter la lecture
+     *
+     * @return le nombre de fiches lues
+     * @throws IOException si le fichier est illisible
+     */
+    public static int submit(File file, BatchGenerator.Run run) throws IOException {
+        ValidationService validationService = new ValidationService();
+        int count = 0;
+        try (Reader reader = Reader.open(file.toPath())) {
+            while (true) {
+                FicheDto fiche;
+                try {
+                    fiche = reader.read();
+                } catch (InvalidLineException e) {
+                    count++;
+                    run.reject(file.getName() + " ligne " + reader.getLineNumber(), e.getMessage());
+                    continue;
+                }
+                if (fiche == null) {
+                    break;
+                }
+                count++;
+                String label = file.getName() + " ligne " + reader.getLineNumber();
+                ValidationResult validation = validationService.validate(fiche);
+                if (!validation.isValid()) {
+                    run.reject(label, "validation : " + String.join(", ", validation.getErrors().values()));
+                    continue;
+                }
+                try {
+                    run.submit(BatchGenerator.of(label, fiche));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Import interrompu a la ligne " + reader.getLineNumber());
+                }
+            }
+        }
+        logger.info("Fichier JSON Lines importe : {} ({} fiche(s))", file.getName(), count);
+        return count;
+    }
+
+    /**
+     * Ligne illisible : la lecture peut reprendre à la ligne suivante
+     */
+    public static final class InvalidLineException extends IOException {
+        InvalidLineException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * Écriture fiche par fiche
+     */
+    public static final class Writer implements Closeable, Flushable {
+        private final java.io.Writer out;
+        private final Path baseDir;
+        private final String captureFolder;
+        private int captureCount;
+
+        /**
+         * Captures intégrées en base64
+         */
+        public Writer(java.io.Writer out) {
+            this(out, null, null);
+        }
+
+        /**
+         * Captures écrites en PNG dans {@code baseDir/captureFolder} et référencées par leur chemin
+         */
+        public Writer(java.io.Writer out, Path baseDir, String captureFolder) {
+            this.out = out;
+            this.baseDir = baseDir;
+            this.captureFolder = captureFolder;
+        }
+
+        /**
+         * Ouvre un fichier en écriture (captures référencées : dossier {@code <nom>_captures})
+         */
+        public static Writer create(Path file, boolean embedCaptures) throws IOException {
+            java.io.Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            if (embedCaptures) {
+                return new Writer(out);
+            }
+            String name = file.getFileName().toString();
+            String folder = (name.endsWith(EXTENSION) ? name.substring(0, name.length() - EXTENSION.length()) : name)
+                + "_captures";
+            Path baseDir = file.toAbsolutePath().getParent();
+            Files.createDirectories(baseDir.resolve(folder));
+            return new Writer(out, baseDir, folder);
+        }
+
+        /**
+         * Écrit une fiche sur une ligne
+         */
+        public void write(FicheDto fiche) throws IOException {
+            out.write('{');
+            boolean first = true;
+            first = field(first, "contratJuridique", fiche.getContratJuridique());
+            first = field(first, "numFormulaire", fiche.getNumFormulaire());
+            first = field(first, "typeDemande", fiche.getTypeDemande() != null ? fiche.getTypeDemande().name() : null);
+            first = field(first, "risque", fiche.getRisque() != null ? fiche.getRisque().name() : null);
+            first = field(first, "natureDemande",
+                fiche.getNatureDemande() != null ? fiche.getNatureDemande().name() : null);
+            first = list(first, "elements", fiche.getElements());
+            first = field(first, "dateEffet", fiche.getDateEffet());
+            first = field(first, "dispositif", fiche.getDispositif());
+            first = field(first, "raisonSocial", fiche.getRaisonSocial());
+            first = field(first, "parametreur", fiche.getParametreur());
+            first = list(first, "formules", fiche.getFormules());
+            first = field(first, "tauxChargement", fiche.getTauxChargement());
+            first = field(first, "structure", fiche.getStructure());
+            first = field(first, "structure2", fiche.getStructure2());
+            first = list(first, "listePC", fiche.getListePC() != null ? Arrays.asList(fiche.getListePC()) : null);
+            first = field(first, "produitGestion", fiche.getProduitGestion());
+
+            List<ScreenCapture> captures = fiche.getCaptures();
+            if (captures != null && !captures.isEmpty()) {
+                separator(first);
+                out.write("\"captures\":[");
+                for (int i = 0; i < captures.size(); i++) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    writeCapture(captures.get(i));
+                }
+                out.write(']');
+            }
+            out.write("}\n");
+        }
+
+        private void writeCapture(ScreenCapture capture) throws IOException {
+            byte[] png = capture.getPngData();
+            out.write("{\"categorie\":");
+            Json.writeString(out, capture.getCategory().name());
+            out.write(",\"index\":" + capture.getIndex()
+                + ",\"largeur\":" + capture.getWidth() + ",\"hauteur\":" + capture.getHeight());
+            if (captureFolder == null) {
+                out.write(",\"png\":\"");
+                Base64.Encoder encoder = Base64.getEncoder();
+                for (int offset = 0; offset < png.length; offset += BASE64_CHUNK) {
+                    int end = Math.min(png.length, offset + BASE64_CHUNK);
+                    out.write(encoder.encodeToString(Arrays.copyOfRange(png, offset, end)));
+                }
+                out.write("\"}");
+                return;
+            }
+            String path = captureFolder + "/capture-" + (++captureCount) + ".png";
+            Files.write(baseDir.resolve(path), png);
+            out.write(",\"chemin\":");
+            Json.writeString(out, path);
+            out.write('}');
+        }
+
+        private boolean field(boolean first, String name, String value) throws IOException {
+            if (value == null) {
+                return first;
+            }
+            separator(first);
+            Json.writeString(out, name);
+            out.write(':');
+            Json.writeString(out, value);
+            return false;
+        }
+
+        private boolean list(boolean first, String name, List<String> values) throws IOException {
+            if (values == null) {
+                return first;
+            }
+            separator(first);
+            Json.writeString(out, name);
+            out.write(":[");
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                Json.writeString(out, values.get(i));
+            }
+            out.write(']');
+            return false;
+        }
+
+        private void separator(boolean first) throws IOException {
+            if (!first) {
+                out.write(',');
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Lecture fiche par fiche (lignes vides ignorées)
+     */
+    public static final class Reader implements Closeable {
+        private final BufferedReader in;
+        private final Path baseDir;
+        private int lineNumber;
+
+        /**
+         * @param baseDir dossier de résolution des captures référencées (null : répertoire courant)
+         */
+        public Reader(java.io.Reader in, Path baseDir) {
+            this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 64 * 1024);
+            this.baseDir = baseDir;
+        }
+
+        /**
+         * Ouvre un fichier ; les captures référencées sont relatives à son dossier
+         */
+        public static Reader open(Path file) throws IOException {
+            return new Reader(Files.newBufferedReader(file, StandardCharsets.UTF_8), file.toAbsolutePath().getParent());
+        }
+
+        /**
+         * Lit la fiche suivante
+         *
+         * @return la fiche, ou null en fin de fichier
+         * @throws InvalidLineException si la ligne est invalide (la lecture peut reprendre à la ligne suivante)
+         * @throws IOException          si le fichier est illisible
+         */
+        public FicheDto read() throws IOException {
+            String line;
+            do {
+                line = in.readLine();
+                if (line == null) {
+                    return null;
+                }
+                lineNumber++;
+            } while (line.trim().isEmpty());
+
+            try {
+                return toFiche(Json.parseObject(line));
+            } catch (IOException | RuntimeException e) {
+                throw new InvalidLineException("ligne " + lineNumber + " : " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Numéro de la dernière ligne lue (1 pour la première)
+         */
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        private FicheDto toFiche(Map<String, Object> json) throws IOException {
+            List<String> pcs = strings(json, "listePC");
+            FicheDto fiche = new FicheDto(
+                string(json, "contratJuridique"),
+                string(json, "numFormulaire"),
+                FicheMapper.parseEnum(TypeDemande.class, "typeDemande", string(json, "typeDemande")),
+                FicheMapper.parseEnum(Risque.class, "risque", string(json, "risque")),
+                FicheMapper.parseEnum(NatureDemande.class, "natureDemande", string(json, "natureDemande")),
+                strings(json, "elements"),
+                string(json, "dateEffet"),
+                string(json, "dispositif"),
+                string(json, "raisonSocial"),
+                string(json, "parametreur"),
+                strings(json, "formules"),
+                string(json, "tauxChargement"),
+                string(json, "structure"),
+                string(json, "structure2"),
+                pcs != null ? pcs.toArray(new String[0]) : null);
+            if (json.containsKey("produitGestion")) {
+                fiche.setProduitGestion(string(json, "produitGestion"));
+            }
+
+            Object captures = json.get("captures");
+            if (captures instanceof List) {
+                List<ScreenCapture> loaded = new ArrayList<>();
+                for (Object capture : (List<?>) captures) {
+                    if (!(capture instanceof Map)) {
+                        throw new IOException("capture invalide");
+                    }
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> map = (Map<String, Object>) capture;
+                    loaded.add(toCapture(map));
+                }
+                fiche.setCaptures(loaded);
+            } else if (captures != null) {
+                throw new IOException("captures : tableau attendu");
+            }
+            return fiche;
+        }
+
+        private ScreenCapture toCapture(Map<String, Object> json) throws IOException {
+            CaptureCategory category = FicheMapper.parseEnum(CaptureCategory.class, "categorie",
+                string(json, "categorie"));
+            if (category == null) {
+                throw new IOException("capture sans categorie");
+            }
+            int index = number(json, "index", 1);
+            String png = string(json, "png");
+            String path = string(json, "chemin");
+            byte[] data;
+            if (png != null) {
+                try {
+                    data = Base64.getDecoder().decode(png);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("capture " + category.name() + " : base64 invalide");
+                }
+            } else if (path != null) {
+                Path file = baseDir != null ? baseDir.resolve(path) : Path.of(path);
+                if (!Files.isRegularFile(file)) {
+                    throw new IOException("Image introuvable : " + path);
+                }
+                data = Files.readAllBytes(file);
+            } else {
+                throw new IOException("capture " + category.name() + " sans 'png' ni 'chemin'");
+            }
+            int width = number(json, "largeur", 0);
+            int height = number(json, "hauteur", 0);
+            if (width > 0 && height > 0 && isPng(data)) {
+                // Dimensions connues : l'image n'est décodée qu'au besoin
+                return new ScreenCapture(category, data, width, height, index);
+            }
+            return ScreenCapture.fromEncoded(category, data, index);
+        }
+
+        private static boolean isPng(byte[] data) {
+            return data.length > 8 && (data[0] & 0xFF) == 0x89 && data[1] == 'P' && data[2] == 'N' && data[3] == 'G';
+        }
+
+        private static String string(Map<String, Object> json, String key) {
+            Object value = json.get(key);
+            return value != null ? String.valueOf(value) : null;
+        }
+
+        private static List<String> strings(Map<String, Object> json, String key) throws IOException {
+            Object value = json.get(key);
+            if (value == null) {
+                return null;
+            }
+            if (!(value instanceof List)) {
+                throw new IOException(key + " : tableau attendu");
+            }
+            List<String> values = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                values.add(item != null ? String.valueOf(item) : null);
+            }
+            return values;
+        }
+
+        private static int number(Map<String, Object> json, String key, int defaultValue) throws IOException {
+            Object value = json.get(key);
+            if (value == null) {
+                return defaultValue;
+            }
+            if (!(value instanceof Number)) {
+                throw new IOException(key + " : nombre attendu");
+            }
+            return ((Number) value).intValue();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
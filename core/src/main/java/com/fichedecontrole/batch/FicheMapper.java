@@ -0,0 +1,192 @@
+package com.fichedecontrole.batch;
+
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.NatureDemande;
+import com.fichedecontrole.model.Risque;
+import com.fichedecontrole.model.TypeDemande;
+
+import java.io.IOException;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Correspondance entre champs texte (fichier .properties, colonnes de tableur)
+ * et {@link FicheDto} (classe utilitaire finale).
+ *
+ * Listes séparées par des virgules, énumérations par leur nom (ex : E_CONTRACTU).
+ */
+public final class FicheMapper {
+
+    public static final String CONTRAT_JURIDIQUE = "contratJuridique";
+    public static final String NUM_FORMULAIRE = "numFormulaire";
+    public static final String TYPE_DEMANDE = "typeDemande";
+    public static final String RISQUE = "risque";
+    public static final String NATURE_DEMANDE = "natureDemande";
+    public static final String ELEMENTS = "elements";
+    public static final String DATE_EFFET = "dateEffet";
+    public static final String DISPOSITIF = "dispositif";
+    public static final String RAISON_SOCIAL = "raisonSocial";
+    public static final String PARAMETREUR = "parametreur";
+    public static final String FORMULES = "formules";
+    public static final String TAUX_CHARGEMENT = "tauxChargement";
+    public static final String STRUCTURE = "structure";
+    public static final String STRUCTURE2 = "structure2";
+    public static final String LISTE_PC = "listePC";
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    // Date 0 des numéros de série Excel (système 1900, bug du 29/02/1900 inclus)
+    private static final LocalDate EXCEL_EPOCH = LocalDate.of(1899, 12, 30);
+
+    // En-têtes de colonnes acceptés (normalisés : minuscules, sans accents ni séparateurs)
+    private static final Map<String, String> HEADERS = new HashMap<>();
+
+    static {
+        alias(CONTRAT_JURIDIQUE, "cj", "contrat", "contratjuridique");
+        alias(NUM_FORMULAIRE, "numero", "num", "formulaire", "numformulaire", "numeroformulaire",
+            "nformulaire", "noformulaire", "numerodemande", "nformulairedemande");
+        alias(TYPE_DEMANDE, "type", "typedemande");
+        alias(RISQUE, "risque");
+        alias(NATURE_DEMANDE, "nature", "naturedemande");
+        alias(ELEMENTS, "elements", "element");
+        alias(DATE_EFFET, "date", "dateeffet", "datedeffet");
+        alias(DISPOSITIF, "dispositif");
+        alias(RAISON_SOCIAL, "raisonsociale", "raisonsocial");
+        alias(PARAMETREUR, "parametreur");
+        alias(FORMULES, "formules", "formule");
+        alias(TAUX_CHARGEMENT, "taux", "tauxchargement", "tauxdechargement");
+        alias(STRUCTURE, "structure", "structure1");
+        alias(STRUCTURE2, "structure2");
+        alias(LISTE_PC, "pc", "pcs", "listepc", "produitscibles", "produitcible");
+    }
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation
+     */
+    private FicheMapper() {
+        throw new UnsupportedOperationException("Classe utilitaire - ne peut pas être instanciee");
+    }
+
+    private static void alias(String field, String... headers) {
+        HEADERS.put(normalize(field), field);
+        for (String header : headers) {
+            HEADERS.put(header, field);
+        }
+    }
+
+    /**
+     * Champ correspondant à un en-tête de colonne ("N° Formulaire", "CJ", "Date d'effet"...)
+     *
+     * @return le nom du champ, ou null si l'en-tête n'est pas reconnu
+     */
+    public static String fieldForHeader(String header) {
+        return header != null ? HEADERS.get(normalize(header)) : null;
+    }
+
+    /**
+     * Construit une fiche (sans captures) à partir des champs texte
+     *
+     * @param fields valeurs par nom de champ (absentes ou vides : champ vide)
+     * @throws IOException si une énumération est invalide
+     */
+    public static FicheDto toFiche(Map<String, String> fields) throws IOException {
+        return new FicheDto(
+            get(fields, CONTRAT_JURIDIQUE),
+            get(fields, NUM_FORMULAIRE),
+            parseEnum(TypeDemande.class, fields, TYPE_DEMANDE),
+            parseEnum(Risque.class, fields, RISQUE),
+            parseEnum(NatureDemande.class, fields, NATURE_DEMANDE),
+            getList(fields, ELEMENTS),
+            parseDate(get(fields, DATE_EFFET)),
+            get(fields, DISPOSITIF),
+            get(fields, RAISON_SOCIAL),
+            get(fields, PARAMETREUR),
+            getList(fields, FORMULES),
+            get(fields, TAUX_CHARGEMENT),
+            get(fields, STRUCTURE),
+            get(fields, STRUCTURE2),
+            getList(fields, LISTE_PC).toArray(new String[0]));
+    }
+
+    /**
+     * Liste séparée par des virgules (éléments vides ignorés)
+     */
+    static List<String> splitList(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        return Arrays.stream(value.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .collect(Collectors.toList());
+    }
+
+    private static String get(Map<String, String> fields, String key) {
+        String value = fields.get(key);
+        return value != null ? value.trim() : "";
+    }
+
+    private static List<String> getList(Map<String, String> fields, String key) {
+        return splitList(fields.get(key));
+    }
+
+    /**
+     * Date d'effet : texte repris tel quel, numéro de série Excel converti en jj/mm/aaaa
+     */
+    private static String parseDate(String value) {
+        if (value.matches("\\d{1,6}(\\.0+)?")) {
+            long serial = Long.parseLong(value.replaceAll("\\..*", ""));
+            return EXCEL_EPOCH.plusDays(serial).format(DATE_FORMATTER);
+        }
+        return value;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, Map<String, String> fields, String key)
+            throws IOException {
+        return parseEnum(type, key, get(fields, key));
+    }
+
+    /**
+     * Valeur d'énumération par son nom, sans tenir compte de la casse, des accents
+     * ni des séparateurs (ex : "E-Contractu" pour E_CONTRACTU)
+     *
+     * @param key nom du champ, pour le message d'erreur
+     * @return la constante, ou null si la valeur est vide
+     * @throws IOException si la valeur ne correspond à aucune constante
+     */
+    public static <E extends Enum<E>> E parseEnum(Class<E> type, String key, String value) throws IOException {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        E[] constants = type.getEnumConstants();
+        for (E constant : constants) {
+            if (constant.name().equals(value)) {
+                return constant; // Nom exact : cas courant, sans normalisation
+            }
+        }
+        String name = normalize(value).toUpperCase(Locale.ROOT);
+        for (E constant : constants) {
+            if (constant.name().replace("_", "").equals(name)) {
+                return constant;
+            }
+        }
+        throw new IOException("Valeur invalide pour " + key + " : " + value.trim()
+            + " (valeurs possibles : " + Arrays.stream(type.getEnumConstants())
+                .map(Enum::name).collect(Collectors.joining(", ")) + ")");
+    }
+
+    /**
+     * Minuscules, sans accents ni caractères autres que lettres et chiffres
+     */
+    private static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+}
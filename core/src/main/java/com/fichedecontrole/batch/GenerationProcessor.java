@@ -0,0 +1,266 @@
+package com.fichedecontrole.batch;
+
+import com.fichedecontrole.config.ConfigManager;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.ScreenCapture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Génération en flux ({@link Flow}) : reçoit des fiches d'un {@code Publisher<FicheDto>}
+ * et publie un {@link BatchResult} par fiche (document, taille, durée ou erreur),
+ * dans l'ordre de fin de génération.
+ *
+ * La demande remonte : une fiche n'est demandée à la source que si le nombre de fiches
+ * en cours (en génération ou résultat non encore remis) reste sous {@code maxInFlight}
+ * et le poids de leurs images sous {@code maxImageBytes}. Un abonné lent ou une génération
+ * lente freine donc la lecture en amont. Un seul abonné est accepté.
+ */
+public class GenerationProcessor implements Flow.Processor<FicheDto, BatchResult> {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationProcessor.class);
+
+    private final BatchGenerator generator;
+    private final int maxInFlight;
+    private final long maxImageBytes;
+
+    private final Queue<BatchResult> results = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong imageBytes = new AtomicLong();
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger requested = new AtomicInteger();  // demandées à la source, pas encore reçues
+    private final AtomicInteger received = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    private volatile Flow.Subscription upstream;
+    private volatile Flow.Subscriber<? super BatchResult> downstream;
+    private volatile ExecutorService executor;
+    private volatile boolean upstreamDone;
+    private volatile Throwable upstreamError;
+    private volatile Throwable requestError;
+    private volatile boolean cancelled;
+    private boolean terminated; // modifié dans drain() uniquement
+
+    /**
+     * Bornes lues dans la configuration (flux.fiches.max, flux.images.max.mo)
+     */
+    public GenerationProcessor(BatchGenerator generator) {
+        this(generator, ConfigManager.getInt("flux.fiches.max", 8),
+            ConfigManager.getInt("flux.images.max.mo", 256) * 1024L * 1024L);
+    }
+
+    /**
+     * @param maxInFlight   nombre maximal de fiches en cours
+     * @param maxImageBytes poids maximal des images en cours (PNG, plus les pixels décodés des
+     *                      captures non compactées) ;
+     *                      une fiche plus lourde passe seule
+     */
+    public GenerationProcessor(BatchGenerator generator, int maxInFlight, long maxImageBytes) {
+        this.generator = generator;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxImageBytes = Math.max(1, maxImageBytes);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super BatchResult> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    // Abonnement refusé
+                }
+
+                @Override
+                public void cancel() {
+                    // Abonnement refusé
+                }
+            });
+            subscriber.onError(new IllegalStateException("Un seul abonne par generation en flux"));
+            return;
+        }
+        downstream = subscriber;
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    requestError = new IllegalArgumentException("Demande invalide : " + n);
+                    cancelUpstream();
+                } else {
+                    demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+                }
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                cancelUpstream();
+                drain();
+            }
+        });
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        executor = generator.newExecutor();
+        upstream = subscription;
+        drain();
+    }
+
+    @Override
+    public void onNext(FicheDto fiche) {
+        requested.decrementAndGet();
+        long weight = imageBytes(fiche);
+        inFlight.incrementAndGet();
+        imageBytes.addAndGet(weight);
+        int number = received.incrementAndGet();
+        String label = fiche.getNumFormulaire() != null && !fiche.getNumFormulaire().isEmpty()
+            ? "fiche " + number + " (" + fiche.getNumFormulaire() + ")"
+            : "fiche " + number;
+        try {
+            executor.execute(() -> {
+                BatchResult result;
+                try {
+                    result = generator.generate(BatchGenerator.of(label, fiche));
+                } catch (Throwable e) {
+                    result = BatchResult.failure(label, String.valueOf(e), 0);
+                }
+                imageBytes.addAndGet(-weight); // les images ne sont plus retenues
+                results.add(result);
+                drain();
+            });
+        } catch (RejectedExecutionException e) {
+            // Flux annulé entre-temps
+            imageBytes.addAndGet(-weight);
+            inFlight.decrementAndGet();
+        }
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        upstreamError = throwable;
+        upstreamDone = true; // écrit après l'erreur : drain() voit l'une avec l'autre
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    /**
+     * Nombre de fiches en cours (reçues, résultat non encore remis)
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Poids des images en cours de génération, en octets
+     */
+    public long getImageBytes() {
+        return imageBytes.get();
+    }
+
+    /**
+     * Boucle unique de remise des résultats et de demande à la source :
+     * exécutée par un seul thread à la fois, relancée si un signal arrive pendant son tour
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            Flow.Subscriber<? super BatchResult> subscriber = downstream;
+            if (terminated || subscriber == null) {
+                continue;
+            }
+            if (cancelled) {
+                terminate();
+                results.clear();
+                continue;
+            }
+
+            // Remise des résultats selon la demande de l'abonné
+            while (demand.get() > 0 && !results.isEmpty() && !cancelled) {
+                BatchResult result = results.poll();
+                inFlight.decrementAndGet();
+                demand.decrementAndGet();
+                subscriber.onNext(result);
+            }
+
+            Throwable error = requestError != null ? requestError : upstreamError;
+            if (upstreamDone && inFlight.get() == 0 || requestError != null) {
+                // Fin : tous les résultats remis, ou demande invalide de l'abonné
+                terminate();
+                if (error != null) {
+                    subscriber.onError(error);
+                } else {
+                    subscriber.onComplete();
+                }
+                continue;
+            }
+
+            // Demande d'une fiche à la source si les bornes le permettent
+            Flow.Subscription subscription = upstream;
+            if (subscription != null && !upstreamDone && requested.get() == 0
+                    && inFlight.get() < maxInFlight && imageBytes.get() < maxImageBytes) {
+                requested.incrementAndGet();
+                subscription.request(1);
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private void terminate() {
+        terminated = true;
+        ExecutorService pool = executor;
+        if (pool != null) {
+            pool.shutdown();
+        }
+        logger.debug("Generation en flux terminee : {} fiche(s) recue(s)", received.get());
+    }
+
+    private void cancelUpstream() {
+        Flow.Subscription subscription = upstream;
+        if (subscription != null && !upstreamDone) {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * Poids des captures d'une fiche, compté comme pour l'admission en mémoire
+     * (voir {@link ScreenCapture#getMemoryBytes()})
+     */
+    static long imageBytes(FicheDto fiche) {
+        long bytes = 0;
+        if (fiche.getCaptures() != null) {
+            for (ScreenCapture capture : fiche.getCaptures()) {
+                try {
+                    bytes += capture.getMemoryBytes();
+                } catch (IOException e) {
+                    // Capture illisible : la génération échouera, seule l'image décodée est comptée
+                    bytes += capture.isCompacted() ? 0 : (long) capture.getWidth() * capture.getHeight() * 4;
+                }
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,342 @@
+package com.fichedecontrole.batch;
+
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.service.DocumentCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dossier de dépôt surveillé : chaque fiche .properties déposée est générée sans intervention.
+ *
+ * Une fiche est prise en charge par renommage atomique en {@code .processing} (une seule
+ * prise en charge, même si deux balayages se croisent), générée par le pool de la série,
+ * puis déplacée dans {@code done/} ou dans {@code failed/} avec un rapport d'erreur
+ * ({@code <fiche>.erreur.txt}). Au plus {@code parallelism} fiches sont prises en charge à
+ * la fois : les suivantes restent déposées jusqu'à ce qu'une place se libère, si bien
+ * qu'un dépôt massif ne charge jamais plus de fiches et de captures que la série.
+ * Les documents sont écrits dans le dossier de sortie sous le seul nom de la fiche
+ * (un document du même nom est remplacé) : redéposer une fiche, ou la reprendre après
+ * un redémarrage, donne le même document. Une fiche différente dont le nom de document
+ * est déjà pris pendant cette surveillance (en cours ou déjà écrit) est mise en échec
+ * au lieu d'écraser ce document ; seule l'empreinte du contenu est gardée par nom.
+ *
+ * Le {@link WatchService} ne sert qu'à réveiller le balayage du dossier : un dépôt de
+ * centaines de fiches donne un seul balayage, et un balayage périodique rattrape les
+ * événements perdus. Une fiche n'est prise qu'une fois stable (non modifiée depuis
+ * {@code settleMs}), pour ne pas lire un fichier en cours de copie. Au démarrage, les
+ * fiches restées en {@code .processing} (arrêt brutal) sont remises en attente, et les
+ * fiches déposées pendant l'arrêt sont traitées au premier balayage.
+ */
+public class HotFolder implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotFolder.class);
+
+    static final String PROCESSING_SUFFIX = ".processing";
+    static final String DONE_DIR = "done";
+    static final String FAILED_DIR = "failed";
+    static final String REPORT_SUFFIX = ".erreur.txt";
+
+    private static final String FICHE_GLOB = "*.properties";
+    private static final DateTimeFormatter REPORT_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private final Path inbox;
+    private final Path done;
+    private final Path failed;
+    private final BatchGenerator generator;
+    private final long settleMs;
+    private final long rescanMs;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Semaphore slots;
+    // Nom de document (minuscules) → empreinte du contenu de la fiche qui l'a produit
+    private final Map<String, String> outputs = new ConcurrentHashMap<>();
+
+    private ExecutorService workers;
+    private WatchService watchService;
+    private Thread watchThread;
+    private volatile boolean running;
+
+    /**
+     * @param inbox     dossier de dépôt (done/ et failed/ y sont créés)
+     * @param generator génération des fiches (dossier de sortie, parallélisme)
+     * @param settleMs  délai sans modification avant de prendre une fiche
+     * @param rescanMs  intervalle du balayage de rattrapage
+     */
+    public HotFolder(Path inbox, BatchGenerator generator, long settleMs, long rescanMs) {
+        this.inbox = inbox;
+        this.done = inbox.resolve(DONE_DIR);
+        this.failed = inbox.resolve(FAILED_DIR);
+        this.generator = generator;
+        this.settleMs = Math.max(0, settleMs);
+        this.rescanMs = Math.max(100, rescanMs);
+        this.slots = new Semaphore(generator.getParallelism());
+    }
+
+    /**
+     * Reprend les fiches interrompues puis surveille le dossier en arrière-plan
+     */
+    public void start() throws IOException {
+        Files.createDirectories(done);
+        Files.createDirectories(failed);
+        recover();
+
+        workers = generator.newExecutor();
+        watchService = inbox.getFileSystem().newWatchService();
+        inbox.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        running = true;
+        watchThread = new Thread(this::watchLoop, "surveillance-depot");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        logger.info("Surveillance du dossier de depot : {}", inbox.toAbsolutePath());
+    }
+
+    /**
+     * Remet en attente les fiches prises en charge avant un arrêt brutal
+     */
+    void recover() throws IOException {
+        try (DirectoryStream<Path> claimed = Files.newDirectoryStream(inbox, "*" + PROCESSING_SUFFIX)) {
+            for (Path file : claimed) {
+                String name = file.getFileName().toString();
+                Path original = inbox.resolve(name.substring(0, name.length() - PROCESSING_SUFFIX.length()));
+                try {
+                    Files.move(file, original, StandardCopyOption.ATOMIC_MOVE);
+                    logger.info("Fiche interrompue remise en attente : {}", original.getFileName());
+                } catch (IOException e) {
+                    logger.warn("Fiche interrompue impossible a reprendre : {} : {}", name, e.toString());
+                }
+            }
+        }
+    }
+
+    private void watchLoop() {
+        long waitMs = 0;
+        while (running) {
+            try {
+                WatchKey key = watchService.poll(waitMs, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    // Les événements ne servent qu'à réveiller le balayage
+                    key.pollEvents();
+                    key.reset();
+                }
+                waitMs = scan() ? settleMs : rescanMs;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Erreur de balayage du dossier de depot", e);
+                waitMs = rescanMs;
+            }
+        }
+    }
+
+    /**
+     * Prend en charge les fiches stables du dossier
+     *
+     * @return true si des fiches encore en cours d'écriture restent à prendre
+     */
+    boolean scan() throws IOException, InterruptedException {
+        boolean unsettled = false;
+        long now = System.currentTimeMillis();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(inbox, FICHE_GLOB)) {
+            for (Path file : files) {
+                if (!running) {
+                    break;
+                }
+                try {
+                    if (now - Files.getLastModifiedTime(file).toMillis() < settleMs) {
+                        unsettled = true;
+                        continue;
+                    }
+                } catch (NoSuchFileException e) {
+                    continue; // Prise en charge ou retirée entre-temps
+                }
+                if (!acquireSlot()) {
+                    break; // Arrêt en cours
+                }
+                Path claimed = claim(file);
+                if (claimed == null) {
+                    slots.release();
+                    continue;
+                }
+                String name = file.getFileName().toString();
+                inFlight.incrementAndGet();
+                try {
+                    workers.execute(() -> process(claimed, name));
+                } catch (RejectedExecutionException e) {
+                    // Arrêt en cours : la fiche reste en .processing et sera reprise au démarrage
+                    inFlight.decrementAndGet();
+                    slots.release();
+                    break;
+                }
+            }
+        }
+        return unsettled;
+    }
+
+    /**
+     * Attend une place libre parmi les {@code parallelism} fiches en cours
+     *
+     * @return false si la surveillance est arrêtée pendant l'attente
+     */
+    private boolean acquireSlot() throws InterruptedException {
+        while (running) {
+            if (slots.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Renommage atomique en .processing
+     *
+     * @return le fichier pris en charge, ou null s'il ne l'est pas (déjà pris, encore ouvert)
+     */
+    private Path claim(Path file) {
+        Path claimed = file.resolveSibling(file.getFileName() + PROCESSING_SUFFIX);
+        try {
+            return Files.move(file, claimed, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException | FileAlreadyExistsException e) {
+            return null;
+        } catch (AtomicMoveNotSupportedException e) {
+            logger.error("Renommage atomique impossible dans {}", inbox);
+            return null;
+        } catch (IOException e) {
+            // Fichier encore ouvert par l'application qui le dépose (Windows) : au prochain balayage
+            logger.debug("Fiche pas encore disponible : {} : {}", file.getFileName(), e.toString());
+            return null;
+        }
+    }
+
+    private void process(Path claimed, String name) {
+        String[] reserved = new String[2]; // nom et empreinte réservés par cette fiche
+        try {
+            BatchResult result = generator.generate(new BatchGenerator.FicheSource() {
+                @Override
+                public String getLabel() {
+                    return name;
+                }
+
+                @Override
+                public FicheDto load() throws IOException {
+                    return FicheDefinitionReader.read(claimed.toFile());
+                }
+            }, (baseName, fiche) -> reserveOutput(baseName, fiche, reserved));
+            if (!result.isSuccess() && reserved[0] != null) {
+                // Aucun document écrit : le nom redevient libre
+                outputs.remove(reserved[0], reserved[1]);
+            }
+            if (result.isSuccess()) {
+                moveTo(claimed, done, name);
+            } else {
+                Path moved = moveTo(claimed, failed, name);
+                writeReport(moved, result);
+            }
+        } catch (IOException | RuntimeException e) {
+            // La fiche reste en .processing : elle sera reprise au prochain démarrage
+            logger.error("Fiche {} non archivee", name, e);
+        } finally {
+            inFlight.decrementAndGet();
+            slots.release();
+        }
+    }
+
+    /**
+     * Nom du document d'une fiche : le même pour le même contenu, refusé s'il est déjà
+     * pris par une fiche différente (en cours ou écrite pendant cette surveillance)
+     *
+     * @param reserved reçoit le nom et l'empreinte si cette fiche vient de les réserver
+     * @throws IOException si le nom est pris par une autre fiche
+     */
+    private File reserveOutput(String baseName, FicheDto fiche, String[] reserved) throws IOException {
+        // Empreinte du contenu seul (champs et captures), sans modèle ni date
+        String fingerprint = DocumentCache.key(fiche, "", "");
+        String key = baseName.toLowerCase(Locale.ROOT);
+        String owner = outputs.putIfAbsent(key, fingerprint);
+        if (owner == null) {
+            reserved[0] = key;
+            reserved[1] = fingerprint;
+        } else if (!owner.equals(fingerprint)) {
+            throw new IOException("document " + baseName + ".docx deja produit par une autre fiche de ce depot");
+        }
+        return generator.replacingOutput(baseName);
+    }
+
+    /**
+     * Déplace la fiche sous son nom d'origine, suffixé si une fiche du même nom y est déjà
+     */
+    private static Path moveTo(Path claimed, Path dir, String name) throws IOException {
+        Path target = dir.resolve(name);
+        for (int i = 2; Files.exists(target); i++) {
+            target = dir.resolve(name + "." + i);
+        }
+        return Files.move(claimed, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeReport(Path fiche, BatchResult result) throws IOException {
+        String report = "Fiche : " + result.getSource() + System.lineSeparator()
+            + "Date : " + LocalDateTime.now().format(REPORT_DATE) + System.lineSeparator()
+            + "Erreur : " + result.getError() + System.lineSeparator();
+        Files.write(fiche.resolveSibling(fiche.getFileName() + REPORT_SUFFIX),
+            report.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Nombre de fiches prises en charge et pas encore archivées
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Arrête la surveillance et attend la fin des fiches prises en charge
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Erreur a la fermeture de la surveillance", e);
+        }
+        if (workers != null) {
+            workers.shutdown();
+            try {
+                if (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                    logger.warn("{} fiche(s) encore en cours a l'arret, reprises au prochain demarrage", inFlight.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        logger.info("Surveillance du dossier de depot arretee");
+    }
+}
@@ -0,0 +1,106 @@
+package com.fichedecontrole.batch;
+
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.service.ValidationResult;
+import com.fichedecontrole.service.ValidationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Import en masse de fiches depuis un tableau CSV ou XLSX (classe utilitaire finale).
+ *
+ * La première ligne donne les colonnes (voir {@link FicheMapper#fieldForHeader}),
+ * chaque ligne suivante décrit une fiche sans captures. Le tableau est lu en flux :
+ * chaque ligne est convertie et validée dès sa lecture, une ligne valide part aussitôt
+ * en génération et une ligne invalide est rapportée avec ses erreurs, sans arrêter l'import.
+ */
+public final class TableImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableImporter.class);
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation
+     */
+    private TableImporter() {
+        throw new UnsupportedOperationException("Classe utilitaire - ne peut pas être instanciee");
+    }
+
+    /**
+     * Lit le tableau et soumet ses lignes à la série
+     *
+     * @param table le fichier .csv ou .xlsx
+     * @param run   la série qui reçoit les fiches (libellé : "fichier ligne N")
+     * @return le nombre de lignes de fiches lues
+     * @throws IOException si le tableau est illisible ou si aucune colonne n'est reconnue
+     */
+    public static int submit(File table, BatchGenerator.Run run) throws IOException {
+        ValidationService validationService = new ValidationService();
+        List<String> columns = new ArrayList<>();
+        int[] rows = {0};
+
+        TableReader.forFile(table).read(table, (rowNumber, cells) -> {
+            if (columns.isEmpty()) {
+                columns.addAll(mapHeader(table, cells));
+                return;
+            }
+            rows[0]++;
+            String label = table.getName() + " ligne " + rowNumber;
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < cells.size() && i < columns.size(); i++) {
+                if (columns.get(i) != null) {
+                    fields.put(columns.get(i), cells.get(i));
+                }
+            }
+
+            FicheDto fiche;
+            try {
+                fiche = FicheMapper.toFiche(fields);
+            } catch (IOException e) {
+                run.reject(label, e.getMessage());
+                return;
+            }
+            ValidationResult validation = validationService.validate(fiche);
+            if (!validation.isValid()) {
+                run.reject(label, "validation : " + String.join(", ", validation.getErrors().values()));
+                return;
+            }
+            try {
+                run.submit(BatchGenerator.of(label, fiche));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Import interrompu a la ligne " + rowNumber);
+            }
+        });
+
+        logger.info("Tableau importe : {} ({} ligne(s))", table.getName(), rows[0]);
+        return rows[0];
+    }
+
+    /**
+     * Champ de chaque colonne (null pour une colonne ignorée)
+     */
+    private static List<String> mapHeader(File table, List<String> header) throws IOException {
+        List<String> columns = new ArrayList<>(header.size());
+        boolean recognized = false;
+        for (String title : header) {
+            String field = FicheMapper.fieldForHeader(title);
+            if (field == null && !title.trim().isEmpty()) {
+                logger.warn("Colonne ignoree dans {} : {}", table.getName(), title);
+            }
+            recognized |= field != null;
+            columns.add(field);
+        }
+        if (!recognized) {
+            throw new IOException("Aucune colonne reconnue dans l'en-tete de " + table.getName());
+        }
+        return columns;
+    }
+}
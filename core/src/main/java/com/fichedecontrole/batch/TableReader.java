@@ -0,0 +1,54 @@
+package com.fichedecontrole.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lecture en flux d'un tableau (CSV ou XLSX), ligne par ligne, sans le charger en mémoire
+ */
+public interface TableReader {
+
+    /**
+     * Reçoit chaque ligne dès qu'elle est lue
+     */
+    interface RowHandler {
+        /**
+         * @param rowNumber numéro de la ligne dans le fichier (1 : en-tête)
+         * @param cells     valeurs des cellules, chaînes vides pour les cellules vides
+         */
+        void row(int rowNumber, List<String> cells) throws IOException;
+    }
+
+    /**
+     * Lit le tableau et transmet chaque ligne, en-tête compris
+     *
+     * @throws IOException si le fichier est illisible ou si le gestionnaire échoue
+     */
+    void read(File file, RowHandler handler) throws IOException;
+
+    /**
+     * Indique si le fichier est un tableau importable (.csv ou .xlsx)
+     */
+    static boolean isTable(File file) {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") || name.endsWith(".xlsx");
+    }
+
+    /**
+     * Lecteur adapté à l'extension du fichier
+     *
+     * @throws IOException si l'extension n'est ni .csv ni .xlsx
+     */
+    static TableReader forFile(File file) throws IOException {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return new CsvTableReader();
+        }
+        if (name.endsWith(".xlsx")) {
+            return new XlsxTableReader();
+        }
+        throw new IOException("Format de tableau non pris en charge : " + file.getName());
+    }
+}
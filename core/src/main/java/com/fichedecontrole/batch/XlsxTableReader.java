@@ -0,0 +1,241 @@
+package com.fichedecontrole.batch;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Lecture en flux de la première feuille d'un classeur Excel (.xlsx).
+ *
+ * Le classeur est lu directement comme archive ZIP : les chaînes partagées
+ * (xl/sharedStrings.xml) sont chargées, puis la feuille est parcourue en SAX,
+ * une ligne à la fois ; la feuille n'est jamais chargée entièrement en mémoire.
+ * Les valeurs sont rendues telles qu'enregistrées (une date est un numéro de série).
+ */
+public class XlsxTableReader implements TableReader {
+
+    private static final String SHARED_STRINGS = "xl/sharedStrings.xml";
+    private static final String FIRST_SHEET = "xl/worksheets/sheet1.xml";
+
+    @Override
+    public void read(File file, RowHandler handler) throws IOException {
+        try (ZipFile zip = new ZipFile(file)) {
+            List<String> sharedStrings = Collections.emptyList();
+            ZipEntry stringsEntry = zip.getEntry(SHARED_STRINGS);
+            if (stringsEntry != null) {
+                SharedStringsHandler stringsHandler = new SharedStringsHandler();
+                parse(zip, stringsEntry, stringsHandler);
+                sharedStrings = stringsHandler.strings;
+            }
+            parse(zip, findSheet(zip), new SheetHandler(sharedStrings, handler));
+        } catch (SheetAbort e) {
+            throw e.cause;
+        }
+    }
+
+    private static ZipEntry findSheet(ZipFile zip) throws IOException {
+        ZipEntry sheet = zip.getEntry(FIRST_SHEET);
+        if (sheet != null) {
+            return sheet;
+        }
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            if (entry.getName().startsWith("xl/worksheets/") && entry.getName().endsWith(".xml")) {
+                return entry;
+            }
+        }
+        throw new IOException("Aucune feuille dans le classeur");
+    }
+
+    private static void parse(ZipFile zip, ZipEntry entry, DefaultHandler handler) throws IOException {
+        try (InputStream in = zip.getInputStream(entry)) {
+            newParser().parse(in, handler);
+        } catch (SheetAbort e) {
+            throw e;
+        } catch (SAXException e) {
+            throw new IOException("Classeur invalide (" + entry.getName() + ") : " + e.getMessage(), e);
+        }
+    }
+
+    private static SAXParser newParser() throws IOException {
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(false);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            return factory.newSAXParser();
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Analyseur XML indisponible", e);
+        }
+    }
+
+    /**
+     * Indice de colonne (0 pour A) d'une référence de cellule comme "AB12"
+     */
+    static int columnIndex(String reference) {
+        int column = 0;
+        for (int i = 0; i < reference.length(); i++) {
+            char c = reference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * Erreur du gestionnaire de lignes, transportée à travers le parseur SAX
+     */
+    private static final class SheetAbort extends RuntimeException {
+        private final IOException cause;
+
+        SheetAbort(IOException cause) {
+            super(cause);
+            this.cause = cause;
+        }
+    }
+
+    /**
+     * Chaînes partagées : texte de chaque {@code <si>} (runs concaténés, phonétique ignorée)
+     */
+    private static final class SharedStringsHandler extends DefaultHandler {
+        private final List<String> strings = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+        private boolean inText;
+        private boolean inPhonetic;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if ("si".equals(qName)) {
+                text.setLength(0);
+            } else if ("rPh".equals(qName)) {
+                inPhonetic = true;
+            } else if ("t".equals(qName)) {
+                inText = !inPhonetic;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if ("si".equals(qName)) {
+                strings.add(text.toString());
+            } else if ("rPh".equals(qName)) {
+                inPhonetic = false;
+            } else if ("t".equals(qName)) {
+                inText = false;
+            }
+        }
+    }
+
+    /**
+     * Feuille : une ligne est transmise à la fermeture de {@code <row>}
+     */
+    private static final class SheetHandler extends DefaultHandler {
+        private final List<String> sharedStrings;
+        private final RowHandler handler;
+        private final StringBuilder value = new StringBuilder();
+        private List<String> cells;
+        private int rowNumber;
+        private int column;
+        private String type;
+        private boolean inValue;
+
+        SheetHandler(List<String> sharedStrings, RowHandler handler) {
+            this.sharedStrings = sharedStrings;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (qName) {
+                case "row":
+                    String r = attributes.getValue("r");
+                    rowNumber = r != null ? Integer.parseInt(r) : rowNumber + 1;
+                    cells = new ArrayList<>();
+                    break;
+                case "c":
+                    String reference = attributes.getValue("r");
+                    column = reference != null ? columnIndex(reference) : cells.size();
+                    type = attributes.getValue("t");
+                    value.setLength(0);
+                    break;
+                case "v":
+                case "t":
+                    inValue = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                value.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (qName) {
+                case "v":
+                case "t":
+                    inValue = false;
+                    break;
+                case "c":
+                    while (cells.size() < column) {
+                        cells.add("");
+                    }
+                    cells.add(cellValue());
+                    break;
+                case "row":
+                    if (cells.stream().anyMatch(c -> !c.trim().isEmpty())) {
+                        try {
+                            handler.row(rowNumber, cells);
+                        } catch (IOException e) {
+                            throw new SheetAbort(e);
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private String cellValue() {
+            String raw = value.toString();
+            if ("s".equals(type)) {
+                int index = Integer.parseInt(raw.trim());
+                return index < sharedStrings.size() ? sharedStrings.get(index) : "";
+            }
+            if (type == null || "n".equals(type)) {
+                // Entier enregistré en flottant par certains outils : "12.0"
+                return raw.endsWith(".0") ? raw.substring(0, raw.length() - 2) : raw;
+            }
+            return raw;
+        }
+    }
+}
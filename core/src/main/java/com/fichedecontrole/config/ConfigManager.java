@@ -108,4 +108,23 @@ public final class ConfigManager {
     public static String getValue(String key, String defaultValue) {
         return PropertiesHolder.INSTANCE.getProperty(key, defaultValue);
     }
+
+    /**
+     * Récupère une valeur entière avec défaut
+     * @param key La clé de la propriété
+     * @param defaultValue La valeur par défaut
+     * @return La valeur ou defaultValue si absente ou invalide
+     */
+    public static int getInt(String key, int defaultValue) {
+        String value = PropertiesHolder.INSTANCE.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Valeur entiere invalide pour '{}' : {} (defaut : {})", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
 }
@@ -0,0 +1,92 @@
+package com.fichedecontrole.generator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Flux d'écriture vers un canal, par un tampon direct de grande taille.
+ *
+ * Le canal écrit le tampon direct sans copie intermédiaire ; les tampons sont réutilisés
+ * d'une génération à l'autre (leur allocation est coûteuse). La fermeture vide le tampon
+ * sans fermer le canal : c'est à l'appelant de le faire.
+ */
+class ChannelOutputStream extends OutputStream {
+
+    static final int BUFFER_SIZE = 256 * 1024;
+
+    // Tampons libres, au plus un par processeur
+    private static final Queue<ByteBuffer> POOL = new ConcurrentLinkedQueue<>();
+    private static final int POOL_MAX = Runtime.getRuntime().availableProcessors();
+
+    private final WritableByteChannel channel;
+    private ByteBuffer buffer;
+
+    ChannelOutputStream(WritableByteChannel channel) {
+        this.channel = channel;
+        ByteBuffer pooled = POOL.poll();
+        this.buffer = pooled != null ? pooled : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int chunk = Math.min(len, buffer.remaining());
+            buffer.put(b, off, chunk);
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            drain();
+        } finally {
+            buffer.clear();
+            if (POOL.size() < POOL_MAX) {
+                POOL.offer(buffer);
+            }
+            buffer = null;
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Flux ferme");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.fichedecontrole.generator;
+
+/**
+ * Suivi de la génération d'un document : notification des étapes
+ * et demande d'annulation.
+ * Les méthodes sont appelées depuis le thread de génération.
+ */
+public interface GenerationListener {
+
+    /** Listener sans effet, pour les appels sans suivi */
+    GenerationListener NONE = phase -> { };
+
+    /**
+     * Appelé au début de chaque étape
+     *
+     * @param phase l'étape qui commence
+     */
+    void onPhase(GenerationPhase phase);
+
+    /**
+     * Consulté entre les étapes et entre les entrées du ZIP :
+     * si true, la génération s'interrompt et le fichier partiel est supprimé.
+     *
+     * @return true si l'annulation est demandée
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -0,0 +1,34 @@
+package com.fichedecontrole.generator;
+
+/**
+ * Étapes successives de la génération d'un document Word.
+ * Le pourcentage indique l'avancement approximatif au début de l'étape.
+ */
+public enum GenerationPhase {
+    TEMPLATE("Chargement du modèle", 0),
+    IMAGES("Préparation des images", 10),
+    XML("Remplacement des balises", 60),
+    ZIP("Écriture du document", 75),
+    FLUSH("Finalisation", 95);
+
+    private final String displayName;
+    private final int percent;
+
+    GenerationPhase(String displayName, int percent) {
+        this.displayName = displayName;
+        this.percent = percent;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public int getPercent() {
+        return percent;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
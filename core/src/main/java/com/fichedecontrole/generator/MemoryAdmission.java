@@ -0,0 +1,171 @@
+package com.fichedecontrole.generator;
+
+import com.fichedecontrole.config.ConfigManager;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.ScreenCapture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Admission des générations selon un budget mémoire.
+ *
+ * Chaque génération réserve son empreinte estimée (voir {@link #estimate}) avant d'écrire
+ * le document et la rend à la fin. Une génération qui dépasserait le budget attend son
+ * tour au lieu d'échouer ; les générations sont admises dans l'ordre d'arrivée, et une
+ * génération plus lourde que le budget entier passe seule. Le budget
+ * (generation.memoire.budget.mo, 0 : la moitié du tas) borne ainsi la mémoire des
+ * générations simultanées, quel que soit le nombre de threads qui génèrent.
+ */
+public class MemoryAdmission {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemoryAdmission.class);
+
+    private static final long MO = 1024L * 1024L;
+
+    // Part fixe d'une génération : flux ZIP, tampons, XML des tableaux
+    static final long BASE_BYTES = MO;
+    // Modèle : document.xml recopié en chaînes UTF-16 à chaque remplacement de balise
+    static final long TEMPLATE_FACTOR = 3;
+
+    // Délai entre deux contrôles d'annulation pendant l'attente
+    private static final long CANCEL_CHECK_MS = 200;
+
+    private static MemoryAdmission global;
+
+    private final long budgetBytes;
+    private final Queue<Object> queue = new ArrayDeque<>(); // attentes, dans l'ordre d'arrivée
+    private long reservedBytes;
+    private int running;
+
+    /**
+     * @param budgetBytes mémoire réservable par les générations simultanées
+     */
+    public MemoryAdmission(long budgetBytes) {
+        this.budgetBytes = Math.max(1, budgetBytes);
+    }
+
+    /**
+     * Instance partagée, créée selon la configuration (generation.memoire.budget.mo)
+     */
+    public static synchronized MemoryAdmission get() {
+        if (global == null) {
+            long budget = ConfigManager.getInt("generation.memoire.budget.mo", 0) * MO;
+            global = new MemoryAdmission(budget > 0 ? budget : Runtime.getRuntime().maxMemory() / 2);
+            logger.info("Budget memoire des generations : {} Mo", global.budgetBytes / MO);
+        }
+        return global;
+    }
+
+    /**
+     * Réservation d'une génération, rendue à la fermeture
+     */
+    public final class Permit implements AutoCloseable {
+        private final long bytes;
+        private boolean released;
+
+        private Permit(long bytes) {
+            this.bytes = bytes;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public void close() {
+            synchronized (MemoryAdmission.this) {
+                if (!released) {
+                    released = true;
+                    reservedBytes -= bytes;
+                    running--;
+                    MemoryAdmission.this.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Empreinte maximale estimée d'une génération : part fixe, modèle et captures.
+     * La génération n'insère que le PNG des captures : l'image décodée n'est comptée que
+     * pour une capture non compactée (voir {@link ScreenCapture#getMemoryBytes()}).
+     *
+     * @param templateSize taille décompressée du modèle en octets
+     * @throws IOException si une capture ne peut pas être encodée en PNG
+     */
+    public static long estimate(FicheDto fiche, long templateSize) throws IOException {
+        long bytes = BASE_BYTES + TEMPLATE_FACTOR * templateSize;
+        if (fiche.getCaptures() != null) {
+            for (ScreenCapture capture : fiche.getCaptures()) {
+                bytes += capture.getMemoryBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Réserve l'empreinte d'une génération, en attendant si le budget est atteint
+     *
+     * @param listener consulté pendant l'attente pour l'annulation
+     * @throws InterruptedException  si l'attente est interrompue
+     * @throws CancellationException si l'annulation est demandée pendant l'attente
+     */
+    public synchronized Permit acquire(long bytes, GenerationListener listener) throws InterruptedException {
+        Object turn = new Object();
+        queue.add(turn);
+        try {
+            if (queue.peek() != turn || !fits(bytes)) {
+                logger.info("Generation en attente de memoire : {} Mo demandes, {}/{} Mo reserves, {} en attente",
+                    bytes / MO, reservedBytes / MO, budgetBytes / MO, queue.size());
+                while (queue.peek() != turn || !fits(bytes)) {
+                    if (listener.isCancelled()) {
+                        throw new CancellationException("Generation annulee pendant l'attente de memoire");
+                    }
+                    wait(CANCEL_CHECK_MS);
+                }
+            }
+        } finally {
+            queue.remove(turn);
+            notifyAll();
+        }
+        reservedBytes += bytes;
+        running++;
+        return new Permit(bytes);
+    }
+
+    /**
+     * Mémoire réservée par les générations en cours
+     */
+    public synchronized long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * Générations admises, en cours
+     */
+    public synchronized int getRunning() {
+        return running;
+    }
+
+    /**
+     * Générations en attente d'admission
+     */
+    public synchronized int getWaiting() {
+        return queue.size();
+    }
+
+    /**
+     * Une génération plus lourde que le budget passe quand aucune autre n'est en cours
+     */
+    private boolean fits(long bytes) {
+        return running == 0 || reservedBytes + bytes <= budgetBytes;
+    }
+}
@@ -0,0 +1,218 @@
+package com.fichedecontrole.generator;
+
+import com.fichedecontrole.util.Digests;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Cache du modèle Word (classe utilitaire finale).
+ *
+ * Le modèle est décompressé une seule fois en mémoire (liste ordonnée des entrées du ZIP) :
+ * les générations suivantes ne relisent plus le fichier. Le modèle externe
+ * (./templates/modele.docx) est relu s'il a été modifié depuis le chargement.
+ */
+public final class TemplateCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplateCache.class);
+
+    private static final String TEMPLATE_PATH = "/templates/modele.docx";
+    private static final String EXTERNAL_TEMPLATE = "templates/modele.docx";
+
+    private static Template cached;
+    private static long lastAccessNanos;
+
+    private TemplateCache() {
+        throw new UnsupportedOperationException("Classe utilitaire - ne peut pas être instanciee");
+    }
+
+    /**
+     * Entrée du modèle : nom dans le ZIP et contenu décompressé
+     */
+    public static final class Entry {
+        private final String name;
+        private final byte[] data;
+        private volatile ZipAssembler.Compressed compressed;
+
+        Entry(String name, byte[] data) {
+            this.name = name;
+            this.data = data;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Contenu partagé entre les générations : ne pas modifier
+         */
+        public byte[] getData() {
+            return data;
+        }
+
+        /**
+         * Contenu compressé, calculé au premier besoin puis recopié tel quel par les
+         * générations qui ne modifient pas cette entrée
+         */
+        ZipAssembler.Compressed getCompressed() {
+            ZipAssembler.Compressed result = compressed;
+            if (result == null) {
+                result = ZipAssembler.Compressed.deflate(data);
+                compressed = result;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Modèle décompressé, immuable
+     */
+    public static final class Template {
+        private final List<Entry> entries;
+        private final File source;
+        private final long lastModified;
+        private final long length;
+        private final long size;
+        private volatile String version;
+
+        private Template(List<Entry> entries, File source) {
+            this.entries = Collections.unmodifiableList(entries);
+            this.size = entries.stream().mapToLong(e -> e.data.length).sum();
+            this.source = source;
+            this.lastModified = source != null ? source.lastModified() : 0;
+            this.length = source != null ? source.length() : 0;
+        }
+
+        /**
+         * Entrées dans l'ordre du fichier d'origine
+         */
+        public List<Entry> getEntries() {
+            return entries;
+        }
+
+        /**
+         * Version du modèle : empreinte SHA-256 de ses entrées (calculée au premier appel)
+         */
+        public String getVersion() {
+            String current = version;
+            if (current == null) {
+                MessageDigest digest = Digests.sha256();
+                for (Entry entry : entries) {
+                    digest.update(entry.name.getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                    digest.update(entry.data);
+                }
+                current = Digests.hex(digest.digest());
+                version = current;
+            }
+            return current;
+        }
+
+        /**
+         * Taille décompressée du modèle en octets
+         */
+        public long getSize() {
+            return size;
+        }
+
+        private boolean isStale(File external) {
+            if (source == null) {
+                // Modèle embarqué : à recharger si un modèle externe est apparu
+                return external.exists();
+            }
+            return !external.exists() || external.lastModified() != lastModified || external.length() != length;
+        }
+    }
+
+    /**
+     * Retourne le modèle, chargé au premier appel ou rechargé s'il a changé sur disque
+     *
+     * @throws FileNotFoundException si le modèle n'est trouvé ni en externe ni dans le classpath
+     */
+    public static synchronized Template get() throws IOException {
+        File external = new File(EXTERNAL_TEMPLATE);
+        if (cached == null || cached.isStale(external)) {
+            cached = load(external);
+        }
+        lastAccessNanos = System.nanoTime();
+        return cached;
+    }
+
+    /**
+     * Oublie le modèle chargé (il sera relu à la prochaine génération)
+     */
+    public static synchronized void clear() {
+        cached = null;
+    }
+
+    /**
+     * Libère le modèle s'il n'a pas servi depuis le délai indiqué (mode économe)
+     *
+     * @return true si le modèle a été libéré
+     */
+    public static synchronized boolean releaseIfIdle(long idleMs) {
+        if (cached == null || (System.nanoTime() - lastAccessNanos) / 1_000_000L < idleMs) {
+            return false;
+        }
+        cached = null;
+        logger.info("Modele libere apres {} s d'inactivite", idleMs / 1000);
+        return true;
+    }
+
+    private static Template load(File external) throws IOException {
+        long start = System.nanoTime();
+        Template template;
+
+        // Tenter de charger depuis ./templates/ d'abord (configuration externe)
+        if (external.exists()) {
+            try (InputStream in = new FileInputStream(external)) {
+                template = new Template(readEntries(in), external);
+            }
+            logger.info("Template charge depuis : {}", external.getAbsolutePath());
+        } else {
+            // Sinon charger depuis le classpath (embarqué dans le JAR)
+            try (InputStream in = TemplateCache.class.getResourceAsStream(TEMPLATE_PATH)) {
+                if (in == null) {
+                    logger.error("Le modele Word n'a pas ete trouve");
+                    throw new FileNotFoundException("Le modele Word n'a pas ete trouve");
+                }
+                template = new Template(readEntries(in), null);
+            }
+            logger.info("Template charge depuis le classpath : {}", TEMPLATE_PATH);
+        }
+
+        logger.debug("Template decompresse : {} entrees en {} ms", template.getEntries().size(),
+            (System.nanoTime() - start) / 1_000_000);
+        return template;
+    }
+
+    private static List<Entry> readEntries(InputStream in) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        byte[] buffer = new byte[8192];
+        try (ZipInputStream zis = new ZipInputStream(in)) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                int len;
+                while ((len = zis.read(buffer)) > 0) {
+                    baos.write(buffer, 0, len);
+                }
+                entries.add(new Entry(entry.getName(), baos.toByteArray()));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,691 @@
+package com.fichedecontrole.generator;
+
+import com.fichedecontrole.config.ConfigManager;
+import com.fichedecontrole.model.CaptureCategory;
+import com.fichedecontrole.model.ElementPleiade;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.NatureDemande;
+import com.fichedecontrole.model.ScreenCapture;
+import com.fichedecontrole.model.TypeDemande;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Générateur de documents Word basé sur un modèle .docx
+ * Version utilisant la manipulation XML directe
+ *
+ * Sans état : une même instance peut générer plusieurs documents en parallèle
+ * (modèle partagé en lecture seule, un {@link WordImageManager} par document).
+ */
+public class WordGeneratorXML {
+
+    // Clés pour les commentaires
+    private static final String CONFIG_COMMENT_NO_PARAMS = "commentaire.sans.parametrage";
+
+    // Clés pour les opérations (contrat/avenant)
+    private static final String CONFIG_OPERATION_CONTRAT = "commentaire.operation.contrat";
+    private static final String CONFIG_OPERATION_AVENANT = "commentaire.operation.avenant";
+
+    // Clés pour les équipes prestation
+    private static final String CONFIG_PRESTATION_SANTE = "commentaire.prestation.sante";
+    private static final String CONFIG_PRESTATION_PREV = "commentaire.prestation.prev";
+
+    private static final String CONFIG_PRESTATION_FERMETURE_PC = "commentaire.fermeture.pc";
+    private static final String CONFIG_PRESTATION_FERMETURE_RG = "commentaire.fermeture.rg";
+
+    private static final Logger logger = LoggerFactory.getLogger(WordGeneratorXML.class);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // Fichier en cours d'écriture, renommé en .docx une fois complet
+    static final String TEMP_SUFFIX = ".tmp";
+
+    // Date fixe des entrées du ZIP en mode reproductible (heure locale, comme le format ZIP)
+    private static final LocalDateTime DATE_ENTREES = LocalDateTime.of(1980, 2, 1, 0, 0);
+
+    private final Clock clock;
+    private final boolean reproductible;
+
+    /**
+     * Horloge système ; mode reproductible selon generation.reproductible
+     */
+    public WordGeneratorXML() {
+        this(Clock.systemDefaultZone(),
+            Boolean.parseBoolean(ConfigManager.getValue("generation.reproductible", "true")));
+    }
+
+    /**
+     * @param clock         horloge de la date du jour (DATE_DU_JOUR)
+     * @param reproductible mode reproductible : une même fiche donne les mêmes octets le même jour
+     *                      (dates des entrées fixes, images numérotées par catégorie)
+     */
+    public WordGeneratorXML(Clock clock, boolean reproductible) {
+        this.clock = clock;
+        this.reproductible = reproductible;
+    }
+
+    /**
+     * Date du jour insérée dans le document (seule donnée variable en mode reproductible)
+     */
+    public String getDateDuJour() {
+        return LocalDate.now(clock).format(DATE_FORMATTER);
+    }
+
+    public boolean isReproductible() {
+        return reproductible;
+    }
+
+    /**
+     * Génère une fiche de contrôle Word
+     */
+    public void genererFicheDeControle(FicheDto fiche, File outputFile) throws Exception {
+        genererFicheDeControle(fiche, outputFile, GenerationListener.NONE);
+    }
+
+    /**
+     * Génère une fiche de contrôle Word en notifiant l'avancement.
+     *
+     * Le document est écrit dans un fichier temporaire du même dossier puis renommé
+     * en une seule opération : le fichier de sortie n'est jamais incomplet, même après
+     * un arrêt brutal, et un document existant reste intact si la génération échoue.
+     *
+     * @param fiche      les données de la fiche
+     * @param outputFile le fichier .docx à écrire (remplacé s'il existe)
+     * @param listener   suivi des étapes et demande d'annulation
+     * @throws CancellationException si l'annulation a été demandée
+     */
+    public void genererFicheDeControle(FicheDto fiche, File outputFile, GenerationListener listener) throws Exception {
+        // Charger le modèle avant de créer le fichier : un modèle introuvable ne laisse rien
+        TemplateCache.Template template = chargerModele(fiche, listener);
+
+        MemoryAdmission.Permit permit = admettre(fiche, template, listener);
+        try {
+            ecrireFichier(outputFile, out -> ecrireDocument(fiche, template, out, listener));
+        } finally {
+            permit.close();
+        }
+
+        logger.info("Document genere avec succes : {}", outputFile.getAbsolutePath());
+    }
+
+    /**
+     * Enregistre un document déjà produit (cache), avec le même remplacement atomique
+     * que la génération dans un fichier
+     */
+    public static void enregistrer(byte[] docx, File outputFile) throws IOException {
+        ecrireFichier(outputFile, out -> out.write(docx));
+    }
+
+    /**
+     * Génère une fiche de contrôle Word dans un flux.
+     * Le flux n'est pas fermé : c'est à l'appelant de le faire.
+     *
+     * @param fiche    les données de la fiche
+     * @param out      le flux de destination
+     * @param listener suivi des étapes et demande d'annulation
+     * @throws CancellationException si l'annulation a été demandée
+     */
+    public void genererFicheDeControle(FicheDto fiche, OutputStream out, GenerationListener listener) throws Exception {
+        TemplateCache.Template template = chargerModele(fiche, listener);
+        MemoryAdmission.Permit permit = admettre(fiche, template, listener);
+        try {
+            if (out instanceof BufferedOutputStream || out instanceof ByteArrayOutputStream) {
+                ecrireDocument(fiche, template, out, listener);
+            } else {
+                // Le ZIP écrit par petits morceaux : regroupés avant le flux de l'appelant
+                OutputStream buffered = new BufferedOutputStream(new NonClosingOutputStream(out), 64 * 1024);
+                ecrireDocument(fiche, template, buffered, listener);
+                buffered.flush();
+            }
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * Génère une fiche de contrôle Word dans un canal bloquant, par un tampon direct.
+     * Le canal n'est pas fermé : c'est à l'appelant de le faire.
+     *
+     * @param fiche    les données de la fiche
+     * @param channel  le canal de destination (fichier, socket...)
+     * @param listener suivi des étapes et demande d'annulation
+     * @throws CancellationException si l'annulation a été demandée
+     */
+    public void genererFicheDeControle(FicheDto fiche, WritableByteChannel channel, GenerationListener listener)
+            throws Exception {
+        TemplateCache.Template template = chargerModele(fiche, listener);
+        MemoryAdmission.Permit permit = admettre(fiche, template, listener);
+        try (ChannelOutputStream out = new ChannelOutputStream(channel)) {
+            ecrireDocument(fiche, template, out, listener);
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * Écriture d'un document dans un flux
+     */
+    private interface Ecriture<E extends Exception> {
+        void ecrire(OutputStream out) throws E;
+    }
+
+    /**
+     * Écrit dans un fichier temporaire du même dossier, le force sur disque puis le renomme
+     * en fichier cible ; le fichier temporaire est supprimé en cas d'erreur
+     */
+    private static <E extends Exception> void ecrireFichier(File outputFile, Ecriture<E> ecriture)
+            throws E, IOException {
+        Path target = outputFile.toPath().toAbsolutePath();
+        Path temp = target.resolveSibling("." + target.getFileName() + "." + System.nanoTime() + TEMP_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 ChannelOutputStream out = new ChannelOutputStream(channel)) {
+                ecriture.ecrire(out);
+                out.flush();
+                channel.force(false);
+            }
+            remplacer(temp, target);
+        } finally {
+            // Fichier temporaire restant en cas d'annulation ou d'erreur
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Remplace le fichier cible par le fichier temporaire, en une seule opération si le
+     * système de fichiers le permet
+     */
+    private static void remplacer(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            logger.debug("Renommage atomique indisponible pour {}", target);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Charge le modèle (externe ou depuis resources, gardé en cache)
+     */
+    private TemplateCache.Template chargerModele(FicheDto fiche, GenerationListener listener) throws IOException {
+        logger.info("Generation du document pour le formulaire : {}", fiche.getNumFormulaire());
+        listener.onPhase(GenerationPhase.TEMPLATE);
+        return TemplateCache.get();
+    }
+
+    /**
+     * Réserve la mémoire de la génération (voir {@link MemoryAdmission}), en attendant si besoin
+     */
+    private MemoryAdmission.Permit admettre(FicheDto fiche, TemplateCache.Template template,
+                                            GenerationListener listener)
+            throws InterruptedException, IOException {
+        return MemoryAdmission.get().acquire(MemoryAdmission.estimate(fiche, template.getSize()), listener);
+    }
+
+    /**
+     * Écrit le document à partir du modèle décompressé
+     */
+    private void ecrireDocument(FicheDto fiche, TemplateCache.Template template, OutputStream out,
+                                GenerationListener listener) throws Exception {
+        // Date du jour
+        String dateJour = getDateDuJour();
+
+        // Préparer les images si des captures sont présentes
+        listener.onPhase(GenerationPhase.IMAGES);
+        WordImageManager imageManager = new WordImageManager();
+        if (fiche.getCaptures() != null && !fiche.getCaptures().isEmpty()) {
+            List<ScreenCapture> captures = fiche.getCaptures();
+            if (reproductible) {
+                // Numéros d'image et rId par catégorie : indépendants de l'ordre de saisie entre catégories
+                captures = new ArrayList<>(captures);
+                captures.sort(Comparator.comparing(ScreenCapture::getCategory));
+            }
+            imageManager.prepareImages(captures);
+        }
+
+        // Reconstruire le ZIP entrée par entrée (le flux de l'appelant reste ouvert) :
+        // seules les entrées modifiées sont compressées, les autres sont recopiées
+        // sous la forme compressée gardée avec le modèle
+        ZipAssembler zip = new ZipAssembler(out, reproductible ? DATE_ENTREES : LocalDateTime.now(clock));
+        for (TemplateCache.Entry entry : template.getEntries()) {
+            checkCancelled(listener);
+
+            if (entry.getName().equals("word/document.xml")) {
+                // === Traitement du document.xml ===
+                listener.onPhase(GenerationPhase.XML);
+                logger.debug("Traitement du fichier word/document.xml");
+                String xml = new String(entry.getData(), StandardCharsets.UTF_8);
+
+                // Remplacer les valeurs depuis le DTO
+                xml = remplacerBalise(xml, "NUM_FORMULAIRE", fiche.getNumFormulaire());
+                xml = remplacerBalise(xml, "CONTRAT_JURIDIQUE", fiche.getContratJuridique());
+                // NATURE_DEMANDE = displayName + éléments cochés
+                // Création  → séparateur "+"   (ex : "Création PG+PC+RG")
+                // Modification → séparateur " / " (ex : "Modification Cotis / Tx Chgt / CJ")
+                String natureDemande = fiche.getNatureDemande().getDisplayName();
+                List<String> elements = fiche.getElements();
+                if (elements != null && !elements.isEmpty()) {
+                    String sep = (fiche.getNatureDemande() == NatureDemande.CREATION) ? "+" : " / ";
+                    natureDemande += " " + String.join(sep, elements);
+                }
+                
+                xml = remplacerBalise(xml, "NATURE_DEMANDE", natureDemande);
+                xml = remplacerBalise(xml, "DATE_DU_JOUR", dateJour);
+                xml = remplacerBalise(xml, "DATE_EFFET", fiche.getDateEffet());
+                xml = remplacerBalise(xml, "DISPOSITIF", fiche.getDispositif());
+                xml = remplacerBalise(xml, "RAISON_SOCIAL", fiche.getRaisonSocial());
+                xml = remplacerBalise(xml, "PARAMETREUR", fiche.getParametreur());
+                xml = remplacerBalise(xml, "PRODUIT_GESTION", fiche.getProduitGestion());
+                xml = remplacerBalise(xml, "FORMULE", fiche.getFormule());
+                xml = remplacerBalise(xml, "TAUX_CHARGEMENT", fiche.getTauxChargement());
+                xml = remplacerBalise(xml, "STRUCTURE2", fiche.getStructure2());
+                xml = remplacerBalise(xml, "STRUCTURE", fiche.getStructure());
+                xml = remplacerBalise(xml, "TYPE_DEMANDE", fiche.getTypeDemande().getDisplayName());
+
+                if (fiche.getListePC().length == 1) {
+                    xml = remplacerBalise(xml, "LISTE_PCS", ConfigManager.getValue("commentaire.liste.pc.seul"));
+                } else if (fiche.getListePC().length > 1) {
+                    xml = remplacerBalise(xml, "LISTE_PCS", ConfigManager.getValue("commentaire.liste.pc.multiple"));
+                }
+
+                xml = remplacerBalise(xml, "RISQUE", fiche.getRisque().getDisplayName());
+                xml = remplacerBalise(xml, "ACTION", fiche.getNatureDemande().getLibelle());
+                
+                NatureDemande nature = fiche.getNatureDemande();
+                boolean isEligible = nature == NatureDemande.CREATION 
+                                || nature == NatureDemande.MODIFICATION;
+
+                String operation = isEligible
+                        ? getConfigValueSafely(getOperationConfigKey(nature))
+                        : "";
+
+                String prestation = (nature == NatureDemande.CREATION 
+                            && fiche.getTypeDemande() == TypeDemande.E_CONTRACTU)
+                        ? getConfigValueSafely(
+                            getPrestationConfigKey(fiche.getRisque().getDisplayName())
+                        )
+                        : "";
+
+                String fermeturePc = (nature == NatureDemande.MODIFICATION 
+                    && fiche.getElements().contains(ElementPleiade.FERMETURE_PC.getDisplayName()))
+                    ? ConfigManager.getValue(CONFIG_PRESTATION_FERMETURE_PC)
+                    : "";
+
+                String fermetureRg = (nature == NatureDemande.MODIFICATION 
+                    && fiche.getElements().contains(ElementPleiade.FERMETURE_RG.getDisplayName()))
+                    ? ConfigManager.getValue(CONFIG_PRESTATION_FERMETURE_RG)
+                    : "";
+                
+                xml = remplacerBalise(xml, "OPERATION", operation);
+                xml = remplacerBalise(xml, "EQUIPE_PRESTATION", prestation);
+                xml = remplacerBalise(xml, "FERMETURE_PC", fermeturePc);
+                xml = remplacerBalise(xml, "FERMETURE_RG", fermetureRg);
+
+                String aucunParametrage = (nature == NatureDemande.AUCUN)
+                    ? ConfigManager.getValue(CONFIG_COMMENT_NO_PARAMS)
+                    : "";
+                xml = remplacerBalise(xml, "AUCUN_PARAMETRAGE", aucunParametrage);
+                
+                // Traiter les PC
+                String[] listePC = fiche.getListePC();
+                String pc1 = listePC.length > 0 && !listePC[0].trim().isEmpty() ? listePC[0].trim() : "";
+                String pc2 = listePC.length > 1 && !listePC[1].trim().isEmpty() ? listePC[1].trim() : "";
+                String pc3 = listePC.length > 2 && !listePC[2].trim().isEmpty() ? listePC[2].trim() : "";
+                xml = remplacerBalise(xml, "PC1", pc1);
+                xml = remplacerBalise(xml, "PC2", pc2);
+                xml = remplacerBalise(xml, "PC3", pc3);
+                
+                // Insérer les captures d'écran ou supprimer les tags {{CAPTURES_XXX}}
+                xml = imageManager.replaceCaptureTags(xml, fiche);
+
+                // Nettoyer les tags de capture fragmentés par Word
+                // (replaceCaptureTags gère les tags non-fragmentés,
+                //  remplacerBalise gère ceux éclatés entre plusieurs <w:t>)
+                for (CaptureCategory category : CaptureCategory.values()) {
+                    xml = remplacerBalise(xml, category.getWordTag(), "");
+                }
+
+                // Écrire le XML modifié
+                checkCancelled(listener);
+                listener.onPhase(GenerationPhase.ZIP);
+                zip.addDeflated(entry.getName(), xml.getBytes(StandardCharsets.UTF_8));
+
+            } else if (entry.getName().equals("word/_rels/document.xml.rels") && imageManager.hasImages()) {
+                // === Ajouter les relations d'images ===
+                logger.debug("Ajout des relations d'images dans document.xml.rels");
+                String relsXml = new String(entry.getData(), StandardCharsets.UTF_8);
+                relsXml = imageManager.addImageRelationships(relsXml);
+                zip.addDeflated(entry.getName(), relsXml.getBytes(StandardCharsets.UTF_8));
+
+            } else if (entry.getName().equals("[Content_Types].xml") && imageManager.hasImages()) {
+                // === Ajouter le type de contenu PNG ===
+                logger.debug("Ajout du type de contenu PNG dans [Content_Types].xml");
+                String contentTypesXml = new String(entry.getData(), StandardCharsets.UTF_8);
+                contentTypesXml = imageManager.addPngContentType(contentTypesXml);
+                zip.addDeflated(entry.getName(), contentTypesXml.getBytes(StandardCharsets.UTF_8));
+
+            } else {
+                // Copier tels quels les autres fichiers, déjà compressés
+                zip.add(entry.getName(), entry.getCompressed());
+            }
+        }
+
+        // Ajouter les fichiers images dans word/media/ (PNG déjà compressé : stocké)
+        if (imageManager.hasImages()) {
+            for (WordImageManager.ImageEntry imgEntry : imageManager.getImageEntries()) {
+                checkCancelled(listener);
+                zip.addStored("word/media/" + imgEntry.fileName, imgEntry.pngData);
+                logger.debug("Image ajoutee au ZIP : word/media/{}", imgEntry.fileName);
+            }
+        }
+
+        checkCancelled(listener);
+        listener.onPhase(GenerationPhase.FLUSH);
+        zip.finish();
+    }
+
+    /**
+     * Interrompt la génération si l'annulation a été demandée
+     */
+    private void checkCancelled(GenerationListener listener) {
+        if (listener.isCancelled()) {
+            logger.info("Generation annulee");
+            throw new CancellationException("Generation annulee");
+        }
+    }
+
+    /**
+     * Retourne la clé de configuration pour le type d'opération (contrat/avenant)
+     *
+     * @param natureDemande la nature de demande
+     * @return la clé de config ou null
+     */
+    private String getOperationConfigKey(NatureDemande natureDemande) {
+        if (natureDemande == null) {
+            return null;
+        }
+        if (natureDemande == NatureDemande.CREATION) {
+            return CONFIG_OPERATION_CONTRAT;
+        }
+        if (natureDemande == NatureDemande.MODIFICATION) {
+            return CONFIG_OPERATION_AVENANT;
+        }
+        return null;
+    }
+
+    /**
+     * Retourne la clé de configuration pour l'équipe prestation selon le risque
+     *
+     * @param risque le risque (FSS ou Prev)
+     * @return la clé de config ou null
+     */
+    private String getPrestationConfigKey(String risque) {
+        if (risque == null) {
+            return null;
+        }
+
+        if ("FSS".equalsIgnoreCase(risque)) {
+            return CONFIG_PRESTATION_SANTE;
+        }
+
+        if ("Prev".equalsIgnoreCase(risque)) {
+            return CONFIG_PRESTATION_PREV;
+        }
+
+        return null;
+    }
+
+    /**
+     * Récupère une valeur de configuration de manière sécurisée
+     * 
+     * @param configKey la clé de configuration
+     * @return la valeur ou null si absent/vide
+     */
+    private String getConfigValueSafely(String configKey) {
+        try {
+            String value = ConfigManager.getValue(configKey);
+            
+            // Vérifier que la valeur n'est pas vide
+            if (value != null && !value.trim().isEmpty()) {
+                return value;
+            }
+            
+            return null;
+        } catch (Exception e) {
+            logger.error("Erreur lors de la lecture de la configuration '{}'", configKey, e);
+            return null;
+        }
+    }
+
+    /**
+     * Remplace une balise dans le XML au format {{TAG}}.
+     * Si la valeur est vide, supprime l'intégralité du paragraphe Word (<w:p>) contenant
+     * le tag (s'il en est l'unique contenu textuel), évitant ainsi les sauts de ligne parasites.
+     */
+    private String remplacerBalise(String xml, String tag, String valeur) {
+        if (valeur == null) {
+            valeur = "";
+        }
+
+        String valeurEchappee = escapeXml(valeur);
+        String pattern = "{{" + tag + "}}";
+
+        if (valeurEchappee.isEmpty()) {
+            xml = supprimerParagrapheContenant(xml, pattern); 
+        } else {
+            xml = remplacerPatternSimple(xml, pattern, valeurEchappee);
+        }
+
+        return xml;
+    }
+
+    /**
+     * Quand la valeur est vide, supprime le paragraphe Word (<w:p>…</w:p>) entier
+     * si le pattern en est le seul contenu textuel.
+     * Sinon, se contente d'effacer le pattern dans le paragraphe.
+     */
+    private String supprimerParagrapheContenant(String xml, String pattern) {
+        int pos = 0;
+        while (true) {
+            int patPos = xml.indexOf(pattern, pos);
+            if (patPos == -1) break;
+
+            // Remonter pour trouver le début du <w:p> enclosant (pas <w:pPr> ni <w:pStyle>)
+            int pStart = -1;
+            int searchBack = patPos;
+            while (searchBack > 0) {
+                int candidate = xml.lastIndexOf("<w:p", searchBack - 1);
+                if (candidate == -1) break;
+                char next = (candidate + 4 < xml.length()) ? xml.charAt(candidate + 4) : '\0';
+                if (next == '>' || next == ' ') { pStart = candidate; break; }
+                searchBack = candidate;
+            }
+
+            int pEnd = (pStart != -1) ? xml.indexOf("</w:p>", patPos) : -1;
+            if (pEnd != -1) pEnd += "</w:p>".length();
+
+            if (pStart != -1 && pEnd != -1) {
+                String para = xml.substring(pStart, pEnd);
+                // Texte brut du paragraphe une fois le pattern retiré
+                String resteTexte = extraireTexteBrut(para).replace(pattern, "").trim();
+                if (resteTexte.isEmpty()) {
+                    // Supprimer tout le paragraphe
+                    xml = xml.substring(0, pStart) + xml.substring(pEnd);
+                    pos = pStart;
+                } else {
+                    // Ne supprimer que le pattern
+                    xml = xml.substring(0, patPos) + xml.substring(patPos + pattern.length());
+                    pos = patPos;
+                }
+            } else {
+                xml = xml.substring(0, patPos) + xml.substring(patPos + pattern.length());
+                pos = patPos;
+            }
+        }
+        // Gérer les éventuels résidus fragmentés
+        xml = remplacerPatternFragmente(xml, pattern, "");
+        return xml;
+    }
+    
+    /**
+     * Remplace un pattern simple dans le XML
+     * Gère le cas où le pattern peut être fragmenté entre plusieurs balises <w:t>
+     */
+    private String remplacerPatternSimple(String xml, String pattern, String valeur) {
+        // Méthode 1 : Remplacement direct si le pattern est dans une seule balise
+        if (xml.contains(pattern)) {
+            xml = xml.replace(pattern, valeur);
+        }
+        
+        // Méthode 2 : Chercher le pattern même s'il est fragmenté
+        // Exemple: <w:t>{{</w:t><w:t>TAG</w:t><w:t>}}</w:t>
+        xml = remplacerPatternFragmente(xml, pattern, valeur);
+        
+        return xml;
+    }
+    
+    /**
+     * Remplace un pattern même s'il est fragmenté entre plusieurs balises <w:t>
+     */
+    private String remplacerPatternFragmente(String xml, String pattern, String valeur) {
+        // Chercher les occurrences de {{ dans le XML
+        int pos = 0;
+        while ((pos = xml.indexOf("{{", pos)) != -1) {
+            // Extraire le texte entre {{ et }} en ignorant les balises XML
+            int startPos = pos;
+            int endPos = trouverFinPattern(xml, pos);
+            
+            if (endPos != -1) {
+                // Extraire le segment XML complet
+                String segment = xml.substring(startPos, endPos);
+                
+                // Extraire le texte brut (sans balises XML)
+                String texteBrut = extraireTexteBrut(segment);
+                
+                // Vérifier si c'est notre pattern
+                if (texteBrut.equals(pattern)) {
+                    // Remplacer tout le segment par la valeur
+                    String avant = xml.substring(0, startPos);
+                    String apres = xml.substring(endPos);
+                    
+                    // Reconstruire avec une balise <w:t> propre
+                    xml = avant + "<w:t>" + valeur + "</w:t>" + apres;
+                    
+                    // Continuer la recherche après le remplacement
+                    pos = avant.length() + valeur.length() + 10;
+                } else {
+                    pos++;
+                }
+            } else {
+                pos++;
+            }
+        }
+        
+        return xml;
+    }
+    
+    /**
+     * Trouve la fin d'un pattern {{ ... }}
+     */
+    private int trouverFinPattern(String xml, int startPos) {
+        int depth = 0;
+        int pos = startPos;
+        boolean inTag = false;
+        
+        while (pos < xml.length()) {
+            char c = xml.charAt(pos);
+            
+            if (c == '<') {
+                inTag = true;
+            } else if (c == '>') {
+                inTag = false;
+            } else if (!inTag) {
+                if (c == '{' && pos + 1 < xml.length() && xml.charAt(pos + 1) == '{') {
+                    depth++;
+                    pos++; // Skip the second {
+                } else if (c == '}' && pos + 1 < xml.length() && xml.charAt(pos + 1) == '}') {
+                    depth--;
+                    if (depth == 0) {
+                        return pos + 2; // Inclure les deux }}
+                    }
+                    pos++; // Skip the second }
+                }
+            }
+            pos++;
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Extrait le texte brut d'un segment XML (sans les balises)
+     */
+    private String extraireTexteBrut(String segment) {
+        StringBuilder texte = new StringBuilder();
+        boolean inTag = false;
+        
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            
+            if (c == '<') {
+                inTag = true;
+            } else if (c == '>') {
+                inTag = false;
+            } else if (!inTag) {
+                texte.append(c);
+            }
+        }
+        
+        return texte.toString();
+    }
+    
+    /**
+     * Échappe les caractères spéciaux XML
+     */
+    private String escapeXml(String text) {
+        if (text == null) return "";
+        return text.replace("&", "&amp;")
+                   .replace("<", "&lt;")
+                   .replace(">", "&gt;")
+                   .replace("\"", "&quot;")
+                   .replace("'", "&apos;");
+    }
+
+    /**
+     * Flux dont la fermeture ne ferme pas le flux sous-jacent (seulement flush)
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
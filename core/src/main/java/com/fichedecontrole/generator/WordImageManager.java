@@ -7,9 +7,6 @@ import com.fichedecontrole.model.ScreenCapture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -20,6 +17,9 @@ import java.util.stream.Collectors;
  * - Générer le XML DrawingML pour chaque image
  * - Gérer les relations (rId) dans document.xml.rels
  * - Fournir les données PNG pour word/media/
+ *
+ * Non thread-safe (compteurs rId et ID d'image) : une instance par document,
+ * créée par {@link WordGeneratorXML} à chaque génération.
  */
 public class WordImageManager {
 
@@ -73,14 +73,15 @@ public class WordImageManager {
 
         for (ScreenCapture capture : captures) {
             try {
-                byte[] pngData = bufferedImageToPng(capture.getImage());
+                // PNG déjà calculé réutilisé tel quel (pas de décodage pour une capture compactée)
+                byte[] pngData = capture.getPngData();
                 String relId = "rId" + nextRelId++;
                 String fileName = "image" + nextImageId + ".png";
                 int imageId = nextImageId++;
 
                 // Calculer les dimensions en EMU (proportionnel à la largeur de la colonne cible)
                 long widthEmu = capture.getCategory().getTargetWidthEmu();
-                double ratio = (double) capture.getImage().getHeight() / capture.getImage().getWidth();
+                double ratio = (double) capture.getHeight() / capture.getWidth();
                 long heightEmu = (long) (widthEmu * ratio);
 
                 ImageEntry entry = new ImageEntry(relId, fileName, pngData,
@@ -89,7 +90,7 @@ public class WordImageManager {
 
                 logger.debug("Image preparee : {} ({}x{} px) → {} (rId={})",
                     capture.getDisplayName(),
-                    capture.getImage().getWidth(), capture.getImage().getHeight(),
+                    capture.getWidth(), capture.getHeight(),
                     fileName, relId);
 
             } catch (IOException e) {
@@ -303,13 +304,4 @@ public class WordImageManager {
             "</wp:inline>" +
             "</w:drawing>";
     }
-
-    /**
-     * Convertit un BufferedImage en données PNG
-     */
-    private byte[] bufferedImageToPng(BufferedImage image) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(image, "png", baos);
-        return baos.toByteArray();
-    }
 }
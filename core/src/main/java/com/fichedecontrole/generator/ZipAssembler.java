@@ -0,0 +1,237 @@
+package com.fichedecontrole.generator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Écriture d'un ZIP à partir d'entrées déjà compressées.
+ *
+ * Contrairement à ZipOutputStream, une entrée peut être recopiée telle quelle sous sa forme
+ * compressée : les parties du modèle qui ne dépendent pas de la fiche sont compressées une
+ * seule fois (voir {@link TemplateCache.Entry#getCompressed()}) puis recopiées à chaque
+ * génération. Seules les entrées modifiées (document.xml, relations, images) sont
+ * compressées pendant la génération. Le flux de l'appelant n'est pas fermé.
+ */
+class ZipAssembler {
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL = 0x06054b50;
+    private static final int VERSION = 20;
+    private static final int FLAG_UTF8 = 0x800;
+    private static final long MAX_SIZE = 0xFFFFFFFFL;
+    private static final int MAX_ENTRIES = 0xFFFF;
+
+    /**
+     * Contenu d'une entrée sous sa forme écrite dans le ZIP, immuable
+     */
+    static final class Compressed {
+        private final int method;
+        private final byte[] data;
+        private final long crc;
+        private final long size;
+
+        private Compressed(int method, byte[] data, long crc, long size) {
+            this.method = method;
+            this.data = data;
+            this.crc = crc;
+            this.size = size;
+        }
+
+        /**
+         * Contenu compressé (deflate), ou stocké si la compression ne gagne rien
+         */
+        static Compressed deflate(byte[] content) {
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                deflater.setInput(content);
+                deflater.finish();
+                byte[] buffer = new byte[Math.max(64, content.length / 2)];
+                int length = 0;
+                while (!deflater.finished()) {
+                    if (length == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                    length += deflater.deflate(buffer, length, buffer.length - length);
+                }
+                if (length >= content.length) {
+                    return stored(content);
+                }
+                return new Compressed(Deflater.DEFLATED, Arrays.copyOf(buffer, length), crc(content), content.length);
+            } finally {
+                deflater.end();
+            }
+        }
+
+        /**
+         * Contenu stocké sans compression (données déjà compressées : PNG)
+         */
+        static Compressed stored(byte[] content) {
+            return new Compressed(0, content, crc(content), content.length);
+        }
+
+        /**
+         * Taille dans le ZIP
+         */
+        int getCompressedSize() {
+            return data.length;
+        }
+
+        private static long crc(byte[] content) {
+            CRC32 crc = new CRC32();
+            crc.update(content, 0, content.length);
+            return crc.getValue();
+        }
+    }
+
+    private static final class CentralEntry {
+        private final byte[] name;
+        private final Compressed content;
+        private final long offset;
+
+        private CentralEntry(byte[] name, Compressed content, long offset) {
+            this.name = name;
+            this.content = content;
+            this.offset = offset;
+        }
+    }
+
+    private final OutputStream out;
+    private final int dosTime;
+    private final int dosDate;
+    private final List<CentralEntry> central = new ArrayList<>();
+    private final byte[] header = new byte[46];
+    private long written;
+
+    /**
+     * @param date date des entrées (heure locale, à deux secondes près)
+     */
+    ZipAssembler(OutputStream out, LocalDateTime date) {
+        this.out = out;
+        long dos = dosDateTime(date);
+        this.dosTime = (int) (dos & 0xFFFF);
+        this.dosDate = (int) (dos >>> 16);
+    }
+
+    /**
+     * Ajoute une entrée déjà compressée, recopiée telle quelle
+     */
+    void add(String name, Compressed content) throws IOException {
+        if (central.size() == MAX_ENTRIES) {
+            throw new IOException("Trop d'entrees pour le ZIP : " + name);
+        }
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        central.add(new CentralEntry(nameBytes, content, written));
+        int pos = putInt(header, 0, LOCAL_HEADER);
+        pos = putShort(header, pos, VERSION);
+        pos = putCommon(header, pos, content);
+        pos = putShort(header, pos, nameBytes.length);
+        pos = putShort(header, pos, 0);
+        write(header, pos);
+        write(nameBytes, nameBytes.length);
+        write(content.data, content.data.length);
+    }
+
+    /**
+     * Compresse puis ajoute une entrée propre à cette génération
+     */
+    void addDeflated(String name, byte[] content) throws IOException {
+        add(name, Compressed.deflate(content));
+    }
+
+    /**
+     * Ajoute une entrée sans compression (images PNG)
+     */
+    void addStored(String name, byte[] content) throws IOException {
+        add(name, Compressed.stored(content));
+    }
+
+    /**
+     * Écrit le répertoire central et la fin du ZIP, sans fermer le flux
+     */
+    void finish() throws IOException {
+        long centralOffset = written;
+        for (CentralEntry entry : central) {
+            int pos = putInt(header, 0, CENTRAL_HEADER);
+            pos = putShort(header, pos, VERSION);
+            pos = putShort(header, pos, VERSION);
+            pos = putCommon(header, pos, entry.content);
+            pos = putShort(header, pos, entry.name.length);
+            pos = putShort(header, pos, 0);    // extra
+            pos = putShort(header, pos, 0);    // commentaire
+            pos = putShort(header, pos, 0);    // disque
+            pos = putShort(header, pos, 0);    // attributs internes
+            pos = putInt(header, pos, 0);      // attributs externes
+            pos = putInt(header, pos, (int) checkSize(entry.offset));
+            write(header, pos);
+            write(entry.name, entry.name.length);
+        }
+        long centralSize = written - centralOffset;
+        int pos = putInt(header, 0, END_OF_CENTRAL);
+        pos = putShort(header, pos, 0);
+        pos = putShort(header, pos, 0);
+        pos = putShort(header, pos, central.size());
+        pos = putShort(header, pos, central.size());
+        pos = putInt(header, pos, (int) checkSize(centralSize));
+        pos = putInt(header, pos, (int) checkSize(centralOffset));
+        pos = putShort(header, pos, 0);
+        write(header, pos);
+        out.flush();
+    }
+
+    /**
+     * Champs communs aux en-têtes locaux et centraux : indicateurs, méthode, date, CRC et tailles
+     */
+    private int putCommon(byte[] buffer, int pos, Compressed content) throws IOException {
+        pos = putShort(buffer, pos, FLAG_UTF8);
+        pos = putShort(buffer, pos, content.method);
+        pos = putShort(buffer, pos, dosTime);
+        pos = putShort(buffer, pos, dosDate);
+        pos = putInt(buffer, pos, (int) content.crc);
+        pos = putInt(buffer, pos, (int) checkSize(content.data.length));
+        return putInt(buffer, pos, (int) checkSize(content.size));
+    }
+
+    private void write(byte[] bytes, int length) throws IOException {
+        out.write(bytes, 0, length);
+        written += length;
+    }
+
+    private static long checkSize(long value) throws IOException {
+        if (value > MAX_SIZE) {
+            throw new IOException("Document trop volumineux pour le format ZIP standard");
+        }
+        return value;
+    }
+
+    private static int putShort(byte[] buffer, int pos, int value) {
+        buffer[pos] = (byte) value;
+        buffer[pos + 1] = (byte) (value >>> 8);
+        return pos + 2;
+    }
+
+    private static int putInt(byte[] buffer, int pos, int value) {
+        putShort(buffer, pos, value & 0xFFFF);
+        return putShort(buffer, pos + 2, value >>> 16);
+    }
+
+    /**
+     * Date et heure au format MS-DOS (date dans les 16 bits de poids fort)
+     */
+    static long dosDateTime(LocalDateTime date) {
+        int year = Math.max(1980, Math.min(2107, date.getYear()));
+        if (year != date.getYear()) {
+            date = LocalDateTime.of(year, 1, 1, 0, 0);
+        }
+        return ((long) (year - 1980) << 25) | ((long) date.getMonthValue() << 21)
+            | ((long) date.getDayOfMonth() << 16) | (date.getHour() << 11)
+            | (date.getMinute() << 5) | (date.getSecond() >> 1);
+    }
+}
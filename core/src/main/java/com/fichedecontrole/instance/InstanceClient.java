@@ -0,0 +1,96 @@
+package com.fichedecontrole.instance;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Client de l'instance unique : demande à l'instance déjà lancée d'ouvrir une fenêtre.
+ *
+ * Volontairement minimal (ni Swing ni logback) pour que {@code Lancer.bat} puisse
+ * l'exécuter avant un lancement complet sans en payer le démarrage :
+ * code de sortie 0 si l'instance a répondu, 1 sinon.
+ */
+public final class InstanceClient {
+
+    static final String COMMANDE_OUVRIR = "OUVRIR";
+    static final String REPONSE_OK = "OK";
+    static final int TIMEOUT_MS = 1500;
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation
+     */
+    private InstanceClient() {
+        throw new UnsupportedOperationException("Classe utilitaire - ne peut pas être instanciee");
+    }
+
+    public static void main(String[] args) {
+        System.exit(requestWindow() ? 0 : 1);
+    }
+
+    /**
+     * Dossier de l'instance : propriété système fichedecontrole.instance.dir si définie,
+     * sinon profil local (%LOCALAPPDATA%, propre à la machine sous Citrix),
+     * à défaut le dossier utilisateur
+     */
+    static File getInstanceDir() {
+        String override = System.getProperty("fichedecontrole.instance.dir");
+        if (override != null) {
+            return new File(override);
+        }
+        String localAppData = System.getenv("LOCALAPPDATA");
+        File base = localAppData != null && !localAppData.isEmpty()
+            ? new File(localAppData)
+            : new File(System.getProperty("user.home"));
+        return new File(base, "FicheDeControle");
+    }
+
+    /**
+     * Fichier contenant le port et le jeton de l'instance en cours
+     */
+    static File getPortFile() {
+        return new File(getInstanceDir(), "instance.port");
+    }
+
+    /**
+     * Demande à l'instance en cours d'ouvrir (ou de remettre au premier plan) une fenêtre
+     *
+     * @return true si l'instance a répondu
+     */
+    public static boolean requestWindow() {
+        File portFile = getPortFile();
+        if (!portFile.isFile()) {
+            return false;
+        }
+        try {
+            List<String> lines = Files.readAllLines(portFile.toPath(), StandardCharsets.UTF_8);
+            if (lines.size() < 2) {
+                return false;
+            }
+            int port = Integer.parseInt(lines.get(0).trim());
+            String token = lines.get(1).trim();
+
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), TIMEOUT_MS);
+                socket.setSoTimeout(TIMEOUT_MS);
+                OutputStream out = socket.getOutputStream();
+                out.write((COMMANDE_OUVRIR + " " + token + "\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                return REPONSE_OK.equals(in.readLine());
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Fichier périmé (instance arrêtée brutalement) ou instance injoignable
+            return false;
+        }
+    }
+}
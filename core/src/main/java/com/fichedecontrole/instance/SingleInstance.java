@@ -0,0 +1,138 @@
+package com.fichedecontrole.instance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Instance unique par utilisateur.
+ *
+ * Le verrou (instance.lock) désigne l'instance principale ; elle écoute sur un port
+ * local (127.0.0.1 uniquement) publié avec un jeton aléatoire dans instance.port.
+ * Le jeton évite qu'un autre utilisateur du même serveur Citrix, qui partage
+ * l'interface loopback, ne pilote cette instance.
+ */
+public class SingleInstance implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SingleInstance.class);
+
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final String token = UUID.randomUUID().toString();
+    private ServerSocket serverSocket;
+
+    private SingleInstance(FileChannel lockChannel, FileLock lock) {
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+    }
+
+    /**
+     * Tente de devenir l'instance principale
+     *
+     * @return l'instance, ou null si une autre instance détient déjà le verrou
+     */
+    public static SingleInstance tryAcquire() {
+        File dir = InstanceClient.getInstanceDir();
+        try {
+            Files.createDirectories(dir.toPath());
+            FileChannel channel = FileChannel.open(new File(dir, "instance.lock").toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                channel.close();
+                return null;
+            }
+            return new SingleInstance(channel, lock);
+        } catch (IOException e) {
+            // Profil inaccessible : fonctionner sans instance unique plutôt que bloquer
+            logger.warn("Instance unique indisponible ({}), lancement independant", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Écoute les demandes des lancements suivants
+     *
+     * @param onOpenRequest appelé (depuis le thread d'écoute) à chaque demande de fenêtre
+     */
+    public void listen(Runnable onOpenRequest) throws IOException {
+        serverSocket = new ServerSocket(0, 10, InetAddress.getLoopbackAddress());
+        publishPort(serverSocket.getLocalPort());
+
+        Thread thread = new Thread(() -> acceptLoop(onOpenRequest), "instance-unique");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Instance unique en ecoute sur le port local {}", serverSocket.getLocalPort());
+    }
+
+    private void acceptLoop(Runnable onOpenRequest) {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                socket.setSoTimeout(InstanceClient.TIMEOUT_MS);
+                BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                String request = in.readLine();
+                if ((InstanceClient.COMMANDE_OUVRIR + " " + token).equals(request)) {
+                    OutputStream out = socket.getOutputStream();
+                    out.write((InstanceClient.REPONSE_OK + "\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    logger.info("Nouveau lancement : ouverture d'une fenetre dans l'instance existante");
+                    onOpenRequest.run();
+                } else {
+                    logger.warn("Demande refusee sur le port de l'instance (jeton invalide)");
+                }
+            } catch (SocketException e) {
+                if (!serverSocket.isClosed()) {
+                    logger.warn("Erreur sur le port de l'instance", e);
+                }
+            } catch (IOException e) {
+                logger.warn("Erreur sur le port de l'instance", e);
+            }
+        }
+    }
+
+    /**
+     * Écrit port et jeton de façon atomique (le client ne lit jamais un fichier à moitié écrit)
+     */
+    private void publishPort(int port) throws IOException {
+        Path portFile = InstanceClient.getPortFile().toPath();
+        Path tmp = portFile.resolveSibling("instance.port.tmp");
+        Files.write(tmp, (port + "\n" + token + "\n").getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(tmp, portFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(tmp, portFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+            Files.deleteIfExists(InstanceClient.getPortFile().toPath());
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            logger.warn("Erreur a la fermeture de l'instance unique", e);
+        }
+    }
+}
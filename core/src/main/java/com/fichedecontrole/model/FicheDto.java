@@ -1,6 +1,7 @@
 package com.fichedecontrole.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -62,6 +63,35 @@ public class FicheDto {
         }
     }
     
+    /**
+     * Crée une copie figée de la fiche : les listes sont copiées et non modifiables,
+     * les captures référencées restent en mémoire tant que la copie est utilisée.
+     * Permet de générer en arrière-plan pendant que le formulaire est modifié ou réinitialisé.
+     *
+     * @return une copie indépendante du formulaire
+     */
+    public FicheDto snapshot() {
+        FicheDto copy = new FicheDto();
+        copy.contratJuridique = contratJuridique;
+        copy.numFormulaire = numFormulaire;
+        copy.typeDemande = typeDemande;
+        copy.risque = risque;
+        copy.natureDemande = natureDemande;
+        copy.elements = elements != null ? Collections.unmodifiableList(new ArrayList<>(elements)) : null;
+        copy.dateEffet = dateEffet;
+        copy.dispositif = dispositif;
+        copy.raisonSocial = raisonSocial;
+        copy.parametreur = parametreur;
+        copy.formules = formules != null ? Collections.unmodifiableList(new ArrayList<>(formules)) : null;
+        copy.tauxChargement = tauxChargement;
+        copy.structure = structure;
+        copy.structure2 = structure2;
+        copy.listePC = listePC != null ? listePC.clone() : null;
+        copy.produitGestion = produitGestion;
+        copy.captures = captures != null ? Collections.unmodifiableList(new ArrayList<>(captures)) : null;
+        return copy;
+    }
+
     // Getters et Setters
     
     public String getContratJuridique() {
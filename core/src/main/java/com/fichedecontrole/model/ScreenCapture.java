@@ -0,0 +1,240 @@
+package com.fichedecontrole.model;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Représente une capture d'écran associée à une catégorie.
+ *
+ * L'encodage PNG est calculé une seule fois et réutilisé par les générations.
+ * Une capture compactée ({@link #compact()}) ne garde que ce PNG et sa miniature :
+ * l'image est relue à la demande et conservée tant que la mémoire le permet.
+ */
+public class ScreenCapture {
+
+    // Fin d'un PNG complet : chunk IEND vide et son CRC
+    private static final byte[] PNG_END = {0, 0, 0, 0, 'I', 'E', 'N', 'D', (byte) 0xAE, 0x42, 0x60, (byte) 0x82};
+    // Côté maximal de l'image décodée pour vérifier un PNG reçu
+    private static final int CHECK_SIZE = 256;
+
+    private final CaptureCategory category;
+    private final LocalDateTime capturedAt;
+    private final int index; // Numéro d'ordre pour les catégories multiples
+    private final int width;
+    private final int height;
+
+    // Protégés par this
+    private BufferedImage image;                  // null une fois compactée
+    private SoftReference<BufferedImage> decoded; // image relue depuis le PNG
+    private byte[] pngData;
+    private BufferedImage thumbnail;
+
+    public ScreenCapture(CaptureCategory category, BufferedImage image, int index) {
+        this.category = category;
+        this.image = image;
+        this.capturedAt = LocalDateTime.now();
+        this.index = index;
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+    }
+
+    /**
+     * Capture reçue déjà encodée (service de génération partagé) : l'image n'est décodée qu'au besoin
+     */
+    public ScreenCapture(CaptureCategory category, byte[] pngData, int width, int height, int index) {
+        this.category = category;
+        this.pngData = pngData;
+        this.capturedAt = LocalDateTime.now();
+        this.index = index;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Capture lue depuis une image encodée : un PNG est gardé tel quel après vérification
+     * (complet, données décodables en sous-échantillonnant), les autres formats sont
+     * décodés puis réencodés en PNG à la génération
+     *
+     * @throws IOException si le format n'est pas reconnu ou l'image illisible ou tronquée
+     */
+    public static ScreenCapture fromEncoded(CaptureCategory category, byte[] data, int index) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : Collections.emptyIterator();
+            if (!readers.hasNext()) {
+                throw new IOException("Format d'image non reconnu");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in);
+                if ("png".equalsIgnoreCase(reader.getFormatName())) {
+                    int width = reader.getWidth(0);
+                    int height = reader.getHeight(0);
+                    checkPng(reader, data, width, height);
+                    return new ScreenCapture(category, data, width, height, index);
+                }
+                return new ScreenCapture(category, reader.read(0), index);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Vérifie qu'un PNG est complet et que toutes ses données se décodent : l'image est
+     * lue en ne gardant qu'un pixel sur n, pour ne pas allouer sa taille réelle
+     */
+    private static void checkPng(ImageReader reader, byte[] data, int width, int height) throws IOException {
+        if (data.length < PNG_END.length || !Arrays.equals(data, data.length - PNG_END.length, data.length,
+                PNG_END, 0, PNG_END.length)) {
+            throw new IOException("Image PNG tronquee");
+        }
+        int step = Math.max(1, (Math.max(width, height) + CHECK_SIZE - 1) / CHECK_SIZE);
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(step, step, 0, 0);
+        try {
+            reader.read(0, param);
+        } catch (RuntimeException e) {
+            throw new IOException("Image PNG illisible", e);
+        }
+    }
+
+    public CaptureCategory getCategory() {
+        return category;
+    }
+
+    /**
+     * Retourne l'image (relue depuis le PNG si la capture est compactée)
+     */
+    public synchronized BufferedImage getImage() {
+        if (image != null) {
+            return image;
+        }
+        BufferedImage cached = decoded != null ? decoded.get() : null;
+        if (cached == null) {
+            try {
+                cached = ImageIO.read(new ByteArrayInputStream(pngData));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Capture illisible : " + getDisplayName(), e);
+            }
+            decoded = new SoftReference<>(cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Retourne l'image encodée en PNG (calculée au premier appel)
+     */
+    public synchronized byte[] getPngData() throws IOException {
+        if (pngData == null) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", baos);
+            pngData = baos.toByteArray();
+        }
+        return pngData;
+    }
+
+    /**
+     * Miniature pour la liste des captures (calculée une seule fois)
+     */
+    public synchronized BufferedImage getThumbnail(int maxWidth, int maxHeight) {
+        if (thumbnail == null) {
+            thumbnail = createThumbnail(getImage(), maxWidth, maxHeight);
+        }
+        return thumbnail;
+    }
+
+    /**
+     * Encode la capture en PNG puis libère l'image décodée
+     *
+     * @return le nombre d'octets de pixels libérés (0 si déjà compactée)
+     */
+    public synchronized long compact() throws IOException {
+        if (image == null && decoded == null) {
+            return 0;
+        }
+        getPngData();
+        long freed = (long) width * height * 4;
+        image = null;
+        decoded = null;
+        return freed;
+    }
+
+    /**
+     * Mémoire retenue par la capture pendant une génération : son PNG (calculé au besoin),
+     * plus l'image décodée (4 octets par pixel) tant qu'elle n'est pas compactée
+     */
+    public synchronized long getMemoryBytes() throws IOException {
+        long bytes = getPngData().length;
+        if (image != null) {
+            bytes += (long) width * height * 4;
+        }
+        return bytes;
+    }
+
+    public synchronized boolean isCompacted() {
+        return image == null;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public LocalDateTime getCapturedAt() {
+        return capturedAt;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Retourne le libellé affiché dans la liste des captures
+     * Ex: "Cotisations Formulaire" ou "Test d'adhésion (2/3)"
+     */
+    public String getDisplayName() {
+        if (category.isMultiple() && index > 0) {
+            return category.getDisplayName() + " (" + index + ")";
+        }
+        return category.getDisplayName();
+    }
+
+    private static BufferedImage createThumbnail(BufferedImage original, int maxWidth, int maxHeight) {
+        double scale = Math.min(
+            (double) maxWidth / original.getWidth(),
+            (double) maxHeight / original.getHeight()
+        );
+        int w = Math.max(1, (int) (original.getWidth() * scale));
+        int h = Math.max(1, (int) (original.getHeight() * scale));
+
+        BufferedImage thumb = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = thumb.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                           RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(original, 0, 0, w, h, null);
+        g.dispose();
+        return thumb;
+    }
+
+    @Override
+    public String toString() {
+        return getDisplayName();
+    }
+}
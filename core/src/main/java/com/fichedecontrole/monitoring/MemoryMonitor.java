@@ -0,0 +1,266 @@
+package com.fichedecontrole.monitoring;
+
+import com.fichedecontrole.config.ConfigManager;
+import com.fichedecontrole.generator.TemplateCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Surveillance de la mémoire et mode économe.
+ *
+ * memoire.mode vaut normal, econome ou auto (économe dès que le tas occupé après le dernier
+ * GC dépasse memoire.seuil.pourcent, retour au normal sous la moitié du seuil, après au moins
+ * une minute en mode économe). En mode économe, les composants enregistrés ({@link Trimmer})
+ * libèrent ce qu'ils peuvent à chaque contrôle (captures compactées en PNG, modèle inactif) ;
+ * l'indicateur de la barre d'état affiche l'occupation et le dernier allègement.
+ */
+public class MemoryMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemoryMonitor.class);
+
+    private static final DateTimeFormatter HEURE = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    // Durée minimale en mode économe (auto) avant de revenir au normal
+    static final long MIN_LOW_FOOTPRINT_MS = 60_000;
+    // Intervalle minimal entre deux GC provoqués par l'allègement
+    static final long MIN_GC_INTERVAL_MS = 60_000;
+
+    /**
+     * Mode choisi dans la configuration
+     */
+    public enum Mode {
+        NORMAL, ECONOME, AUTO;
+
+        static Mode parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                logger.warn("memoire.mode inconnu ({}), mode auto utilise", value);
+                return AUTO;
+            }
+        }
+    }
+
+    /**
+     * Libère de la mémoire (thread de surveillance)
+     */
+    public interface Trimmer {
+        /**
+         * @return la description de ce qui a été libéré, null si rien
+         */
+        String trim();
+    }
+
+    /**
+     * Notifié après chaque contrôle (depuis le thread de surveillance)
+     */
+    public interface Listener {
+        void memoryUpdated(MemoryMonitor monitor);
+    }
+
+    private static MemoryMonitor global;
+
+    private final Mode mode;
+    private final int thresholdPercent;
+    private final long templateIdleMs;
+    private final List<Trimmer> trimmers = new CopyOnWriteArrayList<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+    private volatile boolean lowFootprint;
+    private volatile long usedBytes;
+    private volatile long liveBytes;
+    private long lowFootprintSinceMs;
+    private long lastGcMs = Long.MIN_VALUE / 2;
+    private volatile long maxBytes = Runtime.getRuntime().maxMemory();
+    private volatile String lastTrim;
+
+    public MemoryMonitor(Mode mode, int thresholdPercent, long templateIdleMs) {
+        this.mode = mode;
+        this.thresholdPercent = thresholdPercent;
+        this.templateIdleMs = templateIdleMs;
+        this.lowFootprint = mode == Mode.ECONOME;
+    }
+
+    /**
+     * Instance partagée, créée selon la configuration (memoire.*)
+     */
+    public static synchronized MemoryMonitor get() {
+        if (global == null) {
+            global = new MemoryMonitor(
+                Mode.parse(ConfigManager.getValue("memoire.mode", "auto")),
+                ConfigManager.getInt("memoire.seuil.pourcent", 70),
+                ConfigManager.getInt("memoire.modele.inactivite.secondes", 120) * 1000L);
+        }
+        return global;
+    }
+
+    /**
+     * Démarre les contrôles périodiques (thread démon)
+     */
+    public synchronized void start(long periodMs) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "surveillance-memoire");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, 0, periodMs, TimeUnit.MILLISECONDS);
+        logger.info("Surveillance memoire demarree (mode {}, seuil {} %)",
+            mode.name().toLowerCase(Locale.ROOT), thresholdPercent);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public void addTrimmer(Trimmer trimmer) {
+        trimmers.add(trimmer);
+    }
+
+    public void removeTrimmer(Trimmer trimmer) {
+        trimmers.remove(trimmer);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean isLowFootprint() {
+        return lowFootprint;
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Heure et description du dernier allègement (null si aucun)
+     */
+    public String getLastTrim() {
+        return lastTrim;
+    }
+
+    /**
+     * Mesure l'occupation du tas, change de mode si besoin et allège en mode économe
+     */
+    public void check() {
+        try {
+            measure();
+            if (mode == Mode.AUTO) {
+                updateMode(liveBytes, maxBytes, System.currentTimeMillis());
+            }
+            if (lowFootprint) {
+                trim();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Erreur de surveillance memoire", e);
+        }
+        for (Listener listener : listeners) {
+            listener.memoryUpdated(this);
+        }
+    }
+
+    /**
+     * Mode automatique : décision sur la mémoire restée occupée après le dernier GC (les
+     * objets morts en attente de collecte ne comptent pas), avec hystérésis : entrée au
+     * seuil, sortie sous la moitié du seuil et pas avant {@link #MIN_LOW_FOOTPRINT_MS}
+     */
+    synchronized void updateMode(long live, long max, long nowMs) {
+        int percent = (int) (live * 100 / max);
+        if (!lowFootprint && percent >= thresholdPercent) {
+            lowFootprint = true;
+            lowFootprintSinceMs = nowMs;
+            logger.warn("Memoire occupee a {} % apres GC : passage en mode econome", percent);
+        } else if (lowFootprint && percent < thresholdPercent / 2
+                && nowMs - lowFootprintSinceMs >= MIN_LOW_FOOTPRINT_MS) {
+            lowFootprint = false;
+            logger.info("Memoire occupee a {} % apres GC : retour au mode normal", percent);
+        }
+    }
+
+    /**
+     * Lance tous les allègements puis un GC pour rendre la mémoire au système
+     *
+     * @return la description de ce qui a été libéré, null si rien
+     */
+    public synchronized String trim() {
+        List<String> done = new ArrayList<>();
+        for (Trimmer trimmer : trimmers) {
+            try {
+                String result = trimmer.trim();
+                if (result != null) {
+                    done.add(result);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Allegement impossible", e);
+            }
+        }
+        if (TemplateCache.releaseIfIdle(templateIdleMs)) {
+            done.add("modèle libéré");
+        }
+        if (done.isEmpty()) {
+            return null;
+        }
+
+        long before = usedBytes;
+        long now = System.currentTimeMillis();
+        if (now - lastGcMs >= MIN_GC_INTERVAL_MS) {
+            // Au plus un GC par minute, même si un allègement a lieu à chaque contrôle
+            lastGcMs = now;
+            System.gc();
+        }
+        measure();
+        String description = String.join(", ", done);
+        lastTrim = LocalTime.now().format(HEURE) + " : " + description;
+        logger.info("Allegement memoire ({}) : {} Mo -> {} Mo", description,
+            before / (1024 * 1024), usedBytes / (1024 * 1024));
+        return description;
+    }
+
+    private void measure() {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        usedBytes = heap.getUsed();
+        if (heap.getMax() > 0) {
+            maxBytes = heap.getMax();
+        }
+        // Occupation après le dernier GC, par zone du tas (à défaut : occupation courante)
+        long live = 0;
+        boolean measured = false;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage afterGc = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (afterGc != null) {
+                live += afterGc.getUsed();
+                measured = true;
+            }
+        }
+        liveBytes = measured && live > 0 ? live : usedBytes;
+    }
+}
@@ -0,0 +1,120 @@
+package com.fichedecontrole.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogramme glissant des durées de blocage, par source (EDT, génération)
+ * et par chemin de code fautif (première méthode applicative de la pile).
+ *
+ * Les compteurs sont remis à zéro à chaque {@link #snapshotAndReset()} :
+ * chaque résumé couvre donc une fenêtre de temps.
+ * Thread-safe.
+ */
+public class StallHistogram {
+
+    /** Bornes supérieures des classes, en ms (la dernière classe est ouverte) */
+    private static final long[] BOUNDS_MS = {50, 100, 200, 500, 1000, 2000, 5000};
+
+    private final Map<String, AtomicLongArray> bucketsBySource = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> countByPath = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> totalMsByPath = new ConcurrentHashMap<>();
+
+    /**
+     * Enregistre une durée mesurée
+     *
+     * @param source     "EDT", "generation"...
+     * @param durationMs durée en millisecondes
+     */
+    public void record(String source, long durationMs) {
+        bucketsBySource.computeIfAbsent(source, s -> new AtomicLongArray(BOUNDS_MS.length + 1))
+            .incrementAndGet(bucketIndex(durationMs));
+    }
+
+    /**
+     * Attribue un blocage à un chemin de code
+     *
+     * @param path       méthode fautive (ex : "FicheDeControleFrame.genererDocument")
+     * @param durationMs durée du blocage
+     */
+    public void recordStall(String path, long durationMs) {
+        countByPath.computeIfAbsent(path, p -> new AtomicLong()).incrementAndGet();
+        totalMsByPath.computeIfAbsent(path, p -> new AtomicLong()).addAndGet(durationMs);
+    }
+
+    /**
+     * Nombre de mesures d'une source dans une classe de durée
+     */
+    public long getCount(String source, int bucket) {
+        AtomicLongArray buckets = bucketsBySource.get(source);
+        return buckets == null ? 0 : buckets.get(bucket);
+    }
+
+    /**
+     * Nombre de blocages attribués à un chemin de code
+     */
+    public long getStallCount(String path) {
+        AtomicLong count = countByPath.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Produit un résumé lisible de la fenêtre écoulée puis remet les compteurs à zéro
+     *
+     * @return le résumé, ou null si aucune mesure n'a été enregistrée
+     */
+    public synchronized String snapshotAndReset() {
+        if (bucketsBySource.isEmpty() && countByPath.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        Map<String, AtomicLongArray> sources = new LinkedHashMap<>(bucketsBySource);
+        bucketsBySource.keySet().removeAll(sources.keySet());
+        for (Map.Entry<String, AtomicLongArray> entry : sources.entrySet()) {
+            sb.append(entry.getKey()).append(" :");
+            AtomicLongArray buckets = entry.getValue();
+            for (int i = 0; i < buckets.length(); i++) {
+                if (buckets.get(i) > 0) {
+                    sb.append(' ').append(bucketLabel(i)).append('=').append(buckets.get(i));
+                }
+            }
+            sb.append('\n');
+        }
+
+        Map<String, AtomicLong> paths = new LinkedHashMap<>(countByPath);
+        countByPath.keySet().removeAll(paths.keySet());
+        for (Map.Entry<String, AtomicLong> entry : paths.entrySet()) {
+            AtomicLong total = totalMsByPath.remove(entry.getKey());
+            sb.append("  ").append(entry.getKey())
+              .append(" : ").append(entry.getValue().get()).append(" blocage(s), ")
+              .append(total == null ? 0 : total.get()).append(" ms au total\n");
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Indice de la classe correspondant à une durée
+     */
+    static int bucketIndex(long durationMs) {
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            if (durationMs < BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BOUNDS_MS.length;
+    }
+
+    private static String bucketLabel(int index) {
+        if (index == 0) {
+            return "<" + BOUNDS_MS[0] + "ms";
+        }
+        if (index == BOUNDS_MS.length) {
+            return ">=" + BOUNDS_MS[BOUNDS_MS.length - 1] + "ms";
+        }
+        return BOUNDS_MS[index - 1] + "-" + BOUNDS_MS[index] + "ms";
+    }
+}
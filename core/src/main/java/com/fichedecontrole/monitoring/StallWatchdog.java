@@ -0,0 +1,327 @@
+package com.fichedecontrole.monitoring;
+
+import com.fichedecontrole.config.ConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.EventQueue;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Détecteur de blocages de l'EDT et des générations.
+ *
+ * Un battement est posté sur l'EDT ({@link EventQueue#invokeLater}) toutes les
+ * {@value #HEARTBEAT_INTERVAL_MS} ms ; s'il n'est pas exécuté dans le délai configuré,
+ * la pile de l'EDT est écrite dans le log dédié {@code logs/stall.log} pendant le blocage,
+ * avec un résumé du tas. Les générations suivies via {@link #track(String)} sont
+ * surveillées de la même façon. Toutes les durées alimentent un {@link StallHistogram}
+ * dont le résumé est écrit périodiquement.
+ */
+public class StallWatchdog {
+
+    private static final Logger logger = LoggerFactory.getLogger(StallWatchdog.class);
+
+    /** Logger dédié, dirigé vers logs/stall.log (voir logback.xml) */
+    private static final Logger stallLog = LoggerFactory.getLogger("com.fichedecontrole.stall");
+
+    private static final long HEARTBEAT_INTERVAL_MS = 100;
+    private static final int MAX_STACK_DEPTH = 40;
+    private static final String APP_PACKAGE = "com.fichedecontrole.";
+
+    static final String SOURCE_EDT = "EDT";
+    static final String SOURCE_GENERATION = "generation";
+
+    private static volatile StallWatchdog instance;
+
+    private final long edtThresholdMs;
+    private final long generationThresholdMs;
+    private final long summaryIntervalMs;
+    private final StallHistogram histogram = new StallHistogram();
+    private final Map<Integer, Tracker> trackers = new ConcurrentHashMap<>();
+    private final AtomicInteger nextTrackerId = new AtomicInteger();
+
+    private ScheduledExecutorService scheduler;
+
+    // État du battement EDT (thread du watchdog + EDT)
+    private volatile long heartbeatPostedAt;
+    private volatile boolean heartbeatPending;
+    private volatile boolean heartbeatDumped;
+    private volatile String heartbeatPath;
+    private volatile Thread edtThread;
+
+    public StallWatchdog(long edtThresholdMs, long generationThresholdMs, long summaryIntervalMs) {
+        this.edtThresholdMs = edtThresholdMs;
+        this.generationThresholdMs = generationThresholdMs;
+        this.summaryIntervalMs = summaryIntervalMs;
+    }
+
+    /**
+     * Démarre le watchdog global selon la configuration
+     * (watchdog.actif, watchdog.edt.seuil.ms, watchdog.generation.seuil.ms, watchdog.histogramme.minutes)
+     */
+    public static synchronized void startFromConfig() {
+        if (instance != null) {
+            return;
+        }
+        if (!Boolean.parseBoolean(ConfigManager.getValue("watchdog.actif", "true"))) {
+            logger.info("Detecteur de blocages desactive");
+            return;
+        }
+        StallWatchdog watchdog = new StallWatchdog(
+            ConfigManager.getInt("watchdog.edt.seuil.ms", 200),
+            ConfigManager.getInt("watchdog.generation.seuil.ms", 5000),
+            TimeUnit.MINUTES.toMillis(ConfigManager.getInt("watchdog.histogramme.minutes", 10)));
+        watchdog.start(true);
+        instance = watchdog;
+    }
+
+    /**
+     * Arrête le watchdog global en écrivant le dernier histogramme
+     */
+    public static synchronized void stopGlobal() {
+        if (instance != null) {
+            instance.stop();
+            instance = null;
+        }
+    }
+
+    /**
+     * Suit une génération avec le watchdog global (sans effet s'il n'est pas démarré)
+     *
+     * @param label libellé écrit dans le log en cas de dépassement
+     * @return le suivi, à fermer en fin de génération
+     */
+    public static Tracker trackGeneration(String label) {
+        StallWatchdog watchdog = instance;
+        return watchdog != null ? watchdog.track(label) : Tracker.NOOP;
+    }
+
+    /**
+     * Démarre la surveillance
+     *
+     * @param monitorEdt true pour surveiller l'EDT (false : générations uniquement)
+     */
+    public synchronized void start(boolean monitorEdt) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "watchdog-blocages");
+            t.setDaemon(true);
+            return t;
+        });
+        long checkInterval = Math.max(10, Math.min(HEARTBEAT_INTERVAL_MS, generationThresholdMs / 4));
+        if (monitorEdt) {
+            scheduler.scheduleWithFixedDelay(this::checkEdt, HEARTBEAT_INTERVAL_MS,
+                HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+        scheduler.scheduleWithFixedDelay(this::checkTrackers, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(this::logSummary, summaryIntervalMs, summaryIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Detecteur de blocages demarre (EDT {} ms, generation {} ms)", edtThresholdMs, generationThresholdMs);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            logSummary();
+        }
+    }
+
+    public StallHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Suit l'exécution du thread courant jusqu'à {@link Tracker#close()}
+     */
+    public Tracker track(String label) {
+        Tracker tracker = new Tracker(this, nextTrackerId.incrementAndGet(), label, Thread.currentThread());
+        trackers.put(tracker.id, tracker);
+        return tracker;
+    }
+
+    // ===== EDT =====
+
+    private void checkEdt() {
+        try {
+            if (!heartbeatPending) {
+                heartbeatPending = true;
+                heartbeatDumped = false;
+                heartbeatPath = null;
+                heartbeatPostedAt = System.nanoTime();
+                EventQueue.invokeLater(this::onHeartbeat);
+                return;
+            }
+
+            long waitedMs = elapsedMs(heartbeatPostedAt);
+            Thread edt = edtThread;
+            if (!heartbeatDumped && waitedMs >= edtThresholdMs && edt != null) {
+                heartbeatDumped = true;
+                StackTraceElement[] stack = edt.getStackTrace();
+                heartbeatPath = findApplicationFrame(stack);
+                stallLog.warn("EDT bloque depuis {} ms (seuil {} ms) - {}\n{}{}",
+                    waitedMs, edtThresholdMs, heartbeatPath, formatStack(edt, stack), heapSummary());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Erreur du detecteur de blocages (EDT)", e);
+        }
+    }
+
+    /**
+     * Battement exécuté sur l'EDT
+     */
+    private void onHeartbeat() {
+        edtThread = Thread.currentThread();
+        long latencyMs = elapsedMs(heartbeatPostedAt);
+        histogram.record(SOURCE_EDT, latencyMs);
+        if (heartbeatDumped) {
+            histogram.recordStall(SOURCE_EDT + " " + heartbeatPath, latencyMs);
+            stallLog.warn("EDT debloque apres {} ms - {}", latencyMs, heartbeatPath);
+        }
+        heartbeatPending = false;
+    }
+
+    // ===== Générations =====
+
+    private void checkTrackers() {
+        try {
+            for (Tracker tracker : trackers.values()) {
+                long elapsedMs = elapsedMs(tracker.startNanos);
+                if (!tracker.dumped && elapsedMs >= generationThresholdMs) {
+                    tracker.dumped = true;
+                    StackTraceElement[] stack = tracker.thread.getStackTrace();
+                    tracker.path = findApplicationFrame(stack);
+                    stallLog.warn("Generation '{}' en cours depuis {} ms (seuil {} ms) - {}\n{}{}",
+                        tracker.label, elapsedMs, generationThresholdMs, tracker.path,
+                        formatStack(tracker.thread, stack), heapSummary());
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Erreur du detecteur de blocages (generations)", e);
+        }
+    }
+
+    private void finish(Tracker tracker) {
+        if (trackers.remove(tracker.id) == null) {
+            return;
+        }
+        long durationMs = elapsedMs(tracker.startNanos);
+        histogram.record(SOURCE_GENERATION, durationMs);
+        if (tracker.dumped) {
+            histogram.recordStall(SOURCE_GENERATION + " " + tracker.path, durationMs);
+            stallLog.warn("Generation '{}' terminee apres {} ms", tracker.label, durationMs);
+        }
+    }
+
+    // ===== Résumés =====
+
+    private void logSummary() {
+        String summary = histogram.snapshotAndReset();
+        if (summary != null) {
+            stallLog.info("Histogramme des durees (ms) :\n{}", summary);
+        }
+    }
+
+    /**
+     * Première méthode applicative de la pile (à défaut, le sommet de la pile)
+     */
+    static String findApplicationFrame(StackTraceElement[] stack) {
+        for (StackTraceElement element : stack) {
+            String className = element.getClassName();
+            if (className.startsWith(APP_PACKAGE)
+                    && !className.equals(StallWatchdog.class.getName())
+                    && !className.startsWith(StallWatchdog.class.getName() + "$")) {
+                return className.substring(className.lastIndexOf('.') + 1) + "." + element.getMethodName()
+                    + ":" + element.getLineNumber();
+            }
+        }
+        if (stack.length > 0) {
+            return stack[0].getClassName() + "." + stack[0].getMethodName();
+        }
+        return "inconnu";
+    }
+
+    private static String formatStack(Thread thread, StackTraceElement[] stack) {
+        StringBuilder sb = new StringBuilder();
+        sb.append('"').append(thread.getName()).append("\" ").append(thread.getState()).append('\n');
+        int depth = Math.min(stack.length, MAX_STACK_DEPTH);
+        for (int i = 0; i < depth; i++) {
+            sb.append("\tat ").append(stack[i]).append('\n');
+        }
+        if (stack.length > depth) {
+            sb.append("\t... ").append(stack.length - depth).append(" autres\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Résumé du tas : occupation, maximum et activité du GC depuis le démarrage
+     */
+    static String heapSummary() {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        StringBuilder sb = new StringBuilder();
+        sb.append("Tas : ").append(toMb(heap.getUsed())).append(" Mo utilises / ")
+          .append(toMb(heap.getCommitted())).append(" Mo alloues / ")
+          .append(heap.getMax() < 0 ? "?" : String.valueOf(toMb(heap.getMax()))).append(" Mo max");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            sb.append(" | GC ").append(gc.getName()).append(" : ")
+              .append(gc.getCollectionCount()).append(" collectes, ")
+              .append(gc.getCollectionTime()).append(" ms");
+        }
+        return sb.toString();
+    }
+
+    private static long toMb(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Suivi d'une exécution longue (une génération)
+     */
+    public static class Tracker implements AutoCloseable {
+
+        static final Tracker NOOP = new Tracker(null, 0, null, null);
+
+        private final StallWatchdog owner;
+        private final int id;
+        private final String label;
+        private final Thread thread;
+        private final long startNanos = System.nanoTime();
+        private volatile boolean dumped;
+        private volatile String path;
+
+        private Tracker(StallWatchdog owner, int id, String label, Thread thread) {
+            this.owner = owner;
+            this.id = id;
+            this.label = label;
+            this.thread = thread;
+        }
+
+        /**
+         * true si le seuil a été dépassé (la pile a été écrite dans le log)
+         */
+        public boolean isStalled() {
+            return dumped;
+        }
+
+        @Override
+        public void close() {
+            if (owner != null) {
+                owner.finish(this);
+            }
+        }
+    }
+}
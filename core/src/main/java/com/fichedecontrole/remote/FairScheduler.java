@@ -0,0 +1,140 @@
+package com.fichedecontrole.remote;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ordonnanceur équitable entre sessions.
+ *
+ * Chaque session (utilisateur) a sa propre file bornée ; les threads de travail
+ * servent les sessions à tour de rôle, une tâche par tour. Un lot de cinquante
+ * fiches d'un utilisateur ne retarde donc un autre utilisateur que d'une
+ * génération au plus par thread.
+ */
+public class FairScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(FairScheduler.class);
+
+    private final int perSessionCapacity;
+    private final Thread[] workers;
+
+    // Protégés par this
+    private final Map<String, ArrayDeque<Runnable>> queues = new HashMap<>();
+    private final ArrayDeque<String> turns = new ArrayDeque<>();
+    private boolean shutdown;
+
+    /**
+     * @param threads            nombre de générations simultanées
+     * @param perSessionCapacity nombre maximal de tâches en attente par session
+     */
+    public FairScheduler(int threads, int perSessionCapacity) {
+        this.perSessionCapacity = Math.max(1, perSessionCapacity);
+        this.workers = new Thread[Math.max(1, threads)];
+        AtomicInteger threadCount = new AtomicInteger(1);
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread(this::workLoop, "service-generation-" + threadCount.getAndIncrement());
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Ajoute une tâche dans la file de la session
+     *
+     * @throws RejectedExecutionException si la file de la session est pleine ou l'ordonnanceur arrêté
+     */
+    public synchronized void submit(String session, Runnable task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Service de generation arrete");
+        }
+        ArrayDeque<Runnable> queue = queues.get(session);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            queues.put(session, queue);
+            turns.addLast(session);
+        }
+        if (queue.size() >= perSessionCapacity) {
+            throw new RejectedExecutionException("File pleine pour la session " + session);
+        }
+        queue.addLast(task);
+        notify();
+    }
+
+    /**
+     * Nombre de tâches en attente pour une session
+     */
+    public synchronized int getPendingCount(String session) {
+        ArrayDeque<Runnable> queue = queues.get(session);
+        return queue != null ? queue.size() : 0;
+    }
+
+    /**
+     * Arrête les threads ; les tâches en attente sont abandonnées
+     *
+     * @return les tâches abandonnées, pour que l'appelant prévienne leurs demandeurs
+     */
+    public List<Runnable> shutdown() {
+        List<Runnable> abandoned = new ArrayList<>();
+        synchronized (this) {
+            shutdown = true;
+            for (String session : turns) {
+                abandoned.addAll(queues.get(session));
+            }
+            queues.clear();
+            turns.clear();
+            notifyAll();
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        if (!abandoned.isEmpty()) {
+            logger.info("{} tache(s) en attente abandonnee(s) a l'arret", abandoned.size());
+        }
+        return abandoned;
+    }
+
+    /**
+     * Prochaine tâche : la session en tête du tourniquet passe en queue si elle a encore du travail
+     */
+    private synchronized Runnable take() throws InterruptedException {
+        while (turns.isEmpty()) {
+            if (shutdown) {
+                return null;
+            }
+            wait();
+        }
+        String session = turns.pollFirst();
+        ArrayDeque<Runnable> queue = queues.get(session);
+        Runnable task = queue.pollFirst();
+        if (queue.isEmpty()) {
+            queues.remove(session);
+        } else {
+            turns.addLast(session);
+        }
+        return task;
+    }
+
+    private void workLoop() {
+        try {
+            Runnable task;
+            while ((task = take()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException | Error e) {
+                    // Le thread reste en service : une tâche en échec ne réduit pas la capacité
+                    logger.error("Erreur inattendue dans le service de generation", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.fichedecontrole.remote;
+
+import com.fichedecontrole.model.CaptureCategory;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.NatureDemande;
+import com.fichedecontrole.model.Risque;
+import com.fichedecontrole.model.ScreenCapture;
+import com.fichedecontrole.model.TypeDemande;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Encodage binaire d'une fiche pour le service de génération partagé
+ * (classe utilitaire finale).
+ *
+ * Format : chaînes en UTF modifié précédées d'un indicateur de présence,
+ * listes préfixées par leur taille (-1 pour null), captures encodées en PNG
+ * avec leurs dimensions. Les captures ne sont pas décodées à la lecture ;
+ * leur taille totale est bornée.
+ */
+public final class FicheCodec {
+
+    /** "FDC2" : identifie le protocole et sa version */
+    static final int MAGIC = 0x46444332;
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation
+     */
+    private FicheCodec() {
+        throw new UnsupportedOperationException("Classe utilitaire - ne peut pas être instanciee");
+    }
+
+    /**
+     * Écrit une fiche et ses captures
+     */
+    public static void writeFiche(DataOutputStream out, FicheDto fiche) throws IOException {
+        writeString(out, fiche.getContratJuridique());
+        writeString(out, fiche.getNumFormulaire());
+        writeString(out, fiche.getTypeDemande() != null ? fiche.getTypeDemande().name() : null);
+        writeString(out, fiche.getRisque() != null ? fiche.getRisque().name() : null);
+        writeString(out, fiche.getNatureDemande() != null ? fiche.getNatureDemande().name() : null);
+        writeStrings(out, fiche.getElements());
+        writeString(out, fiche.getDateEffet());
+        writeString(out, fiche.getDispositif());
+        writeString(out, fiche.getRaisonSocial());
+        writeString(out, fiche.getParametreur());
+        writeStrings(out, fiche.getFormules());
+        writeString(out, fiche.getTauxChargement());
+        writeString(out, fiche.getStructure());
+        writeString(out, fiche.getStructure2());
+        writeStrings(out, fiche.getListePC() != null ? Arrays.asList(fiche.getListePC()) : null);
+        writeString(out, fiche.getProduitGestion());
+
+        List<ScreenCapture> captures = fiche.getCaptures();
+        out.writeInt(captures != null ? captures.size() : 0);
+        if (captures != null) {
+            for (ScreenCapture capture : captures) {
+                byte[] png = capture.getPngData();
+                out.writeUTF(capture.getCategory().name());
+                out.writeInt(capture.getIndex());
+                out.writeInt(capture.getWidth());
+                out.writeInt(capture.getHeight());
+                out.writeInt(png.length);
+                out.write(png);
+            }
+        }
+    }
+
+    /**
+     * Lit une fiche écrite par {@link #writeFiche}
+     *
+     * @param maxImageBytes taille maximale cumulée des images PNG acceptée
+     * @throws IOException si le flux est invalide ou dépasse la taille maximale
+     */
+    public static FicheDto readFiche(DataInputStream in, long maxImageBytes) throws IOException {
+        FicheDto fiche = new FicheDto();
+        fiche.setContratJuridique(readString(in));
+        fiche.setNumFormulaire(readString(in));
+        String type = readString(in);
+        fiche.setTypeDemande(type != null ? TypeDemande.valueOf(type) : null);
+        String risque = readString(in);
+        fiche.setRisque(risque != null ? Risque.valueOf(risque) : null);
+        String nature = readString(in);
+        fiche.setNatureDemande(nature != null ? NatureDemande.valueOf(nature) : null);
+        fiche.setElements(readStrings(in));
+        fiche.setDateEffet(readString(in));
+        fiche.setDispositif(readString(in));
+        fiche.setRaisonSocial(readString(in));
+        fiche.setParametreur(readString(in));
+        fiche.setFormules(readStrings(in));
+        fiche.setTauxChargement(readString(in));
+        fiche.setStructure(readString(in));
+        fiche.setStructure2(readString(in));
+        List<String> pcs = readStrings(in);
+        fiche.setListePC(pcs != null ? pcs.toArray(new String[0]) : null);
+        fiche.setProduitGestion(readString(in));
+
+        int count = in.readInt();
+        List<ScreenCapture> captures = new ArrayList<>(Math.max(0, Math.min(count, 64)));
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            CaptureCategory category = CaptureCategory.valueOf(in.readUTF());
+            int index = in.readInt();
+            int width = in.readInt();
+            int height = in.readInt();
+            int length = in.readInt();
+            if (width <= 0 || height <= 0) {
+                throw new IOException("Dimensions de capture invalides : " + width + "x" + height);
+            }
+            total += length;
+            if (length < 0 || total > maxImageBytes) {
+                throw new IOException("Captures trop volumineuses (limite " + maxImageBytes / (1024 * 1024) + " Mo)");
+            }
+            byte[] png = new byte[length];
+            in.readFully(png);
+            captures.add(new ScreenCapture(category, png, width, height, index));
+        }
+        fiche.setCaptures(captures);
+        return fiche;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(Math.min(size, 64));
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+}
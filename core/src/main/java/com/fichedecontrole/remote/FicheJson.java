@@ -0,0 +1,60 @@
+package com.fichedecontrole.remote;
+
+import com.fichedecontrole.batch.FicheMapper;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.util.Json;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Lecture d'une fiche en JSON pour le point d'accès HTTP (classe utilitaire finale).
+ *
+ * Objet plat : champs de {@link FicheDto} (ou libellés reconnus par {@link FicheMapper}),
+ * valeurs chaînes, nombres, booléens, null ou tableaux de ces valeurs (listes).
+ * Exemple : {@code {"contratJuridique":"CJ123","numFormulaire":"F001","listePC":["QU551001"]}}
+ */
+public final class FicheJson {
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation
+     */
+    private FicheJson() {
+        throw new UnsupportedOperationException("Classe utilitaire - ne peut pas être instanciee");
+    }
+
+    /**
+     * Construit une fiche (sans captures) à partir de son JSON
+     *
+     * @throws IOException si le JSON est mal formé ou une énumération invalide
+     */
+    public static FicheDto read(String json) throws IOException {
+        Map<String, String> fields = new HashMap<>();
+        for (Map.Entry<String, Object> entry : Json.parseObject(json).entrySet()) {
+            String field = FicheMapper.fieldForHeader(entry.getKey());
+            if (field != null && entry.getValue() != null) {
+                fields.put(field, toText(entry.getKey(), entry.getValue()));
+            }
+        }
+        return FicheMapper.toFiche(fields);
+    }
+
+    /**
+     * Valeur texte d'un champ : un tableau devient une liste séparée par des virgules
+     */
+    private static String toText(String key, Object value) throws IOException {
+        if (value instanceof Map) {
+            throw new IOException("JSON invalide : objet inattendu pour " + key);
+        }
+        if (value instanceof List) {
+            return ((List<?>) value).stream()
+                .filter(item -> item != null && !(item instanceof Map) && !(item instanceof List))
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        }
+        return String.valueOf(value);
+    }
+}
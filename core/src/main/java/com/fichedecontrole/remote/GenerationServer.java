@@ -0,0 +1,287 @@
+package com.fichedecontrole.remote;
+
+import com.fichedecontrole.config.ConfigManager;
+import com.fichedecontrole.generator.GenerationListener;
+import com.fichedecontrole.generator.TemplateCache;
+import com.fichedecontrole.generator.WordGeneratorXML;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.service.ValidationResult;
+import com.fichedecontrole.service.ValidationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service de génération partagé par les sessions d'un serveur Citrix.
+ *
+ * Un seul processus garde le modèle décompressé et la configuration ; les interfaces
+ * des utilisateurs lui envoient la fiche et ses captures (voir {@link FicheCodec})
+ * et reçoivent le .docx. Le service n'écoute que sur l'interface loopback et
+ * n'écrit aucun fichier : c'est le client qui enregistre le document.
+ *
+ * Protocole (une demande par connexion) :
+ * demande = MAGIC, session (UTF), fiche ; réponse = statut (octet) puis
+ * document (int + octets), erreurs de validation (int + paires UTF) ou message (UTF).
+ *
+ * Lancement : {@code java -cp FicheDeControle.jar com.fichedecontrole.remote.GenerationServer}
+ * (avec le point d'accès HTTP si service.http.actif=true, voir {@link HttpGenerationServer})
+ */
+public class GenerationServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationServer.class);
+
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_VALIDATION = 1;
+    static final byte STATUS_ERREUR = 2;
+    static final byte STATUS_OCCUPE = 3;
+
+    private static final int READ_TIMEOUT_MS = 30_000;
+    // Attente maximale d'une génération (file comprise), celle du client
+    private static final long RENDER_TIMEOUT_MS = 5 * 60_000;
+
+    private final int port;
+    private final long maxImageBytes;
+    private final FairScheduler scheduler;
+    private final ThreadPoolExecutor connections;
+    private final WordGeneratorXML generator = new WordGeneratorXML();
+    private final ValidationService validationService = new ValidationService();
+    private ServerSocket serverSocket;
+
+    /**
+     * @param port               port d'écoute (0 : port libre)
+     * @param threads            générations simultanées
+     * @param perSessionCapacity demandes en attente par session
+     * @param maxImageBytes      taille maximale des captures d'une demande
+     * @param maxConnections     connexions simultanées (au-delà, refus immédiat)
+     */
+    public GenerationServer(int port, int threads, int perSessionCapacity, long maxImageBytes, int maxConnections) {
+        this.port = port;
+        this.maxImageBytes = maxImageBytes;
+        this.scheduler = new FairScheduler(threads, perSessionCapacity);
+        AtomicInteger threadCount = new AtomicInteger(1);
+        this.connections = new ThreadPoolExecutor(0, Math.max(1, maxConnections), 60L, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), r -> {
+                Thread t = new Thread(r, "service-connexion-" + threadCount.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            });
+    }
+
+    /**
+     * Crée le service selon la configuration (service.generation.*)
+     */
+    public static GenerationServer fromConfig() {
+        return new GenerationServer(
+            ConfigManager.getInt("service.generation.port", 47100),
+            ConfigManager.getInt("service.generation.threads", 2),
+            ConfigManager.getInt("service.generation.file.session", 5),
+            ConfigManager.getInt("service.generation.taille.max.mo", 64) * 1024L * 1024L,
+            ConfigManager.getInt("service.generation.connexions.max", 64));
+    }
+
+    public static void main(String[] args) throws Exception {
+        GenerationServer server = fromConfig();
+        TemplateCache.get(); // Charger le modèle avant la première demande
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "arret-service"));
+        if (HttpGenerationServer.isEnabled()) {
+            HttpGenerationServer http = HttpGenerationServer.fromConfig();
+            http.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(http::close, "arret-service-http"));
+        }
+        Thread.currentThread().join();
+    }
+
+    /**
+     * Ouvre le port et accepte les connexions en arrière-plan
+     *
+     * @return le port effectivement utilisé
+     */
+    public int start() throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread acceptThread = new Thread(this::acceptLoop, "service-generation-ecoute");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        logger.info("Service de generation en ecoute sur 127.0.0.1:{}", serverSocket.getLocalPort());
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                try {
+                    connections.execute(() -> handle(socket));
+                } catch (RejectedExecutionException e) {
+                    logger.warn("Trop de connexions simultanees, connexion refusee");
+                    closeQuietly(socket);
+                }
+            } catch (SocketException e) {
+                if (!serverSocket.isClosed()) {
+                    logger.warn("Erreur d'ecoute du service de generation", e);
+                }
+            } catch (IOException e) {
+                logger.warn("Erreur d'ecoute du service de generation", e);
+            }
+        }
+    }
+
+    /**
+     * Traite une demande : lecture, validation, file de la session, réponse
+     */
+    private void handle(Socket socket) {
+        long start = System.nanoTime();
+        String session = "?";
+        try (Socket s = socket) {
+            s.setSoTimeout(READ_TIMEOUT_MS);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+
+            if (in.readInt() != FicheCodec.MAGIC) {
+                logger.warn("Demande ignoree : protocole inconnu");
+                return;
+            }
+            session = in.readUTF();
+            FicheDto fiche = FicheCodec.readFiche(in, maxImageBytes);
+
+            ValidationResult validation = validationService.validate(fiche);
+            if (!validation.isValid()) {
+                out.writeByte(STATUS_VALIDATION);
+                out.writeInt(validation.getErrors().size());
+                for (Map.Entry<String, String> error : validation.getErrors().entrySet()) {
+                    out.writeUTF(error.getKey());
+                    out.writeUTF(error.getValue());
+                }
+                out.flush();
+                return;
+            }
+
+            CompletableFuture<byte[]> result = new CompletableFuture<>();
+            try {
+                scheduler.submit(session, new RenderTask(fiche, result));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Demande refusee pour la session {} : {}", session, e.getMessage());
+                writeMessage(out, STATUS_OCCUPE, "Service de generation occupe, reessayez dans quelques instants");
+                return;
+            }
+
+            // La génération peut attendre son tour : délai aligné sur celui du client
+            byte[] docx;
+            try {
+                docx = result.get(RENDER_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                result.cancel(false); // Pas encore commencée : elle sera ignorée
+                logger.warn("Delai de generation depasse pour la session {}", session);
+                writeMessage(out, STATUS_ERREUR, "Delai de generation depasse");
+                return;
+            } catch (CancellationException e) {
+                writeMessage(out, STATUS_OCCUPE, "Service de generation arrete");
+                return;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                logger.error("Erreur de generation pour la session {}", session, cause);
+                writeMessage(out, STATUS_ERREUR, "Erreur de generation : " + cause.getMessage());
+                return;
+            }
+
+            out.writeByte(STATUS_OK);
+            out.writeInt(docx.length);
+            out.write(docx);
+            out.flush();
+            logger.info("Document genere pour la session {} ({} Ko) en {} ms", session,
+                docx.length / 1024, (System.nanoTime() - start) / 1_000_000);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Demande invalide ou interrompue (session {}) : {}", session, e.toString());
+        }
+    }
+
+    /**
+     * Génération d'une demande ; le résultat est toujours complété, y compris sur une Error
+     * (OutOfMemoryError...) ou à l'arrêt du service, pour ne pas bloquer la connexion
+     */
+    private final class RenderTask implements Runnable {
+        private final FicheDto fiche;
+        private final CompletableFuture<byte[]> result;
+
+        RenderTask(FicheDto fiche, CompletableFuture<byte[]> result) {
+            this.fiche = fiche;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            if (result.isDone()) {
+                return; // Demandeur parti (délai dépassé)
+            }
+            try {
+                ByteArrayOutputStream docx = new ByteArrayOutputStream(256 * 1024);
+                generator.genererFicheDeControle(fiche, docx, GenerationListener.NONE);
+                result.complete(docx.toByteArray());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+                if (e instanceof Error) {
+                    throw (Error) e;
+                }
+            }
+        }
+
+        void abandon() {
+            result.cancel(false);
+        }
+    }
+
+    private static void writeMessage(DataOutputStream out, byte status, String message) throws IOException {
+        out.writeByte(status);
+        out.writeUTF(message != null ? message : "");
+        out.flush();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Connexion déjà fermée
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Erreur a la fermeture du service de generation", e);
+        }
+        for (Runnable task : scheduler.shutdown()) {
+            if (task instanceof RenderTask) {
+                ((RenderTask) task).abandon();
+            }
+        }
+        connections.shutdownNow();
+        logger.info("Service de generation arrete");
+    }
+}
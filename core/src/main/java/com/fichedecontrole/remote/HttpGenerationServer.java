@@ -0,0 +1,444 @@
+package com.fichedecontrole.remote;
+
+import com.fichedecontrole.batch.BatchStatistics;
+import com.fichedecontrole.config.ConfigManager;
+import com.fichedecontrole.generator.GenerationListener;
+import com.fichedecontrole.generator.MemoryAdmission;
+import com.fichedecontrole.generator.TemplateCache;
+import com.fichedecontrole.generator.WordGeneratorXML;
+import com.fichedecontrole.model.CaptureCategory;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.ScreenCapture;
+import com.fichedecontrole.service.FileNameGeneratorService;
+import com.fichedecontrole.service.ValidationResult;
+import com.fichedecontrole.service.ValidationService;
+import com.fichedecontrole.util.Json;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Point d'accès HTTP local pour les outils de workflow (JDK {@code com.sun.net.httpserver}).
+ *
+ * {@code POST /fiches} : fiche en JSON ({@link FicheJson}), seule ({@code application/json})
+ * ou en {@code multipart/form-data} avec une partie {@code fiche} et une partie par capture,
+ * nommée d'après sa catégorie (ex : {@code COTISATIONS_FORMULAIRE}). Le .docx est écrit
+ * directement dans le corps de la réponse, sans fichier temporaire.
+ * Réponses : 200 (document), 400 (demande illisible), 413 (trop volumineuse),
+ * 422 (erreurs de validation en JSON), 429 (file des générations pleine), 500.
+ *
+ * {@code GET /stats} : compteurs et percentiles de latence des dernières demandes.
+ *
+ * Le service n'écoute que sur l'interface loopback.
+ * Lancement : {@code java -cp FicheDeControle.jar com.fichedecontrole.remote.HttpGenerationServer}
+ */
+public class HttpGenerationServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpGenerationServer.class);
+
+    static final String DOCX_TYPE = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final String FICHE_PART = "fiche";
+
+    // Latences conservées pour les percentiles (fenêtre glissante)
+    private static final int LATENCY_WINDOW = 1024;
+
+    private final int port;
+    private final long maxRequestBytes;
+    private final int maxConnections;
+    private final Semaphore admissions;  // demandes admises : lecture, génération ou attente
+    private final Semaphore workers;     // générations en cours
+    private final WordGeneratorXML generator;
+    private final ValidationService validationService = new ValidationService();
+    private final FileNameGeneratorService fileNameGenerator = new FileNameGeneratorService();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicInteger admitted = new AtomicInteger();
+    private final long[] latencies = new long[LATENCY_WINDOW]; // Protégé par this
+    private int latencyCount;
+
+    private HttpServer server;
+    private ExecutorService dispatcher;
+
+    /**
+     * @param port            port d'écoute (0 : port libre)
+     * @param threads         générations simultanées
+     * @param queueCapacity   demandes en attente au-delà desquelles le service répond 429
+     * @param maxRequestBytes taille maximale d'une demande (fiche et captures)
+     * @param maxConnections  demandes traitées simultanément (lecture, attente, écriture)
+     */
+    public HttpGenerationServer(int port, int threads, int queueCapacity, long maxRequestBytes, int maxConnections) {
+        this(port, threads, queueCapacity, maxRequestBytes, maxConnections, new WordGeneratorXML());
+    }
+
+    HttpGenerationServer(int port, int threads, int queueCapacity, long maxRequestBytes, int maxConnections,
+                         WordGeneratorXML generator) {
+        this.port = port;
+        this.maxRequestBytes = maxRequestBytes;
+        this.admissions = new Semaphore(Math.max(1, threads) + Math.max(0, queueCapacity));
+        this.workers = new Semaphore(Math.max(1, threads));
+        // Les refus 429 doivent rester possibles quand la file est pleine
+        this.maxConnections = Math.max(maxConnections, Math.max(1, threads) + Math.max(0, queueCapacity) + 1);
+        this.generator = generator;
+    }
+
+    /**
+     * Crée le service selon la configuration (service.http.*)
+     */
+    public static HttpGenerationServer fromConfig() {
+        return new HttpGenerationServer(
+            ConfigManager.getInt("service.http.port", 47200),
+            ConfigManager.getInt("service.http.threads", 2),
+            ConfigManager.getInt("service.http.file", 8),
+            ConfigManager.getInt("service.http.taille.max.mo", 64) * 1024L * 1024L,
+            ConfigManager.getInt("service.http.connexions.max", 32));
+    }
+
+    /**
+     * Indique si le point d'accès doit être démarré avec le service de génération partagé
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigManager.getValue("service.http.actif", "false"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        HttpGenerationServer server = fromConfig();
+        TemplateCache.get(); // Charger le modèle avant la première demande
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "arret-service-http"));
+        Thread.currentThread().join();
+    }
+
+    /**
+     * Ouvre le port et traite les demandes en arrière-plan
+     *
+     * @return le port effectivement utilisé
+     */
+    public int start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        AtomicInteger threadCount = new AtomicInteger(1);
+        dispatcher = Executors.newFixedThreadPool(maxConnections, r -> {
+            Thread t = new Thread(r, "service-http-" + threadCount.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(dispatcher);
+        server.createContext("/fiches", this::handleFiche);
+        server.createContext("/stats", this::handleStats);
+        server.start();
+        int boundPort = server.getAddress().getPort();
+        logger.info("Point d'acces HTTP en ecoute sur 127.0.0.1:{}", boundPort);
+        return boundPort;
+    }
+
+    /**
+     * POST /fiches : admission, lecture, validation puis génération en flux.
+     * L'admission précède la lecture du corps : seules les demandes admises gardent
+     * leur corps en mémoire (au plus threads + file demandes de taille maximale).
+     */
+    private void handleFiche(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        requests.incrementAndGet();
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendError(exchange, 405, "Methode non autorisee : POST attendu");
+            return;
+        }
+
+        if (!admissions.tryAcquire()) {
+            rejected.incrementAndGet();
+            logger.warn("Demande HTTP refusee : file des generations pleine");
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendError(exchange, 429, "File des generations pleine, reessayez dans quelques instants");
+            return;
+        }
+        admitted.incrementAndGet();
+        try {
+            FicheDto fiche;
+            try {
+                fiche = readFiche(exchange);
+            } catch (RequestTooLargeException e) {
+                invalid.incrementAndGet();
+                sendError(exchange, 413, e.getMessage());
+                return;
+            } catch (IOException e) {
+                invalid.incrementAndGet();
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+
+            ValidationResult validation = validationService.validate(fiche);
+            if (!validation.isValid()) {
+                invalid.incrementAndGet();
+                StringJoiner errors = new StringJoiner(",", "{\"erreurs\":{", "}}");
+                for (Map.Entry<String, String> error : validation.getErrors().entrySet()) {
+                    errors.add(Json.quote(error.getKey()) + ":" + Json.quote(error.getValue()));
+                }
+                sendJson(exchange, 422, errors.toString());
+                return;
+            }
+
+            workers.acquire();
+            try {
+                render(exchange, fiche, start);
+            } finally {
+                workers.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "Service en cours d'arret");
+        } finally {
+            admitted.decrementAndGet();
+            admissions.release();
+        }
+    }
+
+    /**
+     * Écrit le document dans la réponse. Les en-têtes ne partent qu'au premier envoi
+     * (tampon de 64 Ko) : une erreur avant l'envoi donne un 500, une erreur pendant l'écriture coupe
+     * la connexion (réponse incomplète, jamais un document tronqué présenté comme complet).
+     */
+    private void render(HttpExchange exchange, FicheDto fiche, long start) throws IOException {
+        String fileName = fileNameGenerator.generate(
+            fiche.getNumFormulaire(), fiche.getContratJuridique(), fiche.getListePC()) + ".docx";
+        exchange.getResponseHeaders().set("Content-Type", DOCX_TYPE);
+        exchange.getResponseHeaders().set("Content-Disposition",
+            "attachment; filename=\"" + fileName.replace('"', '_') + "\"");
+        CommittingOutputStream body = new CommittingOutputStream(exchange);
+        try {
+            OutputStream buffered = new BufferedOutputStream(body, 64 * 1024);
+            generator.genererFicheDeControle(fiche, buffered, GenerationListener.NONE);
+            buffered.flush();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            logger.error("Erreur de generation HTTP pour {}", fiche.getNumFormulaire(), e);
+            if (!body.isCommitted()) {
+                exchange.getResponseHeaders().remove("Content-Disposition");
+                sendError(exchange, 500, "Erreur de generation : " + e.getMessage());
+                return;
+            }
+            // Exception propagée : le serveur ferme la connexion sans terminer la réponse
+            throw new IOException("Generation interrompue pendant l'envoi", e);
+        }
+        if (!body.isCommitted()) {
+            exchange.sendResponseHeaders(200, -1);
+        }
+        exchange.close();
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        recordLatency(durationMs);
+        generated.incrementAndGet();
+        logger.info("Document HTTP genere : {} ({} Ko) en {} ms", fileName, body.getCount() / 1024, durationMs);
+    }
+
+    /**
+     * Lit la fiche et ses captures (JSON seul ou multipart)
+     */
+    private FicheDto readFiche(HttpExchange exchange) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        byte[] body = readBody(exchange);
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/form-data")) {
+            return FicheJson.read(new String(body, StandardCharsets.UTF_8));
+        }
+
+        FicheDto fiche = null;
+        List<ScreenCapture> captures = new ArrayList<>();
+        int[] counts = new int[CaptureCategory.values().length];
+        for (MultipartBody.Part part : MultipartBody.parse(body, contentType)) {
+            if (FICHE_PART.equals(part.getName())) {
+                fiche = FicheJson.read(part.getText());
+                continue;
+            }
+            CaptureCategory category = Arrays.stream(CaptureCategory.values())
+                .filter(c -> c.name().equalsIgnoreCase(part.getName()))
+                .findFirst()
+                .orElseThrow(() -> new IOException("Partie inconnue : " + part.getName()));
+            int index = ++counts[category.ordinal()];
+            if (index > 1 && !category.isMultiple()) {
+                throw new IOException("Une seule capture autorisee pour " + category.name());
+            }
+            try {
+                captures.add(ScreenCapture.fromEncoded(category, part.getData(), index));
+            } catch (IOException e) {
+                throw new IOException(e.getMessage() + " : " + part.getName() + " n°" + index, e);
+            }
+        }
+        if (fiche == null) {
+            throw new IOException("Partie '" + FICHE_PART + "' absente");
+        }
+        fiche.setCaptures(captures);
+        return fiche;
+    }
+
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+                if (body.size() > maxRequestBytes) {
+                    throw new RequestTooLargeException("Demande trop volumineuse (maximum "
+                        + maxRequestBytes / (1024 * 1024) + " Mo)");
+                }
+            }
+        }
+        return body.toByteArray();
+    }
+
+    /**
+     * GET /stats : compteurs et latences (ms) des demandes générées
+     */
+    private void handleStats(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendError(exchange, 405, "Methode non autorisee : GET attendu");
+            return;
+        }
+        sendJson(exchange, 200, statsJson());
+    }
+
+    String statsJson() {
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(latencies, Math.min(latencyCount, LATENCY_WINDOW));
+        }
+        Arrays.sort(sorted);
+        String latency = sorted.length == 0 ? "{\"echantillons\":0}" : String.format(Locale.ROOT,
+            "{\"echantillons\":%d,\"p50\":%d,\"p95\":%d,\"p99\":%d,\"max\":%d}", sorted.length,
+            BatchStatistics.percentile(sorted, 50), BatchStatistics.percentile(sorted, 95),
+            BatchStatistics.percentile(sorted, 99), sorted[sorted.length - 1]);
+        MemoryAdmission admission = MemoryAdmission.get();
+        String memory = String.format(Locale.ROOT,
+            "{\"budget_mo\":%d,\"reserve_mo\":%d,\"generations\":%d,\"en_attente\":%d}",
+            admission.getBudgetBytes() / (1024 * 1024), admission.getReservedBytes() / (1024 * 1024),
+            admission.getRunning(), admission.getWaiting());
+        return String.format(Locale.ROOT,
+            "{\"demandes\":%d,\"generees\":%d,\"refusees\":%d,\"invalides\":%d,\"erreurs\":%d,"
+                + "\"en_cours\":%d,\"latence_ms\":%s,\"memoire\":%s}",
+            requests.get(), generated.get(), rejected.get(), invalid.get(), failed.get(),
+            admitted.get(), latency, memory);
+    }
+
+    private synchronized void recordLatency(long durationMs) {
+        latencies[latencyCount % LATENCY_WINDOW] = durationMs;
+        latencyCount++;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, "{\"erreur\":" + Json.quote(message) + "}");
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(1);
+        }
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+        }
+        logger.info("Point d'acces HTTP arrete");
+    }
+
+    /**
+     * Demande au-delà de la taille maximale (réponse 413)
+     */
+    private static final class RequestTooLargeException extends IOException {
+        RequestTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Corps de réponse en transfert par morceaux, dont les en-têtes (200) ne partent
+     * qu'à l'écriture du premier octet
+     */
+    private static final class CommittingOutputStream extends FilterOutputStream {
+        private final HttpExchange exchange;
+        private boolean committed;
+        private long count;
+
+        CommittingOutputStream(HttpExchange exchange) {
+            super(null);
+            this.exchange = exchange;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            commit();
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            commit();
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (committed) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() {
+            // Fermé par exchange.close()
+        }
+
+        boolean isCommitted() {
+            return committed;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        private void commit() throws IOException {
+            if (!committed) {
+                exchange.sendResponseHeaders(200, 0);
+                out = exchange.getResponseBody();
+                committed = true;
+            }
+        }
+    }
+}
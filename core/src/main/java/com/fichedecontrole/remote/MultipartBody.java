@@ -0,0 +1,123 @@
+package com.fichedecontrole.remote;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Découpage d'un corps multipart/form-data (RFC 7578) déjà lu et borné en taille
+ */
+final class MultipartBody {
+
+    private static final Pattern BOUNDARY = Pattern.compile("boundary=\"?([^\";]+)\"?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern NAME = Pattern.compile("\\bname=\"([^\"]*)\"", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Partie du formulaire : nom du champ et contenu brut
+     */
+    static final class Part {
+        private final String name;
+        private final byte[] data;
+
+        Part(String name, byte[] data) {
+            this.name = name;
+            this.data = data;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        byte[] getData() {
+            return data;
+        }
+
+        String getText() {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation
+     */
+    private MultipartBody() {
+        throw new UnsupportedOperationException("Classe utilitaire - ne peut pas être instanciee");
+    }
+
+    /**
+     * @param contentType en-tête Content-Type de la demande (porte le séparateur)
+     * @return les parties dans l'ordre du corps
+     * @throws IOException si le corps ou le séparateur est invalide
+     */
+    static List<Part> parse(byte[] body, String contentType) throws IOException {
+        Matcher boundaryMatcher = BOUNDARY.matcher(contentType);
+        if (!boundaryMatcher.find()) {
+            throw new IOException("Separateur multipart absent");
+        }
+        byte[] delimiter = ("--" + boundaryMatcher.group(1)).getBytes(StandardCharsets.ISO_8859_1);
+
+        List<Part> parts = new ArrayList<>();
+        int start = indexOf(body, delimiter, 0);
+        if (start < 0) {
+            throw new IOException("Corps multipart invalide");
+        }
+        while (true) {
+            int afterDelimiter = start + delimiter.length;
+            if (afterDelimiter + 1 < body.length && body[afterDelimiter] == '-' && body[afterDelimiter + 1] == '-') {
+                return parts; // Délimiteur final
+            }
+            int headersStart = skipLineBreak(body, afterDelimiter);
+            int headersEnd = indexOf(body, "\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1), headersStart);
+            if (headersEnd < 0) {
+                throw new IOException("En-tetes de partie multipart incomplets");
+            }
+            int next = indexOf(body, delimiter, headersEnd + 4);
+            if (next < 0) {
+                throw new IOException("Corps multipart tronque");
+            }
+            String headers = new String(body, headersStart, headersEnd - headersStart, StandardCharsets.UTF_8);
+            // Le contenu s'arrête avant le CRLF qui précède le délimiteur suivant
+            int dataEnd = next >= 2 && body[next - 2] == '\r' && body[next - 1] == '\n' ? next - 2 : next;
+            int dataStart = headersEnd + 4;
+            parts.add(new Part(partName(headers), Arrays.copyOfRange(body, dataStart, Math.max(dataStart, dataEnd))));
+            start = next;
+        }
+    }
+
+    private static String partName(String headers) throws IOException {
+        for (String header : headers.split("\r\n")) {
+            if (header.toLowerCase(Locale.ROOT).startsWith("content-disposition:")) {
+                Matcher name = NAME.matcher(header);
+                if (name.find()) {
+                    return name.group(1);
+                }
+            }
+        }
+        throw new IOException("Partie multipart sans nom");
+    }
+
+    private static int skipLineBreak(byte[] body, int pos) {
+        if (pos + 1 < body.length && body[pos] == '\r' && body[pos + 1] == '\n') {
+            return pos + 2;
+        }
+        return pos;
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern, int from) {
+        outer:
+        for (int i = from; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,150 @@
+package com.fichedecontrole.remote;
+
+import com.fichedecontrole.config.ConfigManager;
+import com.fichedecontrole.generator.GenerationListener;
+import com.fichedecontrole.generator.GenerationPhase;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.service.DocumentGenerationException;
+import com.fichedecontrole.service.DocumentGenerationService;
+import com.fichedecontrole.service.ValidationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Génération déléguée au service partagé du serveur ({@link GenerationServer}).
+ *
+ * L'interface n'a plus besoin du modèle ni du générateur en mémoire : elle envoie
+ * la fiche, reçoit le .docx et l'enregistre. Si le service est injoignable,
+ * la génération se fait localement comme avant.
+ */
+public class RemoteDocumentGenerationService extends DocumentGenerationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteDocumentGenerationService.class);
+
+    private static final int CONNECT_TIMEOUT_MS = 2_000;
+    private static final int RESPONSE_TIMEOUT_MS = 5 * 60_000;
+
+    private final String host;
+    private final int port;
+    private final String session;
+
+    public RemoteDocumentGenerationService(String host, int port) {
+        this.host = host;
+        this.port = port;
+        this.session = System.getProperty("user.name", "inconnu");
+    }
+
+    /**
+     * Service distant si service.generation.hote est renseigné, local sinon
+     */
+    public static DocumentGenerationService fromConfig() {
+        String host = ConfigManager.getValue("service.generation.hote", "").trim();
+        if (host.isEmpty()) {
+            return new DocumentGenerationService();
+        }
+        int port = ConfigManager.getInt("service.generation.port", 47100);
+        logger.info("Generation deleguee au service partage {}:{}", host, port);
+        return new RemoteDocumentGenerationService(host, port);
+    }
+
+    @Override
+    public void generateDocument(FicheDto fiche, File outputFile, GenerationListener listener)
+            throws DocumentGenerationException {
+        ValidationResult validation = validate(fiche);
+        if (!validation.isValid()) {
+            logger.warn("Validation echouee : {}", validation.getErrors());
+            throw new DocumentGenerationException("Validation echouee", validation.getErrors());
+        }
+
+        byte[] docx;
+        try {
+            docx = request(fiche, listener);
+        } catch (ConnectException | SocketTimeoutException e) {
+            if (listener.isCancelled()) {
+                throw new CancellationException("Generation annulee");
+            }
+            logger.warn("Service de generation injoignable ({}:{}) : generation locale", host, port);
+            super.generateDocument(fiche, outputFile, listener);
+            return;
+        } catch (IOException e) {
+            logger.error("Erreur de communication avec le service de generation", e);
+            throw new DocumentGenerationException("Erreur de communication avec le service de generation : "
+                + e.getMessage(), e);
+        }
+
+        if (listener.isCancelled()) {
+            throw new CancellationException("Generation annulee");
+        }
+        listener.onPhase(GenerationPhase.FLUSH);
+        try {
+            Files.write(outputFile.toPath(), docx);
+        } catch (IOException e) {
+            outputFile.delete();
+            throw new DocumentGenerationException("Erreur d'ecriture : " + e.getMessage(), e);
+        }
+        logger.info("Document genere par le service partage : {}", outputFile.getName());
+    }
+
+    /**
+     * Le document est produit par le service partagé : seules les captures sont encodées
+     * à l'avance (elles sont envoyées en PNG)
+     */
+    @Override
+    protected boolean rendersLocally() {
+        return false;
+    }
+
+    /**
+     * Envoie la fiche et attend le document
+     */
+    private byte[] request(FicheDto fiche, GenerationListener listener)
+            throws IOException, DocumentGenerationException {
+        listener.onPhase(GenerationPhase.TEMPLATE);
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            socket.setSoTimeout(RESPONSE_TIMEOUT_MS);
+
+            listener.onPhase(GenerationPhase.IMAGES);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(FicheCodec.MAGIC);
+            out.writeUTF(session);
+            FicheCodec.writeFiche(out, fiche);
+            out.flush();
+
+            listener.onPhase(GenerationPhase.XML);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            byte status = in.readByte();
+            switch (status) {
+                case GenerationServer.STATUS_OK:
+                    listener.onPhase(GenerationPhase.ZIP);
+                    byte[] docx = new byte[in.readInt()];
+                    in.readFully(docx);
+                    return docx;
+                case GenerationServer.STATUS_VALIDATION:
+                    Map<String, String> errors = new LinkedHashMap<>();
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        errors.put(in.readUTF(), in.readUTF());
+                    }
+                    throw new DocumentGenerationException("Validation echouee", errors);
+                default:
+                    throw new DocumentGenerationException(in.readUTF(), (Throwable) null);
+            }
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.fichedecontrole.service;
+
+import com.fichedecontrole.config.ConfigManager;
+import com.fichedecontrole.generator.GenerationListener;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.ScreenCapture;
+import com.fichedecontrole.monitoring.MemoryMonitor;
+import com.fichedecontrole.util.Digests;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache des documents générés.
+ *
+ * Clé : empreinte SHA-256 du contenu de la fiche (champs et captures PNG), de la version
+ * du modèle et de la date du jour ; valeur : le .docx produit. La taille totale est bornée
+ * (generation.cache.mo), les documents les moins récemment servis sortent en premier.
+ * Deux demandes identiques simultanées partagent une seule génération.
+ */
+public class DocumentCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentCache.class);
+
+    private static final long MO = 1024L * 1024L;
+
+    /**
+     * Production du document (appelée une seule fois par clé absente) : renvoie le document
+     * à garder, ou null s'il a été écrit ailleurs sans être gardé en mémoire
+     */
+    public interface Renderer {
+        byte[] render() throws Exception;
+    }
+
+    private static DocumentCache global;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, byte[]> documents = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private long cachedBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    /**
+     * @param maxBytes taille maximale des documents gardés (0 : cache désactivé)
+     */
+    public DocumentCache(long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    /**
+     * Instance partagée, créée selon la configuration (generation.cache.mo)
+     */
+    public static synchronized DocumentCache get() {
+        if (global == null) {
+            global = new DocumentCache(ConfigManager.getInt("generation.cache.mo", 64) * MO);
+            if (global.isEnabled()) {
+                // Mode économe : les documents gardés sont les premiers libérés
+                MemoryMonitor.get().addTrimmer(global::trim);
+            }
+        }
+        return global;
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * Un document de cette taille peut-il être gardé ?
+     */
+    public boolean accepts(long size) {
+        return isEnabled() && size <= maxBytes;
+    }
+
+    /**
+     * Clé d'un document : fiche, captures, version du modèle et date du jour
+     *
+     * @throws IOException si une capture ne peut pas être encodée en PNG
+     */
+    public static String key(FicheDto fiche, String templateVersion, String date) throws IOException {
+        MessageDigest digest = Digests.sha256();
+        update(digest, templateVersion);
+        update(digest, date);
+        update(digest, fiche.getContratJuridique());
+        update(digest, fiche.getNumFormulaire());
+        update(digest, fiche.getTypeDemande() != null ? fiche.getTypeDemande().name() : null);
+        update(digest, fiche.getRisque() != null ? fiche.getRisque().name() : null);
+        update(digest, fiche.getNatureDemande() != null ? fiche.getNatureDemande().name() : null);
+        update(digest, fiche.getElements());
+        update(digest, fiche.getDateEffet());
+        update(digest, fiche.getDispositif());
+        update(digest, fiche.getRaisonSocial());
+        update(digest, fiche.getParametreur());
+        update(digest, fiche.getFormules());
+        update(digest, fiche.getTauxChargement());
+        update(digest, fiche.getStructure());
+        update(digest, fiche.getStructure2());
+        update(digest, fiche.getListePC() != null ? Arrays.asList(fiche.getListePC()) : null);
+        update(digest, fiche.getProduitGestion());
+        List<ScreenCapture> captures = fiche.getCaptures();
+        update(digest, String.valueOf(captures != null ? captures.size() : 0));
+        if (captures != null) {
+            for (ScreenCapture capture : captures) {
+                update(digest, capture.getCategory().name() + "/" + capture.getIndex()
+                    + "/" + capture.getWidth() + "x" + capture.getHeight());
+                byte[] png = capture.getPngData();
+                update(digest, String.valueOf(png.length));
+                digest.update(png);
+            }
+        }
+        return Digests.hex(digest.digest());
+    }
+
+    /**
+     * Document de la clé : servi depuis le cache, attendu si une génération identique
+     * est en cours, sinon produit puis gardé
+     *
+     * @param listener consulté pour l'annulation pendant l'attente d'une génération identique
+     * @return le document, ou null si le renderer de cet appel ne l'a pas gardé
+     * @throws CancellationException si l'annulation a été demandée pendant l'attente
+     * @throws Exception l'erreur de la génération
+     */
+    public byte[] get(String key, GenerationListener listener, Renderer renderer) throws Exception {
+        while (true) {
+            byte[] cached = lookup(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                bytesSaved.addAndGet(cached.length);
+                logger.debug("Document servi depuis le cache ({} Ko)", cached.length / 1024);
+                return cached;
+            }
+
+            CompletableFuture<byte[]> mine = new CompletableFuture<>();
+            CompletableFuture<byte[]> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                try {
+                    byte[] docx = await(running, listener);
+                    if (docx == null) {
+                        continue; // Document écrit par son demandeur sans être gardé : à produire
+                    }
+                    shared.incrementAndGet();
+                    bytesSaved.addAndGet(docx.length);
+                    logger.debug("Generation identique en cours : document partage ({} Ko)", docx.length / 1024);
+                    return docx;
+                } catch (CancellationException e) {
+                    if (listener.isCancelled()) {
+                        throw e;
+                    }
+                    continue; // Génération partagée annulée par son demandeur : nouvel essai
+                } catch (ExecutionException e) {
+                    throw unwrap(e);
+                }
+            }
+
+            try {
+                // Terminée par un autre thread entre la consultation et l'enregistrement ?
+                byte[] docx = lookup(key);
+                if (docx == null) {
+                    misses.incrementAndGet();
+                    docx = renderer.render();
+                    if (docx != null) {
+                        store(key, docx);
+                    }
+                } else {
+                    hits.incrementAndGet();
+                    bytesSaved.addAndGet(docx.length);
+                }
+                mine.complete(docx);
+                return docx;
+            } catch (Exception | Error e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+    }
+
+    /**
+     * Garde un document produit hors du cache (génération anticipée), sans le compter
+     * dans les statistiques
+     */
+    void put(String key, byte[] docx) {
+        store(key, docx);
+    }
+
+    public long getHits() {
+        return hits.get() + shared.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Demandes servies par une génération identique déjà en cours
+     */
+    public long getShared() {
+        return shared.get();
+    }
+
+    /**
+     * Octets de documents servis sans génération
+     */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    public synchronized int size() {
+        return documents.size();
+    }
+
+    /**
+     * Résumé : taux de succès et volume économisé
+     */
+    @Override
+    public String toString() {
+        long served = getHits();
+        long total = served + getMisses();
+        return String.format(Locale.ROOT, "Cache : %d/%d document(s) sans generation (%.0f %%, dont %d partage(s)), "
+                + "%.1f Mo economises, %d document(s) gardes (%.1f Mo)",
+            served, total, total == 0 ? 0.0 : served * 100.0 / total, getShared(),
+            getBytesSaved() / (double) MO, size(), getCachedBytes() / (double) MO);
+    }
+
+    /**
+     * Vide le cache
+     *
+     * @return la description de ce qui a été libéré, null si rien
+     */
+    public synchronized String trim() {
+        if (documents.isEmpty()) {
+            return null;
+        }
+        String description = String.format(Locale.ROOT, "cache vide (%d Mo)", cachedBytes / MO);
+        documents.clear();
+        cachedBytes = 0;
+        return description;
+    }
+
+    private synchronized byte[] lookup(String key) {
+        return documents.get(key);
+    }
+
+    private synchronized void store(String key, byte[] docx) {
+        if (!accepts(docx.length)) {
+            return;
+        }
+        byte[] previous = documents.put(key, docx);
+        cachedBytes += docx.length - (previous != null ? previous.length : 0);
+        Iterator<byte[]> eldest = documents.values().iterator();
+        while (cachedBytes > maxBytes && eldest.hasNext()) {
+            cachedBytes -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Attend une génération identique en cours, en surveillant l'annulation de l'appelant
+     */
+    private static byte[] await(CompletableFuture<byte[]> running, GenerationListener listener)
+            throws InterruptedException, ExecutionException {
+        while (true) {
+            if (listener.isCancelled()) {
+                throw new CancellationException("Generation annulee");
+            }
+            try {
+                return running.get(100, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Génération identique toujours en cours
+            }
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static void update(MessageDigest digest, List<String> values) {
+        if (values == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        update(digest, String.valueOf(values.size()));
+        for (String value : values) {
+            update(digest, value);
+        }
+    }
+
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return cause instanceof Exception ? (Exception) cause : e;
+    }
+}
@@ -0,0 +1,273 @@
+package com.fichedecontrole.service;
+
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.ScreenCapture;
+import com.fichedecontrole.generator.GenerationListener;
+import com.fichedecontrole.generator.TemplateCache;
+import com.fichedecontrole.generator.WordGeneratorXML;
+import com.fichedecontrole.monitoring.MemoryMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Service principal de génération de documents
+ * Coordonne la validation et la génération
+ */
+public class DocumentGenerationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentGenerationService.class);
+
+    /**
+     * Document de la génération anticipée, en cours ou terminé (null : non gardé)
+     */
+    private static final class Prepared {
+        private final String key;
+        private final CompletableFuture<byte[]> document = new CompletableFuture<>();
+
+        private Prepared(String key) {
+            this.key = key;
+        }
+    }
+
+    private final WordGeneratorXML wordGenerator;
+    private final ValidationService validationService;
+    private final FileNameGeneratorService fileNameGenerator;
+    private final DocumentCache cache;
+    private final AtomicReference<Prepared> prepared = new AtomicReference<>();
+
+    public DocumentGenerationService() {
+        this(new WordGeneratorXML(), DocumentCache.get());
+    }
+
+    /**
+     * @param cache documents déjà produits (voir {@link DocumentCache})
+     */
+    public DocumentGenerationService(WordGeneratorXML wordGenerator, DocumentCache cache) {
+        this.wordGenerator = wordGenerator;
+        this.validationService = new ValidationService();
+        this.fileNameGenerator = new FileNameGeneratorService();
+        this.cache = cache;
+    }
+
+    /**
+     * Génère un document Word à partir des données du formulaire
+     *
+     * @param fiche La fiche de contrôle à générer
+     * @param outputFile Le fichier de sortie
+     * @throws DocumentGenerationException En cas d'erreur de validation ou de génération
+     */
+    public void generateDocument(FicheDto fiche, File outputFile) throws DocumentGenerationException {
+        generateDocument(fiche, outputFile, GenerationListener.NONE);
+    }
+
+    /**
+     * Génère un document Word en notifiant l'avancement (utilisable hors de l'EDT)
+     *
+     * @param fiche La fiche de contrôle à générer
+     * @param outputFile Le fichier de sortie
+     * @param listener Suivi des étapes et demande d'annulation
+     * @throws DocumentGenerationException En cas d'erreur de validation ou de génération
+     * @throws CancellationException Si l'annulation a été demandée (le fichier partiel est supprimé)
+     */
+    public void generateDocument(FicheDto fiche, File outputFile, GenerationListener listener)
+            throws DocumentGenerationException {
+        logger.info("Debut de generation du document pour : {}", fiche.getNumFormulaire());
+
+        // Valider les données
+        ValidationResult validation = validate(fiche);
+        if (!validation.isValid()) {
+            logger.warn("Validation echouee : {}", validation.getErrors());
+            throw new DocumentGenerationException("Validation echouee", validation.getErrors());
+        }
+
+        // Générer le document (ou le reprendre de la préparation ou du cache)
+        try {
+            byte[] docx = takePrepared(fiche, listener);
+            if (docx != null) {
+                WordGeneratorXML.enregistrer(docx, outputFile);
+            } else if (cache.isEnabled() && !MemoryMonitor.get().isLowFootprint()) {
+                generateCached(fiche, outputFile, listener);
+            } else {
+                // Mode économe : écriture directe dans le fichier, sans copie en mémoire
+                wordGenerator.genererFicheDeControle(fiche, outputFile, listener);
+            }
+            logger.info("Document genere avec succes : {}", outputFile.getName());
+        } catch (CancellationException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DocumentGenerationException("Generation interrompue", e);
+        } catch (Exception e) {
+            logger.error("Erreur lors de la generation du document", e);
+            throw new DocumentGenerationException("Erreur de generation : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Document servi par le cache si la même fiche a déjà été générée aujourd'hui avec le
+     * même modèle, partagé si elle est en cours de génération. Sinon il est écrit directement
+     * dans le fichier, puis relu pour le cache seulement si sa taille permet de le garder.
+     */
+    private void generateCached(FicheDto fiche, File outputFile, GenerationListener listener) throws Exception {
+        String key = documentKey(fiche);
+        boolean[] written = new boolean[1];
+        byte[] docx = cache.get(key, listener, () -> {
+            wordGenerator.genererFicheDeControle(fiche, outputFile, listener);
+            written[0] = true;
+            return cache.accepts(outputFile.length()) ? Files.readAllBytes(outputFile.toPath()) : null;
+        });
+        if (!written[0]) {
+            WordGeneratorXML.enregistrer(docx, outputFile);
+        }
+    }
+
+    /**
+     * Document préparé pour cette fiche, attendu s'il est en cours ; le document est alors
+     * retiré de la préparation et confié au cache
+     *
+     * @return null si aucune préparation ne correspond ou si elle a échoué
+     */
+    private byte[] takePrepared(FicheDto fiche, GenerationListener listener) throws Exception {
+        Prepared current = prepared.get();
+        if (current == null || !current.key.equals(documentKey(fiche))) {
+            return null;
+        }
+        byte[] docx;
+        try {
+            while (true) {
+                if (listener.isCancelled()) {
+                    throw new CancellationException("Generation annulee");
+                }
+                try {
+                    docx = current.document.get(100, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    // Préparation en cours : on continue d'attendre
+                }
+            }
+        } catch (ExecutionException | CancellationException e) {
+            if (listener.isCancelled()) {
+                throw new CancellationException("Generation annulee");
+            }
+            return null; // Préparation abandonnée ou en échec : génération normale
+        }
+        if (docx != null && prepared.compareAndSet(current, null)
+                && cache.isEnabled() && !MemoryMonitor.get().isLowFootprint()) {
+            cache.put(current.key, docx);
+        }
+        return docx;
+    }
+
+    /**
+     * Prépare le document d'une fiche sans l'écrire (génération anticipée) : encode les
+     * captures puis, si la fiche est valide, produit le document en mémoire, où la
+     * génération demandée ensuite le reprendra. Seule la dernière préparation est gardée,
+     * à part du cache des documents.
+     *
+     * @param listener consulté pour l'annulation (la préparation est abandonnée sans effet)
+     * @return true si le document est prêt
+     * @throws CancellationException si l'annulation a été demandée
+     */
+    public boolean prerender(FicheDto fiche, GenerationListener listener) throws Exception {
+        encodeCaptures(fiche, listener);
+        if (!rendersLocally() || !cache.isEnabled() || MemoryMonitor.get().isLowFootprint()
+                || !validate(fiche).isValid()) {
+            prepared.set(null);
+            return false;
+        }
+        String key = documentKey(fiche);
+        Prepared current = prepared.get();
+        if (current != null && current.key.equals(key) && !current.document.isCompletedExceptionally()
+                && current.document.getNow(null) != null) {
+            return true;
+        }
+
+        Prepared mine = new Prepared(key);
+        prepared.set(mine);
+        try {
+            ByteArrayOutputStream docx = new ByteArrayOutputStream(256 * 1024);
+            wordGenerator.genererFicheDeControle(fiche, docx, listener);
+            if (!cache.accepts(docx.size())) {
+                prepared.compareAndSet(mine, null);
+                mine.document.complete(null);
+                return false;
+            }
+            mine.document.complete(docx.toByteArray());
+            return true;
+        } catch (Exception | Error e) {
+            prepared.compareAndSet(mine, null);
+            mine.document.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Clé du document d'une fiche (voir {@link DocumentCache#key})
+     */
+    private String documentKey(FicheDto fiche) throws IOException {
+        return DocumentCache.key(fiche, TemplateCache.get().getVersion(), wordGenerator.getDateDuJour());
+    }
+
+    /**
+     * Document produit par ce service : false si un autre le produit (service partagé),
+     * la génération anticipée se limite alors à l'encodage des captures
+     */
+    protected boolean rendersLocally() {
+        return true;
+    }
+
+    /**
+     * Encode en PNG les captures de la fiche (encodage gardé par chaque capture)
+     */
+    private static void encodeCaptures(FicheDto fiche, GenerationListener listener) throws IOException {
+        if (fiche.getCaptures() == null) {
+            return;
+        }
+        for (ScreenCapture capture : fiche.getCaptures()) {
+            if (listener.isCancelled()) {
+                throw new CancellationException("Preparation annulee");
+            }
+            capture.getPngData();
+        }
+    }
+
+    /**
+     * Statistiques du cache des documents
+     */
+    public DocumentCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Valide les données du formulaire sans générer le document
+     *
+     * @param fiche La fiche de contrôle à valider
+     * @return Le résultat de validation
+     */
+    public ValidationResult validate(FicheDto fiche) {
+        return validationService.validate(fiche);
+    }
+
+    /**
+     * Génère le nom de fichier suggéré
+     *
+     * @param numFormulaire Le numéro de formulaire
+     * @param contratJuridique Le contrat juridique
+     * @param listePC La liste des codes PC
+     * @return Le nom de fichier (sans extension)
+     */
+    public String generateFileName(String numFormulaire, String contratJuridique, String[] listePC) {
+        return fileNameGenerator.generate(numFormulaire, contratJuridique, listePC);
+    }
+}
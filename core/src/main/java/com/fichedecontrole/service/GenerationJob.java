@@ -0,0 +1,128 @@
+package com.fichedecontrole.service;
+
+import com.fichedecontrole.generator.GenerationPhase;
+import com.fichedecontrole.model.FicheDto;
+
+import java.io.File;
+
+/**
+ * Génération en file d'attente : une copie figée de la fiche et son fichier de destination.
+ *
+ * La fiche (et donc ses captures) est conservée jusqu'à l'écriture du document,
+ * puis libérée pour que les images puissent être récupérées par le GC.
+ * L'état est modifié par le thread de génération et lu par l'UI.
+ */
+public class GenerationJob {
+
+    /**
+     * États successifs d'une génération en file
+     */
+    public enum State {
+        PENDING("En attente"),
+        RUNNING("En cours"),
+        DONE("Terminé"),
+        FAILED("Échec"),
+        CANCELLED("Annulé");
+
+        private final String displayName;
+
+        State(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public boolean isFinished() {
+            return this == DONE || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final int id;
+    private final String label;
+    private final File outputFile;
+    private volatile FicheDto fiche;
+    private volatile State state = State.PENDING;
+    private volatile GenerationPhase phase;
+    private volatile String errorMessage;
+    private volatile boolean cancelRequested;
+    private volatile long durationMs;
+
+    GenerationJob(int id, FicheDto fiche, File outputFile) {
+        this.id = id;
+        this.fiche = fiche;
+        this.outputFile = outputFile;
+        this.label = outputFile.getName();
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public File getOutputFile() {
+        return outputFile;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Étape en cours (null tant que la génération n'a pas commencé)
+     */
+    public GenerationPhase getPhase() {
+        return phase;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    /**
+     * Demande l'annulation : une génération en attente ne démarrera pas,
+     * une génération en cours s'arrêtera à la prochaine étape
+     */
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    FicheDto getFiche() {
+        return fiche;
+    }
+
+    void setPhase(GenerationPhase phase) {
+        this.phase = phase;
+    }
+
+    void markRunning() {
+        state = State.RUNNING;
+    }
+
+    /**
+     * Termine le job et libère la fiche (et ses captures)
+     */
+    void markFinished(State finalState, String error, long durationMs) {
+        this.errorMessage = error;
+        this.durationMs = durationMs;
+        this.fiche = null;
+        this.state = finalState;
+    }
+
+    @Override
+    public String toString() {
+        return label + " - " + state.getDisplayName();
+    }
+}
@@ -0,0 +1,205 @@
+package com.fichedecontrole.service;
+
+import com.fichedecontrole.config.ConfigManager;
+import com.fichedecontrole.generator.GenerationListener;
+import com.fichedecontrole.generator.GenerationPhase;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.monitoring.StallWatchdog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * File de génération en arrière-plan.
+ *
+ * Chaque demande est une copie figée de la fiche ({@link FicheDto#snapshot()}),
+ * exécutée par un pool borné : le formulaire peut être réinitialisé dès l'ajout.
+ * La file refuse les demandes au-delà de sa capacité plutôt que d'accumuler
+ * des captures en mémoire.
+ */
+public class GenerationQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationQueue.class);
+
+    private static final String CONFIG_THREADS = "generation.file.threads";
+    private static final String CONFIG_CAPACITE = "generation.file.capacite";
+
+    /**
+     * Notifié à chaque changement d'état d'un job (depuis n'importe quel thread)
+     */
+    public interface Listener {
+        void jobUpdated(GenerationJob job);
+    }
+
+    private final DocumentGenerationService documentService;
+    private final ThreadPoolExecutor executor;
+    private final List<GenerationJob> jobs = new CopyOnWriteArrayList<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    public GenerationQueue(DocumentGenerationService documentService) {
+        this(documentService,
+             ConfigManager.getInt(CONFIG_THREADS, 1),
+             ConfigManager.getInt(CONFIG_CAPACITE, 20));
+    }
+
+    public GenerationQueue(DocumentGenerationService documentService, int threads, int capacity) {
+        this.documentService = documentService;
+        AtomicInteger threadCount = new AtomicInteger(1);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, capacity)),
+            r -> {
+                Thread t = new Thread(r, "generation-" + threadCount.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            });
+        logger.info("File de generation : {} thread(s), capacite {}", threads, capacity);
+    }
+
+    /**
+     * Service utilisé par les générations de la file
+     */
+    public DocumentGenerationService getDocumentService() {
+        return documentService;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Ajoute une génération à la file
+     *
+     * @param fiche      les données (une copie figée est prise ici)
+     * @param outputFile le fichier de destination
+     * @return le job créé
+     * @throws RejectedExecutionException si la file est pleine
+     */
+    public GenerationJob submit(FicheDto fiche, File outputFile) {
+        GenerationJob job = new GenerationJob(nextId.getAndIncrement(), fiche.snapshot(), outputFile);
+        jobs.add(job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job);
+            logger.warn("File de generation pleine, demande refusee : {}", job.getLabel());
+            throw e;
+        }
+        logger.info("Generation #{} ajoutee a la file : {}", job.getId(), job.getLabel());
+        fireUpdated(job);
+        return job;
+    }
+
+    /**
+     * Exécute un job (thread de génération)
+     */
+    private void run(GenerationJob job) {
+        if (job.isCancelled()) {
+            job.markFinished(GenerationJob.State.CANCELLED, null, 0);
+            fireUpdated(job);
+            return;
+        }
+
+        job.markRunning();
+        fireUpdated(job);
+        long start = System.nanoTime();
+
+        // FAILED tant que la génération n'a pas abouti (une Error termine aussi le job)
+        GenerationJob.State finalState = GenerationJob.State.FAILED;
+        String error = null;
+        StallWatchdog.Tracker tracker = StallWatchdog.trackGeneration("#" + job.getId() + " " + job.getLabel());
+        try {
+            documentService.generateDocument(job.getFiche(), job.getOutputFile(), new GenerationListener() {
+                @Override
+                public void onPhase(GenerationPhase phase) {
+                    job.setPhase(phase);
+                    fireUpdated(job);
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return job.isCancelled();
+                }
+            });
+            finalState = GenerationJob.State.DONE;
+        } catch (CancellationException e) {
+            finalState = GenerationJob.State.CANCELLED;
+        } catch (DocumentGenerationException e) {
+            error = e.hasValidationErrors()
+                ? String.join(", ", e.getValidationErrors().values())
+                : e.getMessage();
+        } catch (RuntimeException e) {
+            logger.error("Erreur inattendue pendant la generation #{}", job.getId(), e);
+            error = e.getMessage();
+        } catch (Error e) {
+            logger.error("Erreur grave pendant la generation #{}", job.getId(), e);
+            error = e.toString();
+            throw e;
+        } finally {
+            tracker.close();
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            job.markFinished(finalState, error, durationMs);
+            logger.info("Generation #{} {} en {} ms : {}", job.getId(),
+                finalState.getDisplayName().toLowerCase(), durationMs, job.getLabel());
+            fireUpdated(job);
+        }
+    }
+
+    /**
+     * Retourne tous les jobs connus (en attente, en cours et terminés), dans l'ordre d'ajout
+     */
+    public List<GenerationJob> getJobs() {
+        return Collections.unmodifiableList(new ArrayList<>(jobs));
+    }
+
+    /**
+     * Nombre de jobs en attente ou en cours
+     */
+    public int getActiveCount() {
+        return (int) jobs.stream().filter(j -> !j.getState().isFinished()).count();
+    }
+
+    /**
+     * Retire de la liste les jobs terminés
+     */
+    public void clearFinished() {
+        jobs.removeIf(j -> j.getState().isFinished());
+    }
+
+    /**
+     * Arrête la file en laissant les jobs déjà acceptés se terminer
+     *
+     * @param timeoutMs délai maximal d'attente
+     * @return true si tous les jobs sont terminés
+     */
+    public boolean shutdown(long timeoutMs) {
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void fireUpdated(GenerationJob job) {
+        for (Listener listener : listeners) {
+            listener.jobUpdated(job);
+        }
+    }
+}
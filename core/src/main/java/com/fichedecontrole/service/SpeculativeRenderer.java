@@ -0,0 +1,167 @@
+package com.fichedecontrole.service;
+
+import com.fichedecontrole.config.ConfigManager;
+import com.fichedecontrole.generator.GenerationListener;
+import com.fichedecontrole.generator.GenerationPhase;
+import com.fichedecontrole.model.FicheDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Génération anticipée pendant la saisie.
+ *
+ * Quand la saisie marque une pause, le formulaire confie une copie figée de la fiche :
+ * ses captures sont encodées et, si elle est valide, son document est produit en mémoire
+ * (voir {@link DocumentGenerationService#prerender}). Seul le dernier document préparé
+ * est gardé, à part du cache des documents et de ses statistiques. Au clic sur
+ * « Générer », la génération trouve le document prêt et n'a plus qu'à l'écrire.
+ * Une seule préparation à la fois, sur un thread de faible priorité : une nouvelle
+ * demande (ou une modification du formulaire) abandonne la précédente.
+ */
+public class SpeculativeRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpeculativeRenderer.class);
+
+    private static final String CONFIG_ACTIVE = "generation.anticipee";
+    private static final String CONFIG_DELAI = "generation.anticipee.delai.ms";
+
+    /**
+     * Préparation en cours, abandonnée par {@link #cancel()}
+     */
+    private static final class Run implements GenerationListener {
+        private volatile boolean cancelled;
+
+        @Override
+        public void onPhase(GenerationPhase phase) {
+            // Sans suivi : la préparation est invisible
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final DocumentGenerationService documentService;
+    private final ExecutorService executor;
+    private final AtomicReference<Run> current = new AtomicReference<>();
+    private final AtomicLong prepared = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+
+    /**
+     * @param documentService le service des générations demandées ensuite
+     */
+    public SpeculativeRenderer(DocumentGenerationService documentService) {
+        this.documentService = documentService;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "generation-anticipee");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * Génération anticipée activée (generation.anticipee)
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigManager.getValue(CONFIG_ACTIVE, "true"));
+    }
+
+    /**
+     * Pause de saisie avant de lancer une préparation (generation.anticipee.delai.ms)
+     */
+    public static int getDelayMs() {
+        return Math.max(100, ConfigManager.getInt(CONFIG_DELAI, 800));
+    }
+
+    /**
+     * Lance la préparation d'une fiche, en abandonnant la précédente
+     *
+     * @param fiche les données (une copie figée est prise ici)
+     * @return true une fois le document prêt, false si la fiche est
+     *         incomplète, la préparation abandonnée ou en échec
+     */
+    public Future<Boolean> submit(FicheDto fiche) {
+        FicheDto snapshot = fiche.snapshot();
+        Run run = new Run();
+        abandon(current.getAndSet(run));
+        try {
+            return executor.submit(() -> execute(run, snapshot));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    /**
+     * Abandonne la préparation en cours (formulaire modifié)
+     */
+    public void cancel() {
+        abandon(current.getAndSet(null));
+    }
+
+    /**
+     * Abandonne la préparation en cours et arrête le thread
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Documents préparés jusqu'au bout
+     */
+    public long getPrepared() {
+        return prepared.get();
+    }
+
+    /**
+     * Préparations abandonnées en cours de route
+     */
+    public long getAbandoned() {
+        return abandoned.get();
+    }
+
+    private boolean execute(Run run, FicheDto fiche) {
+        if (run.isCancelled()) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            boolean ready = documentService.prerender(fiche, run);
+            if (ready) {
+                prepared.incrementAndGet();
+                logger.debug("Document anticipe en {} ms : {}", (System.nanoTime() - start) / 1_000_000,
+                    fiche.getNumFormulaire());
+            }
+            return ready;
+        } catch (CancellationException e) {
+            abandoned.incrementAndGet();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            // Sans conséquence : la génération demandée refera le travail et signalera l'erreur
+            logger.debug("Generation anticipee en echec : {}", e.getMessage());
+            return false;
+        } finally {
+            current.compareAndSet(run, null);
+        }
+    }
+
+    private static void abandon(Run run) {
+        if (run != null) {
+            run.cancelled = true;
+        }
+    }
+}
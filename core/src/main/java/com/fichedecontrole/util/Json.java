@@ -0,0 +1,280 @@
+package com.fichedecontrole.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lecture et écriture JSON minimales, sans bibliothèque externe (classe utilitaire finale).
+ *
+ * Lecture d'une valeur complète : objets en {@code Map<String, Object>} (ordre conservé),
+ * tableaux en {@code List<Object>}, chaînes, nombres ({@code Long} ou {@code Double}),
+ * booléens et null. Prévu pour des documents de taille raisonnable (une fiche, une ligne).
+ */
+public final class Json {
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation
+     */
+    private Json() {
+        throw new UnsupportedOperationException("Classe utilitaire - ne peut pas être instanciee");
+    }
+
+    /**
+     * Analyse un document JSON complet
+     *
+     * @throws IOException si le JSON est mal formé
+     */
+    public static Object parse(String json) throws IOException {
+        Parser parser = new Parser(json);
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.pos < json.length()) {
+            throw parser.error("contenu inattendu apres la valeur");
+        }
+        return value;
+    }
+
+    /**
+     * Analyse un objet JSON
+     *
+     * @throws IOException si le JSON est mal formé ou n'est pas un objet
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String json) throws IOException {
+        Object value = parse(json);
+        if (!(value instanceof Map)) {
+            throw new IOException("JSON invalide : objet attendu");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * Chaîne JSON entre guillemets, caractères spéciaux échappés
+     */
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        try {
+            writeString(sb, value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Impossible avec un StringBuilder
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Écrit une chaîne JSON (ou null) sans copie intermédiaire
+     */
+    public static void writeString(Appendable out, String value) throws IOException {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escaped;
+            switch (c) {
+                case '"':
+                    escaped = "\\\"";
+                    break;
+                case '\\':
+                    escaped = "\\\\";
+                    break;
+                case '\n':
+                    escaped = "\\n";
+                    break;
+                case '\r':
+                    escaped = "\\r";
+                    break;
+                case '\t':
+                    escaped = "\\t";
+                    break;
+                default:
+                    escaped = c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+            }
+            if (escaped != null) {
+                out.append(value, start, i).append(escaped);
+                start = i + 1;
+            }
+        }
+        out.append(value, start, value.length()).append('"');
+    }
+
+    /**
+     * Analyseur récursif d'une valeur JSON
+     */
+    private static final class Parser {
+        private final String json;
+        private int pos;
+
+        Parser(String json) {
+            this.json = json;
+        }
+
+        Object readValue() throws IOException {
+            skipWhitespace();
+            if (pos >= json.length()) {
+                throw error("valeur attendue");
+            }
+            char c = json.charAt(pos);
+            switch (c) {
+                case '{':
+                    return readObject();
+                case '[':
+                    return readArray();
+                case '"':
+                    return readString();
+                default:
+                    return readLiteral();
+            }
+        }
+
+        private Map<String, Object> readObject() throws IOException {
+            Map<String, Object> values = new LinkedHashMap<>();
+            expect('{');
+            if (!consume('}')) {
+                do {
+                    skipWhitespace();
+                    String key = readString();
+                    expect(':');
+                    values.put(key, readValue());
+                } while (consume(','));
+                expect('}');
+            }
+            return values;
+        }
+
+        private List<Object> readArray() throws IOException {
+            List<Object> items = new ArrayList<>();
+            expect('[');
+            if (!consume(']')) {
+                do {
+                    items.add(readValue());
+                } while (consume(','));
+                expect(']');
+            }
+            return items;
+        }
+
+        private Object readLiteral() throws IOException {
+            int start = pos;
+            while (pos < json.length() && "{}[],: \t\r\n".indexOf(json.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = json.substring(start, pos);
+            switch (literal) {
+                case "null":
+                    return null;
+                case "true":
+                    return Boolean.TRUE;
+                case "false":
+                    return Boolean.FALSE;
+                default:
+                    break;
+            }
+            try {
+                if (literal.matches("-?\\d{1,18}")) {
+                    return Long.parseLong(literal);
+                }
+                if (literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) {
+                    return Double.parseDouble(literal);
+                }
+            } catch (NumberFormatException e) {
+                // Signalé ci-dessous
+            }
+            throw error("valeur invalide '" + literal + "'");
+        }
+
+        private String readString() throws IOException {
+            expect('"');
+            StringBuilder sb = null;
+            int start = pos;
+            while (pos < json.length()) {
+                char c = json.charAt(pos);
+                if (c == '"') {
+                    String value = sb == null ? json.substring(start, pos) : sb.append(json, start, pos).toString();
+                    pos++;
+                    return value;
+                }
+                if (c != '\\') {
+                    pos++;
+                    continue;
+                }
+                // Séquence d'échappement : copie de ce qui précède puis décodage
+                if (sb == null) {
+                    sb = new StringBuilder();
+                }
+                sb.append(json, start, pos);
+                pos++;
+                if (pos >= json.length()) {
+                    break;
+                }
+                char escaped = json.charAt(pos++);
+                switch (escaped) {
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'u':
+                        if (pos + 4 > json.length()) {
+                            throw error("sequence \\u incomplete");
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("sequence \\u invalide");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        sb.append(escaped);
+                }
+                start = pos;
+            }
+            throw error("chaine non terminee");
+        }
+
+        private void expect(char c) throws IOException {
+            if (!consume(c)) {
+                throw error("'" + c + "' attendu");
+            }
+        }
+
+        private boolean consume(char c) {
+            skipWhitespace();
+            if (pos < json.length() && json.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void skipWhitespace() {
+            while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        IOException error(String message) {
+            return new IOException("JSON invalide (position " + pos + ") : " + message);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.fichedecontrole.util;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Classe utilitaire pour mesurer les temps de démarrage
+ * depuis le lancement du processus (JVM comprise)
+ */
+public final class StartupClock {
+
+    private static final Instant PROCESS_START =
+        ProcessHandle.current().info().startInstant().orElse(Instant.now());
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation
+     */
+    private StartupClock() {
+        throw new UnsupportedOperationException("Classe utilitaire - ne peut pas être instanciée");
+    }
+
+    /**
+     * Millisecondes écoulées depuis le lancement du processus
+     */
+    public static long elapsedMs() {
+        return Duration.between(PROCESS_START, Instant.now()).toMillis();
+    }
+}
@@ -0,0 +1,77 @@
+package com.fichedecontrole;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipFile;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour BatchMain (génération en ligne de commande)
+ */
+class BatchMainTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final String FICHE_VALIDE = String.join("\n",
+        "contratJuridique=CJ123",
+        "numFormulaire=F001",
+        "typeDemande=O2",
+        "risque=FSS",
+        "natureDemande=CREATION",
+        "elements=PG, PC",
+        "dateEffet=01/01/2025",
+        "dispositif=DISPO",
+        "raisonSocial=SOCIETE",
+        "parametreur=PARAMETREUR",
+        "formules=TPSS",
+        "tauxChargement=N/A",
+        "structure=STRUCTURE",
+        "listePC=QU551001",
+        "capture.COTISATIONS_FORMULAIRE=cotisations.png");
+
+    @Test
+    void testRun_validAndInvalidFiches_shouldGenerateValidOneAndReturnFailureCode() throws Exception {
+        ImageIO.write(new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB), "png",
+            tempDir.resolve("cotisations.png").toFile());
+        Files.writeString(tempDir.resolve("a_valide.properties"), FICHE_VALIDE, StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("b_invalide.properties"),
+            FICHE_VALIDE.replace("contratJuridique=CJ123", "contratJuridique="), StandardCharsets.UTF_8);
+        File sortie = tempDir.resolve("sortie").toFile();
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+
+        int code = BatchMain.run(new String[]{"-o", sortie.getPath(), tempDir.toString()},
+            new PrintStream(console, true, "UTF-8"));
+
+        assertThat(code).isEqualTo(BatchMain.EXIT_ECHEC);
+        File document = new File(sortie, "F001 - CJ123 - QU551001.docx");
+        assertThat(document).exists();
+        try (ZipFile zip = new ZipFile(document)) {
+            assertThat(zip.getEntry("word/media/image1.png")).isNotNull();
+        }
+        assertThat(console.toString("UTF-8"))
+            .contains("ECHEC")
+            .contains("b_invalide.properties")
+            .contains("2 fiche(s) : 1 generee(s), 1 en echec");
+    }
+
+    @Test
+    void testRun_noArguments_shouldReturnUsageCode() throws Exception {
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+
+        int code = BatchMain.run(new String[0], new PrintStream(console, true, "UTF-8"));
+
+        assertThat(code).isEqualTo(BatchMain.EXIT_USAGE);
+        assertThat(console.toString("UTF-8")).contains("Usage");
+    }
+}
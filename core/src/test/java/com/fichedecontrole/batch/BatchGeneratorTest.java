@@ -0,0 +1,73 @@
+package com.fichedecontrole.batch;
+
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.NatureDemande;
+import com.fichedecontrole.model.Risque;
+import com.fichedecontrole.model.TypeDemande;
+import com.fichedecontrole.service.DocumentGenerationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour BatchGenerator et BatchStatistics
+ */
+class BatchGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static BatchGenerator.FicheSource source(String label, boolean valide) {
+        return new BatchGenerator.FicheSource() {
+            @Override
+            public String getLabel() {
+                return label;
+            }
+
+            @Override
+            public FicheDto load() throws IOException {
+                if (!valide) {
+                    throw new IOException("fiche illisible");
+                }
+                return new FicheDto("CJ" + label, "F001", TypeDemande.O2, Risque.FSS, NatureDemande.CREATION,
+                    Arrays.asList("PG", "PC"), "01/01/2025", "DISPO", "SOCIETE", "PARAMETREUR",
+                    Arrays.asList("TPSS"), "N/A", "STRUCTURE", "", new String[]{"QU551001"});
+            }
+        };
+    }
+
+    @Test
+    void testGenerateAll_parallel_shouldIsolateFailuresAndKeepOrder() {
+        List<BatchGenerator.FicheSource> sources = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            sources.add(source(String.valueOf(i), i % 4 != 3));
+        }
+        BatchGenerator generator = new BatchGenerator(new DocumentGenerationService(), tempDir.toFile(), 4, true);
+
+        List<BatchResult> results = generator.generateAll(sources);
+
+        assertThat(results).extracting(BatchResult::getSource)
+            .containsExactlyElementsOf(sources.stream().map(BatchGenerator.FicheSource::getLabel)
+                .collect(Collectors.toList()));
+        assertThat(results).filteredOn(r -> !r.isSuccess()).extracting(BatchResult::getSource)
+            .containsExactly("3", "7", "11");
+        assertThat(results).filteredOn(BatchResult::isSuccess)
+            .allSatisfy(r -> assertThat(r.getOutput()).exists());
+    }
+
+    @Test
+    void testStatistics_shouldComputeNearestRankPercentiles() {
+        long[] durees = {10, 20, 30, 40, 50, 60, 70, 80, 90, 100};
+
+        assertThat(BatchStatistics.percentile(durees, 50)).isEqualTo(50);
+        assertThat(BatchStatistics.percentile(durees, 95)).isEqualTo(100);
+    }
+}
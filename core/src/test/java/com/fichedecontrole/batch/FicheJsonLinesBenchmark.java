@@ -0,0 +1,52 @@
+package com.fichedecontrole.batch;
+
+import com.fichedecontrole.model.FicheDto;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Mesure du débit d'écriture et de lecture JSON Lines (Mo/s), captures intégrées.
+ *
+ * Usage : {@code gradlew :core:benchmarkJsonLines [-Pfiches=20000]}
+ */
+public final class FicheJsonLinesBenchmark {
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation
+     */
+    private FicheJsonLinesBenchmark() {
+        throw new UnsupportedOperationException("Classe utilitaire - ne peut pas être instanciee");
+    }
+
+    public static void main(String[] args) throws Exception {
+        int fiches = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        FicheDto fiche = FicheJsonLinesTest.createFiche(1);
+        Path file = Files.createTempFile("benchmark", FicheJsonLines.EXTENSION);
+        try {
+            long start = System.nanoTime();
+            try (FicheJsonLines.Writer writer = FicheJsonLines.Writer.create(file, true)) {
+                for (int i = 0; i < fiches; i++) {
+                    writer.write(fiche);
+                }
+            }
+            long writeNanos = System.nanoTime() - start;
+            long size = Files.size(file);
+
+            start = System.nanoTime();
+            int read = 0;
+            try (FicheJsonLines.Reader reader = FicheJsonLines.Reader.open(file)) {
+                while (reader.read() != null) {
+                    read++;
+                }
+            }
+            long readNanos = System.nanoTime() - start;
+
+            System.out.printf("%d fiche(s), %.1f Mo%n", read, size / 1e6);
+            System.out.printf("Ecriture : %.1f Mo/s%n", size / 1e6 / (writeNanos / 1e9));
+            System.out.printf("Lecture  : %.1f Mo/s%n", size / 1e6 / (readNanos / 1e9));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
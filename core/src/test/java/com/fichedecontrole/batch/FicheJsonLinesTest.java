@@ -0,0 +1,82 @@
+package com.fichedecontrole.batch;
+
+import com.fichedecontrole.model.CaptureCategory;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.NatureDemande;
+import com.fichedecontrole.model.Risque;
+import com.fichedecontrole.model.ScreenCapture;
+import com.fichedecontrole.model.TypeDemande;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour FicheJsonLines (format d'échange une fiche par ligne)
+ */
+class FicheJsonLinesTest {
+
+    @TempDir
+    Path tempDir;
+
+    static FicheDto createFiche(int n) {
+        BufferedImage image = new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(3, 4, 0x00FF00);
+        FicheDto fiche = new FicheDto("CJ" + n, String.format("F%03d", n), TypeDemande.O2, Risque.FSS,
+            NatureDemande.CREATION, Arrays.asList("Garanties", "Cotisations"), "01/01/2025", null,
+            "Societe \"A\" ; B\\C", null, Collections.singletonList("Formule 1"), "12,5",
+            "STRUCTURE", null, new String[]{"QU551001", "QU551002"});
+        fiche.setCaptures(Collections.singletonList(new ScreenCapture(CaptureCategory.TEST_ADHESION, image, 2)));
+        return fiche;
+    }
+
+    @Test
+    void testWriteThenRead_embeddedAndReferencedCaptures_shouldRestoreFiche() throws Exception {
+        for (boolean embed : new boolean[]{true, false}) {
+            Path file = tempDir.resolve("fiches-" + embed + FicheJsonLines.EXTENSION);
+            try (FicheJsonLines.Writer writer = FicheJsonLines.Writer.create(file, embed)) {
+                writer.write(createFiche(1));
+                writer.write(createFiche(2));
+            }
+
+            try (FicheJsonLines.Reader reader = FicheJsonLines.Reader.open(file)) {
+                FicheDto first = reader.read();
+                assertThat(first.getContratJuridique()).isEqualTo("CJ1");
+                assertThat(first.getTypeDemande()).isEqualTo(TypeDemande.O2);
+                assertThat(first.getElements()).containsExactly("Garanties", "Cotisations");
+                assertThat(first.getRaisonSocial()).isEqualTo("Societe \"A\" ; B\\C");
+                assertThat(first.getDispositif()).isNull();
+                assertThat(first.getListePC()).containsExactly("QU551001", "QU551002");
+
+                ScreenCapture capture = first.getCaptures().get(0);
+                assertThat(capture.getCategory()).isEqualTo(CaptureCategory.TEST_ADHESION);
+                assertThat(capture.getIndex()).isEqualTo(2);
+                assertThat(capture.getPngData()).isEqualTo(createFiche(1).getCaptures().get(0).getPngData());
+                assertThat(capture.getImage().getRGB(3, 4) & 0xFFFFFF).isEqualTo(0x00FF00);
+
+                assertThat(reader.read().getNumFormulaire()).isEqualTo("F002");
+                assertThat(reader.read()).isNull();
+            }
+        }
+        assertThat(tempDir.resolve("fiches-false_captures").resolve("capture-2.png")).exists();
+    }
+
+    @Test
+    void testRead_malformedLine_shouldReportLineAndContinue() throws Exception {
+        String content = "{\"contratJuridique\":\"CJ1\"}\n\n{\"risque\":\"INCONNU\"}\n{\"numFormulaire\":\"F003\"}\n";
+        try (FicheJsonLines.Reader reader = new FicheJsonLines.Reader(new StringReader(content), tempDir)) {
+            assertThat(reader.read().getContratJuridique()).isEqualTo("CJ1");
+            assertThatThrownBy(reader::read)
+                .isInstanceOf(FicheJsonLines.InvalidLineException.class)
+                .hasMessageStartingWith("ligne 3 : ");
+            assertThat(reader.read().getNumFormulaire()).isEqualTo("F003");
+            assertThat(reader.getLineNumber()).isEqualTo(4);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.fichedecontrole.batch;
+
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.NatureDemande;
+import com.fichedecontrole.model.Risque;
+import com.fichedecontrole.model.TypeDemande;
+import com.fichedecontrole.service.DocumentGenerationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour GenerationProcessor (génération en flux avec contre-pression)
+ */
+class GenerationProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static FicheDto createFiche(int n) {
+        return new FicheDto("CJ" + n, String.format("F%03d", n), TypeDemande.O2, Risque.FSS,
+            NatureDemande.CREATION, new ArrayList<>(), "01/01/2025", null, null, null,
+            new ArrayList<>(), null, "STRUCTURE", null, new String[]{"QU551" + String.format("%03d", n)});
+    }
+
+    /**
+     * Documents terminés (les fichiers temporaires en cours d'écriture sont ignorés)
+     */
+    private int documents() {
+        return tempDir.toFile().list((dir, name) -> name.endsWith(".docx")).length;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("delai depasse").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void testSubscribe_publisherOfFiches_shouldPublishOneResultPerFicheAndComplete() throws Exception {
+        GenerationProcessor processor = new GenerationProcessor(
+            new BatchGenerator(new DocumentGenerationService(), tempDir.toFile(), 2, true), 2, Long.MAX_VALUE);
+        List<BatchResult> results = new CopyOnWriteArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        processor.subscribe(new Flow.Subscriber<BatchResult>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(BatchResult item) {
+                results.add(item);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail("Erreur inattendue", throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+
+        try (SubmissionPublisher<FicheDto> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(processor);
+            for (int i = 1; i <= 6; i++) {
+                publisher.submit(createFiche(i));
+            }
+            FicheDto invalid = createFiche(7);
+            invalid.setNumFormulaire("");
+            publisher.submit(invalid);
+        }
+
+        assertThat(completed.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(results).hasSize(7);
+        assertThat(results).filteredOn(BatchResult::isSuccess).hasSize(6)
+            .allSatisfy(r -> assertThat(r.getSize()).isPositive());
+        assertThat(results).filteredOn(r -> !r.isSuccess()).singleElement()
+            .satisfies(r -> assertThat(r.getError()).startsWith("validation"));
+    }
+
+    @Test
+    void testSubscribe_noDownstreamDemand_shouldStopRequestingAtInFlightLimit() throws Exception {
+        GenerationProcessor processor = new GenerationProcessor(
+            new BatchGenerator(new DocumentGenerationService(), tempDir.toFile(), 2, true), 2, Long.MAX_VALUE);
+        AtomicLong requestedFromSource = new AtomicLong();
+        processor.onSubscribe(new Flow.Subscription() {
+            private int next = 1;
+
+            @Override
+            public void request(long n) {
+                requestedFromSource.addAndGet(n);
+                for (long i = 0; i < n; i++) {
+                    processor.onNext(createFiche(next++));
+                }
+            }
+
+            @Override
+            public void cancel() {
+                // Source infinie
+            }
+        });
+        List<Flow.Subscription> subscription = new CopyOnWriteArrayList<>();
+        List<BatchResult> results = new CopyOnWriteArrayList<>();
+        processor.subscribe(new Flow.Subscriber<BatchResult>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription.add(s);
+            }
+
+            @Override
+            public void onNext(BatchResult item) {
+                results.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail("Erreur inattendue", throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                fail("Source infinie : pas de fin attendue");
+            }
+        });
+
+        // Sans demande de l'abonné : 2 fiches générées puis la source n'est plus sollicitée
+        await(() -> documents() == 2);
+        Thread.sleep(200);
+        assertThat(requestedFromSource.get()).isEqualTo(2);
+        assertThat(processor.getInFlight()).isEqualTo(2);
+        assertThat(results).isEmpty();
+
+        // Un résultat remis libère une place : une fiche de plus est demandée
+        subscription.get(0).request(1);
+        await(() -> results.size() == 1 && documents() == 3);
+        assertThat(requestedFromSource.get()).isEqualTo(3);
+        subscription.get(0).cancel();
+        assertThat(results).hasSize(1);
+    }
+}
@@ -0,0 +1,165 @@
+package com.fichedecontrole.batch;
+
+import com.fichedecontrole.generator.GenerationListener;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.service.DocumentGenerationException;
+import com.fichedecontrole.service.DocumentGenerationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour HotFolder (dossier de dépôt surveillé)
+ */
+class HotFolderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final String FICHE = String.join("\n",
+        "contratJuridique=CJ%d",
+        "numFormulaire=F%03d",
+        "typeDemande=O2",
+        "risque=FSS",
+        "natureDemande=CREATION",
+        "dateEffet=01/01/2025",
+        "structure=STRUCTURE",
+        "listePC=QU551%03d");
+
+    private static void write(Path file, int n) throws Exception {
+        Files.writeString(file, String.format(FICHE, n, n, n), StandardCharsets.UTF_8);
+    }
+
+    private static void awaitCount(Path dir, String glob, int expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (System.currentTimeMillis() < deadline) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, glob)) {
+                int count = 0;
+                for (Path ignored : files) {
+                    count++;
+                }
+                if (count >= expected) {
+                    return;
+                }
+            }
+            Thread.sleep(50);
+        }
+        fail("Delai depasse en attendant " + expected + " fichier(s) " + glob + " dans " + dir);
+    }
+
+    @Test
+    void testStart_pendingInterruptedAndNewFiches_shouldArchiveEachAndReportFailures() throws Exception {
+        Path inbox = Files.createDirectory(tempDir.resolve("depot"));
+        Path outbox = Files.createDirectory(tempDir.resolve("sortie"));
+        write(inbox.resolve("a.properties"), 1);                             // déposée pendant l'arrêt
+        write(inbox.resolve("b.properties" + HotFolder.PROCESSING_SUFFIX), 2); // interrompue
+        Files.writeString(inbox.resolve("c.properties"), "numFormulaire=F003", StandardCharsets.UTF_8);
+
+        try (HotFolder hotFolder = new HotFolder(inbox,
+                new BatchGenerator(new DocumentGenerationService(), outbox.toFile(), 4, true), 100, 200)) {
+            hotFolder.start();
+            for (int i = 10; i < 40; i++) {
+                write(inbox.resolve("lot" + i + ".properties"), i);
+            }
+
+            awaitCount(inbox.resolve(HotFolder.DONE_DIR), "*.properties", 32);
+            awaitCount(inbox.resolve(HotFolder.FAILED_DIR), "*" + HotFolder.REPORT_SUFFIX, 1);
+        }
+
+        assertThat(inbox.resolve(HotFolder.DONE_DIR).resolve("b.properties")).exists();
+        assertThat(inbox.resolve(HotFolder.FAILED_DIR).resolve("c.properties")).exists();
+        assertThat(Files.readString(inbox.resolve(HotFolder.FAILED_DIR).resolve("c.properties" + HotFolder.REPORT_SUFFIX)))
+            .contains("validation");
+        assertThat(outbox.resolve("F002 - CJ2 - QU551002.docx")).exists();
+        try (Stream<Path> files = Files.list(outbox)) {
+            assertThat(files.count()).isEqualTo(32);
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(inbox, "*.properties*")) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void testStart_burstAndRedroppedFiche_shouldBoundInFlightAndKeepSameOutputName() throws Exception {
+        Path inbox = Files.createDirectory(tempDir.resolve("depot"));
+        Path outbox = Files.createDirectory(tempDir.resolve("sortie"));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        DocumentGenerationService slowService = new DocumentGenerationService() {
+            @Override
+            public void generateDocument(FicheDto fiche, File outputFile, GenerationListener listener)
+                    throws DocumentGenerationException {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(30);
+                    super.generateDocument(fiche, outputFile, listener);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        };
+
+        try (HotFolder hotFolder = new HotFolder(inbox,
+                new BatchGenerator(slowService, outbox.toFile(), 2, true), 100, 200)) {
+            for (int i = 0; i < 12; i++) {
+                write(inbox.resolve("lot" + i + ".properties"), i);
+            }
+            hotFolder.start();
+            awaitCount(inbox.resolve(HotFolder.DONE_DIR), "*.properties", 12);
+
+            // Même fiche redéposée : même document, remplacé
+            write(inbox.resolve("lot0.properties"), 0);
+            awaitCount(inbox.resolve(HotFolder.DONE_DIR), "*.properties*", 13);
+        }
+
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+        try (Stream<Path> files = Files.list(outbox)) {
+            assertThat(files.count()).isEqualTo(12);
+        }
+        assertThat(outbox.resolve("F000 - CJ0 - QU551000.docx")).exists();
+    }
+
+    @Test
+    void testStart_differentFichesWithSameDocumentName_shouldFailTheSecondInsteadOfOverwriting() throws Exception {
+        Path inbox = Files.createDirectory(tempDir.resolve("depot"));
+        Path outbox = Files.createDirectory(tempDir.resolve("sortie"));
+        write(inbox.resolve("a.properties"), 1);
+        // Même NumFormulaire, CJ et PC, contenu différent
+        Files.writeString(inbox.resolve("b.properties"),
+            String.format(FICHE, 1, 1, 1).replace("STRUCTURE", "AUTRE"), StandardCharsets.UTF_8);
+
+        try (HotFolder hotFolder = new HotFolder(inbox,
+                new BatchGenerator(new DocumentGenerationService(), outbox.toFile(), 2, true), 100, 200)) {
+            hotFolder.start();
+            awaitCount(inbox.resolve(HotFolder.DONE_DIR), "*.properties", 1);
+            awaitCount(inbox.resolve(HotFolder.FAILED_DIR), "*" + HotFolder.REPORT_SUFFIX, 1);
+
+            // La fiche qui a produit le document peut être redéposée
+            String first;
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(inbox.resolve(HotFolder.DONE_DIR))) {
+                first = files.iterator().next().getFileName().toString();
+            }
+            Files.copy(inbox.resolve(HotFolder.DONE_DIR).resolve(first), inbox.resolve(first));
+            awaitCount(inbox.resolve(HotFolder.DONE_DIR), "*.properties*", 2);
+        }
+
+        try (DirectoryStream<Path> reports = Files.newDirectoryStream(inbox.resolve(HotFolder.FAILED_DIR),
+                "*" + HotFolder.REPORT_SUFFIX)) {
+            assertThat(Files.readString(reports.iterator().next())).contains("deja produit par une autre fiche");
+        }
+        try (Stream<Path> files = Files.list(outbox)) {
+            assertThat(files.count()).isEqualTo(1);
+        }
+    }
+}
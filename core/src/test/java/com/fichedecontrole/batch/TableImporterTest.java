@@ -0,0 +1,87 @@
+package com.fichedecontrole.batch;
+
+import com.fichedecontrole.service.DocumentGenerationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour TableImporter (import CSV et XLSX lu en flux)
+ */
+class TableImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<BatchResult> importer(File table) throws IOException {
+        BatchGenerator.Run run = new BatchGenerator(new DocumentGenerationService(),
+            tempDir.toFile(), 2, false).start();
+        TableImporter.submit(table, run);
+        return run.finish();
+    }
+
+    @Test
+    void testSubmit_csvWithInvalidRows_shouldReportErrorsPerRowAndGenerateValidOnes() throws Exception {
+        Path csv = tempDir.resolve("fiches.csv");
+        Files.writeString(csv, String.join("\r\n",
+            "\uFEFFCJ;N° Formulaire;Type;Risque;Nature;Date d'effet;Produits cibles;Commentaire",
+            "CJ1;F001;O2;FSS;Création;01/01/2025;\"QU551001, QU551002\";a",
+            "CJ2;F002;O2;FSS;CREATION;2025-01-01;QU551003;b",
+            "",
+            "CJ3;F003;INCONNU;FSS;CREATION;01/01/2025;QU551004;c"), StandardCharsets.UTF_8);
+
+        List<BatchResult> results = importer(csv.toFile());
+
+        assertThat(results).extracting(BatchResult::getSource)
+            .containsExactly("fiches.csv ligne 2", "fiches.csv ligne 3", "fiches.csv ligne 5");
+        assertThat(results.get(0).isSuccess()).isTrue();
+        assertThat(results.get(0).getOutput()).hasName("F001 - CJ1 - QU551001 QU551002.docx").exists();
+        assertThat(results.get(1).getError()).startsWith("validation : ");
+        assertThat(results.get(2).getError()).contains("typeDemande", "INCONNU");
+    }
+
+    @Test
+    void testSubmit_xlsxWithSharedStringsAndDateSerial_shouldGenerateFiche() throws Exception {
+        File xlsx = tempDir.resolve("fiches.xlsx").toFile();
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(xlsx))) {
+            entry(zip, "xl/sharedStrings.xml", "<sst><si><t>Contrat juridique</t></si>"
+                + "<si><r><t>Numero</t></r><r><t> formulaire</t></r></si><si><t>Date effet</t></si>"
+                + "<si><t>PC</t></si><si><t>CJ9</t></si><si><t>QU559999</t></si></sst>");
+            entry(zip, "xl/worksheets/sheet1.xml", "<worksheet><sheetData>"
+                + "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"B1\" t=\"s\"><v>1</v></c>"
+                + "<c r=\"C1\" t=\"s\"><v>2</v></c><c r=\"E1\" t=\"s\"><v>3</v></c>"
+                + "<c r=\"F1\" t=\"inlineStr\"><is><t>Nature</t></is></c>"
+                + "<c r=\"G1\" t=\"inlineStr\"><is><t>Type</t></is></c>"
+                + "<c r=\"H1\" t=\"inlineStr\"><is><t>Risque</t></is></c></row>"
+                + "<row r=\"2\"><c r=\"A2\" t=\"s\"><v>4</v></c><c r=\"B2\" t=\"inlineStr\"><is><t>F009</t></is></c>"
+                + "<c r=\"C2\"><v>45658</v></c><c r=\"E2\" t=\"s\"><v>5</v></c>"
+                + "<c r=\"F2\" t=\"inlineStr\"><is><t>Modification</t></is></c>"
+                + "<c r=\"G2\" t=\"inlineStr\"><is><t>E-Contractu</t></is></c>"
+                + "<c r=\"H2\" t=\"inlineStr\"><is><t>Prev</t></is></c></row>"
+                + "</sheetData></worksheet>");
+        }
+
+        List<BatchResult> results = importer(xlsx);
+
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).isSuccess()).as(String.valueOf(results.get(0).getError())).isTrue();
+        assertThat(results.get(0).getOutput()).hasName("F009 - CJ9 - QU559999.docx");
+    }
+
+    private static void entry(ZipOutputStream zip, String name, String xml) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(xml.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}
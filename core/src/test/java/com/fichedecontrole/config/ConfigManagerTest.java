@@ -38,4 +38,16 @@ class ConfigManagerTest {
         String result = ConfigManager.getValue("key.does.not.exist", "default");
         assertThat(result).isEqualTo("default");
     }
+
+    @Test
+    void testGetInt_nonExistingKey_shouldReturnDefault() {
+        int result = ConfigManager.getInt("key.does.not.exist", 42);
+        assertThat(result).isEqualTo(42);
+    }
+
+    @Test
+    void testGetInt_nonNumericValue_shouldReturnDefault() {
+        int result = ConfigManager.getInt("parametreur.0", 7);
+        assertThat(result).isEqualTo(7);
+    }
 }
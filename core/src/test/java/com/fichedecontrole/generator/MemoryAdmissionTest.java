@@ -0,0 +1,101 @@
+package com.fichedecontrole.generator;
+
+import com.fichedecontrole.model.CaptureCategory;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.ScreenCapture;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour MemoryAdmission (budget mémoire des générations simultanées)
+ */
+class MemoryAdmissionTest {
+
+    private static Thread acquireLater(MemoryAdmission admission, long bytes, List<Long> admitted) {
+        Thread thread = new Thread(() -> {
+            try (MemoryAdmission.Permit permit = admission.acquire(bytes, GenerationListener.NONE)) {
+                admitted.add(permit.getBytes());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitWaiting(MemoryAdmission admission, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (admission.getWaiting() != expected) {
+            assertThat(System.currentTimeMillis()).as("delai depasse").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void testAcquire_overBudget_shouldWaitInArrivalOrderThenAdmit() throws Exception {
+        MemoryAdmission admission = new MemoryAdmission(100);
+        List<Long> admitted = new CopyOnWriteArrayList<>();
+
+        MemoryAdmission.Permit first = admission.acquire(60, GenerationListener.NONE);
+        Thread large = acquireLater(admission, 60, admitted);
+        awaitWaiting(admission, 1);
+        Thread small = acquireLater(admission, 10, admitted); // tiendrait, mais arrive après
+        awaitWaiting(admission, 2);
+        assertThat(admission.getReservedBytes()).isEqualTo(60);
+        assertThat(admitted).isEmpty();
+
+        first.close();
+        large.join(10_000);
+        small.join(10_000);
+        assertThat(admitted).containsExactlyInAnyOrder(60L, 10L);
+        assertThat(admission.getReservedBytes()).isZero();
+
+        // Plus lourde que le budget : passe seule
+        try (MemoryAdmission.Permit huge = admission.acquire(500, GenerationListener.NONE)) {
+            assertThat(admission.getRunning()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testAcquire_cancelledWhileWaiting_shouldThrowAndLeaveQueue() throws Exception {
+        FicheDto fiche = new FicheDto();
+        long textOnly = MemoryAdmission.estimate(fiche, 1000);
+        fiche.setCaptures(Collections.singletonList(
+            new ScreenCapture(CaptureCategory.TEST_ADHESION, new byte[]{1}, 3840, 2160, 1)));
+        // Capture reçue en PNG : seul le PNG est compté, pas l'image décodée
+        assertThat(MemoryAdmission.estimate(fiche, 1000) - textOnly).isEqualTo(1);
+        ScreenCapture decoded = new ScreenCapture(CaptureCategory.TEST_ADHESION,
+            new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB), 1);
+        FicheDto withImage = new FicheDto();
+        withImage.setCaptures(Collections.singletonList(decoded));
+        assertThat(MemoryAdmission.estimate(withImage, 1000) - textOnly)
+            .isEqualTo(decoded.getPngData().length + 100L * 50 * 4);
+
+        MemoryAdmission admission = new MemoryAdmission(textOnly);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        try (MemoryAdmission.Permit running = admission.acquire(textOnly, GenerationListener.NONE)) {
+            cancelled.set(true);
+            assertThatThrownBy(() -> admission.acquire(textOnly, new GenerationListener() {
+                @Override
+                public void onPhase(GenerationPhase phase) {
+                    // Sans suivi
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return cancelled.get();
+                }
+            })).isInstanceOf(CancellationException.class);
+            assertThat(admission.getWaiting()).isZero();
+        }
+        assertThat(admission.getRunning()).isZero();
+    }
+}
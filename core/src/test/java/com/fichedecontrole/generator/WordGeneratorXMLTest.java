@@ -0,0 +1,175 @@
+package com.fichedecontrole.generator;
+
+import com.fichedecontrole.model.CaptureCategory;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.NatureDemande;
+import com.fichedecontrole.model.Risque;
+import com.fichedecontrole.model.ScreenCapture;
+import com.fichedecontrole.model.TypeDemande;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour WordGeneratorXML
+ */
+class WordGeneratorXMLTest {
+
+    private WordGeneratorXML generator;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        generator = new WordGeneratorXML();
+    }
+
+    private static FicheDto createFiche() {
+        return new FicheDto("CJ123", "F001", TypeDemande.O2, Risque.FSS, NatureDemande.CREATION,
+            Arrays.asList("PG", "PC"), "01/01/2025", "DISPO", "SOCIETE", "PARAMETREUR",
+            Arrays.asList("TPSS"), "N/A", "STRUCTURE", "", new String[]{"QU551001"});
+    }
+
+    @Test
+    void testGenerer_shouldWriteDocxAndNotifyPhasesInOrder() throws Exception {
+        File output = tempDir.resolve("fiche.docx").toFile();
+        List<GenerationPhase> phases = new ArrayList<>();
+
+        generator.genererFicheDeControle(createFiche(), output, phases::add);
+
+        assertThat(phases).containsExactly(GenerationPhase.values());
+        try (ZipFile zip = new ZipFile(output)) {
+            assertThat(zip.getEntry("word/document.xml")).isNotNull();
+        }
+    }
+
+    @Test
+    void testGenerer_toOutputStream_shouldWriteCompleteDocxAndLeaveStreamOpen() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                throw new AssertionError("Le flux de l'appelant ne doit pas etre ferme");
+            }
+        };
+
+        generator.genererFicheDeControle(createFiche(), out, GenerationListener.NONE);
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                names.add(entry.getName());
+            }
+        }
+        assertThat(names).contains("word/document.xml", "[Content_Types].xml");
+        assertThat(TemplateCache.get()).isSameAs(TemplateCache.get());
+    }
+
+    @Test
+    void testGenerer_cancelled_shouldDeletePartialFile() {
+        File output = tempDir.resolve("annule.docx").toFile();
+        GenerationListener listener = new GenerationListener() {
+            private boolean started;
+
+            @Override
+            public void onPhase(GenerationPhase phase) {
+                started = true;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return started;
+            }
+        };
+
+        assertThatThrownBy(() -> generator.genererFicheDeControle(createFiche(), output, listener))
+            .isInstanceOf(CancellationException.class);
+        assertThat(output).doesNotExist();
+    }
+
+    @Test
+    void testGenerer_cancelledOverExistingDocument_shouldKeepItAndLeaveNoTempFile() throws Exception {
+        Path output = tempDir.resolve("existant.docx");
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            generator.genererFicheDeControle(createFiche(), channel, GenerationListener.NONE);
+            assertThat(channel.isOpen()).isTrue();
+        }
+        byte[] existing = Files.readAllBytes(output);
+        try (ZipFile zip = new ZipFile(output.toFile())) {
+            assertThat(zip.getEntry("word/document.xml")).isNotNull();
+        }
+
+        GenerationListener cancelAtZip = new GenerationListener() {
+            private boolean zip;
+
+            @Override
+            public void onPhase(GenerationPhase phase) {
+                zip |= phase == GenerationPhase.ZIP;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return zip;
+            }
+        };
+        assertThatThrownBy(() -> generator.genererFicheDeControle(createFiche(), output.toFile(), cancelAtZip))
+            .isInstanceOf(CancellationException.class);
+
+        assertThat(Files.readAllBytes(output)).isEqualTo(existing);
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files).containsExactly(output);
+        }
+    }
+
+    @Test
+    void testGenerer_reproducibleMode_shouldGiveIdenticalBytesForSameFicheAndDay() throws Exception {
+        Clock jour1 = Clock.fixed(Instant.parse("2025-03-10T10:00:00Z"), ZoneOffset.UTC);
+        Clock jour1Soir = Clock.fixed(Instant.parse("2025-03-10T22:30:00Z"), ZoneOffset.UTC);
+        Clock jour2 = Clock.fixed(Instant.parse("2025-03-11T10:00:00Z"), ZoneOffset.UTC);
+        ScreenCapture test = new ScreenCapture(CaptureCategory.TEST_ADHESION,
+            new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB), 1);
+        ScreenCapture cotisations = new ScreenCapture(CaptureCategory.COTISATIONS_FORMULAIRE,
+            new BufferedImage(30, 10, BufferedImage.TYPE_INT_RGB), 1);
+        FicheDto fiche = createFiche();
+        fiche.setCaptures(Arrays.asList(test, cotisations));
+        FicheDto autreOrdre = createFiche();
+        autreOrdre.setCaptures(Arrays.asList(cotisations, test));
+
+        byte[] first = generate(new WordGeneratorXML(jour1, true), fiche);
+        Thread.sleep(2100); // les dates ZIP ont une précision de 2 s
+        byte[] second = generate(new WordGeneratorXML(jour1Soir, true), autreOrdre);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(generate(new WordGeneratorXML(jour2, true), fiche)).isNotEqualTo(first);
+        assertThat(new WordGeneratorXML(jour2, true).getDateDuJour()).isEqualTo("11/03/2025");
+    }
+
+    private static byte[] generate(WordGeneratorXML generator, FicheDto fiche) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.genererFicheDeControle(fiche, out, GenerationListener.NONE);
+        return out.toByteArray();
+    }
+}
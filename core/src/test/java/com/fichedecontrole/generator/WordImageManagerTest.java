@@ -1,6 +1,7 @@
 package com.fichedecontrole.generator;
 
 import com.fichedecontrole.model.CaptureCategory;
+import com.fichedecontrole.model.FicheDto;
 import com.fichedecontrole.model.ScreenCapture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -31,6 +32,13 @@ class WordImageManagerTest {
         return new BufferedImage(10, 5, BufferedImage.TYPE_INT_RGB);
     }
 
+    /** Fiche ne portant que les Produits Ciblés */
+    private static FicheDto ficheAvecPC(String... produitsCibles) {
+        FicheDto fiche = new FicheDto();
+        fiche.setListePC(produitsCibles);
+        return fiche;
+    }
+
     /** Construit un XML minimal contenant le tag dans un <w:p> */
     private static String xmlAvecTag(String wordTag) {
         return "<w:p w14:paraId=\"ABC\"><w:pPr/><w:r><w:t>{{" + wordTag + "}}</w:t></w:r></w:p>";
@@ -44,7 +52,7 @@ class WordImageManagerTest {
     void testSansCapture_testAdhesion_devraitAfficherNA() {
         String xml = xmlAvecTag(CaptureCategory.TEST_ADHESION.getWordTag());
 
-        String result = imageManager.replaceCaptureTags(xml, null);
+        String result = imageManager.replaceCaptureTags(xml, new FicheDto());
 
         assertThat(result).contains("<w:t>N/A</w:t>");
         assertThat(result).doesNotContain("{{" + CaptureCategory.TEST_ADHESION.getWordTag() + "}}");
@@ -54,7 +62,7 @@ class WordImageManagerTest {
     void testSansCapture_txChgtFormulaire_devraitAfficherNA() {
         String xml = xmlAvecTag(CaptureCategory.TX_CHGT_FORMULAIRE.getWordTag());
 
-        String result = imageManager.replaceCaptureTags(xml, null);
+        String result = imageManager.replaceCaptureTags(xml, new FicheDto());
 
         assertThat(result).contains("<w:t>N/A</w:t>");
         assertThat(result).doesNotContain("{{" + CaptureCategory.TX_CHGT_FORMULAIRE.getWordTag() + "}}");
@@ -64,7 +72,7 @@ class WordImageManagerTest {
     void testSansCapture_cotisationsFormulaire_devraitAfficherNA() {
         String xml = xmlAvecTag(CaptureCategory.COTISATIONS_FORMULAIRE.getWordTag());
 
-        String result = imageManager.replaceCaptureTags(xml, null);
+        String result = imageManager.replaceCaptureTags(xml, new FicheDto());
 
         assertThat(result).contains("<w:t>N/A</w:t>");
         assertThat(result).doesNotContain("{{" + CaptureCategory.COTISATIONS_FORMULAIRE.getWordTag() + "}}");
@@ -78,7 +86,7 @@ class WordImageManagerTest {
     void testSansCapture_autresFormulaires_devraitSupprimerParagraphe() {
         String xml = "<body>" + xmlAvecTag(CaptureCategory.AUTRES_FORMULAIRES.getWordTag()) + "</body>";
 
-        String result = imageManager.replaceCaptureTags(xml, null);
+        String result = imageManager.replaceCaptureTags(xml, new FicheDto());
 
         assertThat(result).isEqualTo("<body></body>");
         assertThat(result).doesNotContain("N/A");
@@ -88,7 +96,7 @@ class WordImageManagerTest {
     void testSansCapture_autresInformations_devraitSupprimerParagraphe() {
         String xml = "<body>" + xmlAvecTag(CaptureCategory.AUTRES_INFORMATIONS.getWordTag()) + "</body>";
 
-        String result = imageManager.replaceCaptureTags(xml, null);
+        String result = imageManager.replaceCaptureTags(xml, new FicheDto());
 
         assertThat(result).isEqualTo("<body></body>");
         assertThat(result).doesNotContain("N/A");
@@ -104,7 +112,7 @@ class WordImageManagerTest {
         imageManager.prepareImages(List.of(capture));
         String xml = xmlAvecTag(CaptureCategory.COTISATIONS_FORMULAIRE.getWordTag());
 
-        String result = imageManager.replaceCaptureTags(xml, null);
+        String result = imageManager.replaceCaptureTags(xml, new FicheDto());
 
         assertThat(result).contains("<w:p><w:r><w:drawing>");
         assertThat(result).contains("</w:drawing></w:r></w:p>");
@@ -118,7 +126,7 @@ class WordImageManagerTest {
         imageManager.prepareImages(List.of(c1, c2));
         String xml = xmlAvecTag(CaptureCategory.COTISATIONS_FORMULAIRE.getWordTag());
 
-        String result = imageManager.replaceCaptureTags(xml, null);
+        String result = imageManager.replaceCaptureTags(xml, new FicheDto());
 
         assertThat(result).contains("<w:p/>");
         // Deux drawings générés
@@ -131,7 +139,7 @@ class WordImageManagerTest {
         imageManager.prepareImages(List.of(capture));
         String xml = xmlAvecTag(CaptureCategory.COTISATIONS_FORMULAIRE.getWordTag());
 
-        String result = imageManager.replaceCaptureTags(xml, null);
+        String result = imageManager.replaceCaptureTags(xml, new FicheDto());
 
         // Pas de <w:p/> quand il n'y a qu'une seule capture
         assertThat(result).doesNotContain("<w:p/>");
@@ -147,7 +155,7 @@ class WordImageManagerTest {
         imageManager.prepareImages(List.of(capture));
         String xml = xmlAvecTag(CaptureCategory.TEST_ADHESION.getWordTag());
 
-        String result = imageManager.replaceCaptureTags(xml, new String[]{"QU551001 - TEST"});
+        String result = imageManager.replaceCaptureTags(xml, ficheAvecPC("QU551001 - TEST"));
 
         assertThat(result).contains("QU551001");
         assertThat(result).contains("<w:drawing>");
@@ -161,7 +169,7 @@ class WordImageManagerTest {
         imageManager.prepareImages(List.of(capture));
         String xml = xmlAvecTag(CaptureCategory.TEST_ADHESION.getWordTag());
 
-        String result = imageManager.replaceCaptureTags(xml, null);
+        String result = imageManager.replaceCaptureTags(xml, new FicheDto());
 
         assertThat(result).contains("<w:drawing>");
         // Pas de paragraphe de texte parasite
@@ -176,7 +184,7 @@ class WordImageManagerTest {
     void testTagAbsent_devraitLaisserXMLInchange() {
         String xml = "<body><w:p><w:r><w:t>Contenu sans tag</w:t></w:r></w:p></body>";
 
-        String result = imageManager.replaceCaptureTags(xml, null);
+        String result = imageManager.replaceCaptureTags(xml, new FicheDto());
 
         assertThat(result).isEqualTo(xml);
     }
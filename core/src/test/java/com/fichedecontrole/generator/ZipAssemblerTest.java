@@ -0,0 +1,77 @@
+package com.fichedecontrole.generator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour ZipAssembler (ZIP à partir d'entrées déjà compressées)
+ */
+class ZipAssemblerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFinish_mixedEntries_shouldBeReadableByZipFileAndZipInputStream() throws Exception {
+        byte[] xml = "<w:document>été</w:document>".repeat(100).getBytes(StandardCharsets.UTF_8);
+        byte[] png = new byte[]{(byte) 0x89, 'P', 'N', 'G', 1, 2, 3};
+        ZipAssembler.Compressed precompressed = ZipAssembler.Compressed.deflate(xml);
+        assertThat(precompressed.getCompressedSize()).isLessThan(xml.length);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ZipAssembler zip = new ZipAssembler(out, LocalDateTime.of(2025, 3, 10, 14, 30, 20));
+        zip.add("word/styles.xml", precompressed);
+        zip.addDeflated("word/document.xml", xml);
+        zip.addStored("word/media/image1.png", png);
+        zip.finish();
+
+        Path docx = tempDir.resolve("test.docx");
+        Files.write(docx, out.toByteArray());
+        try (ZipFile zipFile = new ZipFile(docx.toFile())) {
+            assertThat(zipFile.size()).isEqualTo(3);
+            assertThat(zipFile.getInputStream(zipFile.getEntry("word/styles.xml")).readAllBytes()).isEqualTo(xml);
+            ZipEntry image = zipFile.getEntry("word/media/image1.png");
+            assertThat(image.getMethod()).isEqualTo(ZipEntry.STORED);
+            assertThat(zipFile.getInputStream(image).readAllBytes()).isEqualTo(png);
+            assertThat(image.getTimeLocal()).isEqualTo(LocalDateTime.of(2025, 3, 10, 14, 30, 20));
+        }
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(zis.getNextEntry().getName()).isEqualTo("word/styles.xml");
+            assertThat(zis.readAllBytes()).isEqualTo(xml);
+            assertThat(zis.getNextEntry().getName()).isEqualTo("word/document.xml");
+            assertThat(zis.readAllBytes()).isEqualTo(xml);
+            assertThat(zis.getNextEntry().getName()).isEqualTo("word/media/image1.png");
+            assertThat(zis.readAllBytes()).isEqualTo(png);
+            assertThat(zis.getNextEntry()).isNull();
+        }
+    }
+
+    @Test
+    void testTemplateEntry_shouldBeCompressedOnceAndReusedByGenerations() throws Exception {
+        TemplateCache.Template template = TemplateCache.get();
+        TemplateCache.Entry styles = template.getEntries().stream()
+            .filter(e -> !e.getName().equals("word/document.xml"))
+            .findFirst().orElseThrow(AssertionError::new);
+
+        ZipAssembler.Compressed first = styles.getCompressed();
+        assertThat(styles.getCompressed()).isSameAs(first);
+
+        // Entrée incompressible : stockée telle quelle
+        byte[] random = new byte[256];
+        new Random(1).nextBytes(random);
+        assertThat(ZipAssembler.Compressed.deflate(random).getCompressedSize()).isEqualTo(random.length);
+    }
+}
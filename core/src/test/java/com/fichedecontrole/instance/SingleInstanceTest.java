@@ -0,0 +1,60 @@
+package com.fichedecontrole.instance;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour SingleInstance et InstanceClient
+ */
+class SingleInstanceTest {
+
+    private SingleInstance instance;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("fichedecontrole.instance.dir", tempDir.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (instance != null) {
+            instance.close();
+        }
+        System.clearProperty("fichedecontrole.instance.dir");
+    }
+
+    @Test
+    void testRequestWindow_runningInstance_shouldNotifyAndReturnTrue() throws Exception {
+        instance = SingleInstance.tryAcquire();
+        assertThat(instance).isNotNull();
+        CountDownLatch opened = new CountDownLatch(1);
+        instance.listen(opened::countDown);
+
+        assertThat(InstanceClient.requestWindow()).isTrue();
+        assertThat(opened.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void testRequestWindow_afterClose_shouldReturnFalseAndReleaseLock() throws Exception {
+        instance = SingleInstance.tryAcquire();
+        instance.listen(() -> { });
+        instance.close();
+        instance = null;
+
+        assertThat(InstanceClient.requestWindow()).isFalse();
+        instance = SingleInstance.tryAcquire();
+        assertThat(instance).isNotNull();
+    }
+}
@@ -0,0 +1,74 @@
+package com.fichedecontrole.model;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour ScreenCapture (compactage en PNG, captures reçues encodées)
+ */
+class ScreenCaptureTest {
+
+    private static ScreenCapture createCapture() {
+        BufferedImage image = new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(5, 5, 0xFF0000);
+        return new ScreenCapture(CaptureCategory.COTISATIONS_FORMULAIRE, image, 1);
+    }
+
+    @Test
+    void testCompact_shouldKeepPngAndDecodeOnDemand() throws Exception {
+        ScreenCapture capture = createCapture();
+        byte[] png = capture.getPngData();
+
+        assertThat(capture.compact()).isEqualTo(40L * 20 * 4);
+
+        assertThat(capture.isCompacted()).isTrue();
+        assertThat(capture.getPngData()).isSameAs(png);
+        BufferedImage decoded = capture.getImage();
+        assertThat(decoded.getWidth()).isEqualTo(40);
+        assertThat(decoded.getRGB(5, 5) & 0xFFFFFF).isEqualTo(0xFF0000);
+    }
+
+    @Test
+    void testCompact_alreadyCompacted_shouldFreeNothing() throws Exception {
+        ScreenCapture capture = createCapture();
+        capture.compact();
+
+        assertThat(capture.compact()).isZero();
+        assertThat(capture.getWidth()).isEqualTo(40);
+        assertThat(capture.getHeight()).isEqualTo(20);
+    }
+
+    @Test
+    void testFromEncoded_truncatedOrCorruptPng_shouldBeRejected() throws Exception {
+        BufferedImage image = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 300; x++) {
+            image.setRGB(x, x % 200, 0x00FF00 + x);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        byte[] png = out.toByteArray();
+
+        ScreenCapture capture = ScreenCapture.fromEncoded(CaptureCategory.COTISATIONS_FORMULAIRE, png, 1);
+        assertThat(capture.getPngData()).isSameAs(png);
+        assertThat(capture.getWidth()).isEqualTo(300);
+
+        byte[] truncated = Arrays.copyOf(png, png.length / 2);
+        assertThatThrownBy(() -> ScreenCapture.fromEncoded(CaptureCategory.COTISATIONS_FORMULAIRE, truncated, 1))
+            .isInstanceOf(IOException.class);
+
+        // Données compressées altérées, fin du fichier intacte
+        byte[] corrupt = png.clone();
+        for (int i = png.length / 2; i < png.length / 2 + 32; i++) {
+            corrupt[i] ^= 0x5A;
+        }
+        assertThatThrownBy(() -> ScreenCapture.fromEncoded(CaptureCategory.COTISATIONS_FORMULAIRE, corrupt, 1))
+            .isInstanceOf(IOException.class);
+    }
+}
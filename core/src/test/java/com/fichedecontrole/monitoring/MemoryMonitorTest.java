@@ -0,0 +1,61 @@
+package com.fichedecontrole.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour MemoryMonitor
+ */
+class MemoryMonitorTest {
+
+    @Test
+    void testCheck_econome_shouldRunTrimmersAndRecordLastTrim() {
+        MemoryMonitor monitor = new MemoryMonitor(MemoryMonitor.Mode.ECONOME, 70, Long.MAX_VALUE);
+        monitor.addTrimmer(() -> "2 capture(s) compactée(s)");
+        AtomicInteger notifications = new AtomicInteger();
+        monitor.addListener(m -> notifications.incrementAndGet());
+
+        monitor.check();
+
+        assertThat(monitor.isLowFootprint()).isTrue();
+        assertThat(monitor.getLastTrim()).endsWith("2 capture(s) compactée(s)");
+        assertThat(monitor.getUsedBytes()).isPositive();
+        assertThat(notifications.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testCheck_normal_shouldNotTrim() {
+        MemoryMonitor monitor = new MemoryMonitor(MemoryMonitor.Mode.NORMAL, 0, 0);
+        AtomicInteger trims = new AtomicInteger();
+        monitor.addTrimmer(() -> {
+            trims.incrementAndGet();
+            return null;
+        });
+
+        monitor.check();
+
+        assertThat(monitor.isLowFootprint()).isFalse();
+        assertThat(trims.get()).isZero();
+    }
+
+    @Test
+    void testUpdateMode_auto_shouldNotFlipBackBeforeMinimumDuration() {
+        MemoryMonitor monitor = new MemoryMonitor(MemoryMonitor.Mode.AUTO, 70, 0);
+
+        monitor.updateMode(80, 100, 1_000);
+        assertThat(monitor.isLowFootprint()).isTrue();
+
+        // Retombée juste après l'entrée : reste économe
+        monitor.updateMode(20, 100, 2_000);
+        assertThat(monitor.isLowFootprint()).isTrue();
+        // Durée écoulée mais au-dessus de la moitié du seuil : reste économe
+        monitor.updateMode(40, 100, 1_000 + MemoryMonitor.MIN_LOW_FOOTPRINT_MS);
+        assertThat(monitor.isLowFootprint()).isTrue();
+
+        monitor.updateMode(20, 100, 1_000 + MemoryMonitor.MIN_LOW_FOOTPRINT_MS);
+        assertThat(monitor.isLowFootprint()).isFalse();
+    }
+}
@@ -0,0 +1,66 @@
+package com.fichedecontrole.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour StallWatchdog et StallHistogram
+ */
+class StallWatchdogTest {
+
+    private StallWatchdog watchdog;
+
+    @AfterEach
+    void tearDown() {
+        if (watchdog != null) {
+            watchdog.stop();
+        }
+    }
+
+    @Test
+    void testTrack_generationOverThreshold_shouldDumpAndRecordStall() throws Exception {
+        watchdog = new StallWatchdog(200, 50, 60_000);
+        watchdog.start(false);
+
+        StallWatchdog.Tracker tracker = watchdog.track("lente");
+        Thread.sleep(300);
+        tracker.close();
+
+        assertThat(tracker.isStalled()).isTrue();
+        String summary = watchdog.getHistogram().snapshotAndReset();
+        assertThat(summary).contains(StallWatchdog.SOURCE_GENERATION)
+            .contains("StallWatchdogTest.testTrack_generationOverThreshold_shouldDumpAndRecordStall");
+    }
+
+    @Test
+    void testTrack_fastGeneration_shouldNotDump() {
+        watchdog = new StallWatchdog(200, 5_000, 60_000);
+        watchdog.start(false);
+
+        StallWatchdog.Tracker tracker = watchdog.track("rapide");
+        tracker.close();
+
+        assertThat(tracker.isStalled()).isFalse();
+        assertThat(watchdog.getHistogram().getCount(StallWatchdog.SOURCE_GENERATION, 0)).isEqualTo(1);
+    }
+
+    @Test
+    void testHistogram_snapshotAndReset_shouldClearCounters() {
+        StallHistogram histogram = new StallHistogram();
+        histogram.record("EDT", 10);
+        histogram.record("EDT", 250);
+        histogram.recordStall("EDT Frame.generer:12", 250);
+
+        assertThat(StallHistogram.bucketIndex(10)).isZero();
+        assertThat(StallHistogram.bucketIndex(250)).isEqualTo(3);
+        assertThat(StallHistogram.bucketIndex(60_000)).isEqualTo(7);
+        assertThat(histogram.getCount("EDT", 3)).isEqualTo(1);
+        assertThat(histogram.getStallCount("EDT Frame.generer:12")).isEqualTo(1);
+
+        assertThat(histogram.snapshotAndReset()).contains("200-500ms=1").contains("Frame.generer:12");
+        assertThat(histogram.getCount("EDT", 3)).isZero();
+        assertThat(histogram.snapshotAndReset()).isNull();
+    }
+}
@@ -0,0 +1,108 @@
+package com.fichedecontrole.remote;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour FairScheduler
+ */
+class FairSchedulerTest {
+
+    private FairScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void testSubmit_otherSessionWaiting_shouldNotWaitForWholeBacklog() throws Exception {
+        scheduler = new FairScheduler(1, 10);
+        CountDownLatch bloque = new CountDownLatch(1);
+        CountDownLatch termine = new CountDownLatch(5);
+        List<String> ordre = new CopyOnWriteArrayList<>();
+
+        scheduler.submit("A", () -> {
+            await(bloque);
+            ordre.add("A0");
+            termine.countDown();
+        });
+        for (int i = 1; i <= 3; i++) {
+            String nom = "A" + i;
+            scheduler.submit("A", () -> {
+                ordre.add(nom);
+                termine.countDown();
+            });
+        }
+        scheduler.submit("B", () -> {
+            ordre.add("B1");
+            termine.countDown();
+        });
+        bloque.countDown();
+
+        assertThat(termine.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(ordre.indexOf("B1")).isLessThan(ordre.indexOf("A3"));
+        assertThat(ordre.indexOf("B1")).isLessThan(ordre.indexOf("A2"));
+    }
+
+    @Test
+    void testSubmit_sessionQueueFull_shouldRejectOnlyThatSession() {
+        scheduler = new FairScheduler(1, 2);
+        CountDownLatch bloque = new CountDownLatch(1);
+        scheduler.submit("A", () -> await(bloque));
+        waitUntilTaken("A");
+
+        scheduler.submit("A", () -> { });
+        scheduler.submit("A", () -> { });
+
+        assertThatThrownBy(() -> scheduler.submit("A", () -> { }))
+            .isInstanceOf(RejectedExecutionException.class);
+        assertThatCode(() -> scheduler.submit("B", () -> { })).doesNotThrowAnyException();
+        bloque.countDown();
+    }
+
+    @Test
+    void testShutdown_shouldReturnQueuedTasksAndKeepWorkersAliveAfterError() throws Exception {
+        scheduler = new FairScheduler(1, 10);
+        CountDownLatch apresErreur = new CountDownLatch(1);
+        scheduler.submit("A", () -> {
+            throw new OutOfMemoryError("test");
+        });
+        scheduler.submit("A", apresErreur::countDown);
+        assertThat(apresErreur.await(5, TimeUnit.SECONDS)).as("thread toujours en service").isTrue();
+
+        CountDownLatch bloque = new CountDownLatch(1);
+        scheduler.submit("A", () -> await(bloque));
+        waitUntilTaken("A");
+        Runnable enAttenteA = () -> { };
+        Runnable enAttenteB = () -> { };
+        scheduler.submit("A", enAttenteA);
+        scheduler.submit("B", enAttenteB);
+
+        assertThat(scheduler.shutdown()).containsExactlyInAnyOrder(enAttenteA, enAttenteB);
+        bloque.countDown();
+    }
+
+    private void waitUntilTaken(String session) {
+        long limite = System.currentTimeMillis() + 5000;
+        while (scheduler.getPendingCount(session) > 0 && System.currentTimeMillis() < limite) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.fichedecontrole.remote;
+
+import com.fichedecontrole.generator.GenerationListener;
+import com.fichedecontrole.model.CaptureCategory;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.NatureDemande;
+import com.fichedecontrole.model.Risque;
+import com.fichedecontrole.model.ScreenCapture;
+import com.fichedecontrole.model.TypeDemande;
+import com.fichedecontrole.service.DocumentGenerationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.ZipFile;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour GenerationServer et RemoteDocumentGenerationService (loopback, port libre)
+ */
+class GenerationServerTest {
+
+    private GenerationServer server;
+    private RemoteDocumentGenerationService client;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new GenerationServer(0, 1, 5, 16 * 1024 * 1024, 4);
+        int port = server.start();
+        client = new RemoteDocumentGenerationService("127.0.0.1", port);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private static FicheDto createFiche() {
+        FicheDto fiche = new FicheDto("CJ123", "F001", TypeDemande.O2, Risque.FSS, NatureDemande.CREATION,
+            Arrays.asList("PG", "PC"), "01/01/2025", "DISPO", "SOCIETE", "PARAMETREUR",
+            Arrays.asList("TPSS"), "N/A", "STRUCTURE", "", new String[]{"QU551001"});
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+        fiche.setCaptures(Collections.singletonList(
+            new ScreenCapture(CaptureCategory.COTISATIONS_FORMULAIRE, image, 1)));
+        return fiche;
+    }
+
+    @Test
+    void testGenerate_throughService_shouldWriteDocxWithCapture() throws Exception {
+        File output = tempDir.resolve("fiche.docx").toFile();
+
+        client.generateDocument(createFiche(), output, GenerationListener.NONE);
+
+        try (ZipFile zip = new ZipFile(output)) {
+            assertThat(zip.getEntry("word/document.xml")).isNotNull();
+            assertThat(zip.stream().anyMatch(e -> e.getName().startsWith("word/media/"))).isTrue();
+        }
+    }
+
+    @Test
+    void testGenerate_invalidFiche_shouldThrowValidationErrors() {
+        FicheDto fiche = createFiche();
+        fiche.setContratJuridique("");
+        File output = tempDir.resolve("invalide.docx").toFile();
+
+        assertThatThrownBy(() -> client.generateDocument(fiche, output, GenerationListener.NONE))
+            .isInstanceOf(DocumentGenerationException.class)
+            .satisfies(e -> assertThat(((DocumentGenerationException) e).hasValidationErrors()).isTrue());
+        assertThat(output).doesNotExist();
+    }
+}
@@ -0,0 +1,137 @@
+package com.fichedecontrole.remote;
+
+import com.fichedecontrole.generator.GenerationListener;
+import com.fichedecontrole.generator.WordGeneratorXML;
+import com.fichedecontrole.model.FicheDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipFile;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour HttpGenerationServer (client HTTP du JDK, loopback, port libre)
+ */
+class HttpGenerationServerTest {
+
+    private static final String FICHE_JSON = "{\"contratJuridique\":\"CJ123\",\"numFormulaire\":\"F001\","
+        + "\"typeDemande\":\"O2\",\"risque\":\"FSS\",\"natureDemande\":\"CREATION\",\"elements\":[\"PG\",\"PC\"],"
+        + "\"dateEffet\":\"01/01/2025\",\"structure\":\"STRUCTURE\",\"listePC\":[\"QU551001\"]}";
+    private static final String BOUNDARY = "----fiche-test";
+
+    private HttpGenerationServer server;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private static HttpURLConnection post(int port, String contentType, byte[] body) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + "/fiches").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", contentType);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        return connection;
+    }
+
+    private static byte[] multipart(String json, byte[] png) throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"fiche\"\r\n"
+            + "Content-Type: application/json\r\n\r\n" + json + "\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"COTISATIONS_FORMULAIRE\";"
+            + " filename=\"cotisations.png\"\r\nContent-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(png);
+        body.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    @Test
+    void testPostFiche_multipartWithCapture_shouldStreamDocxAndReportStats() throws Exception {
+        server = new HttpGenerationServer(0, 1, 2, 16 * 1024 * 1024, 4);
+        int port = server.start();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        HttpURLConnection connection = post(port, "multipart/form-data; boundary=" + BOUNDARY,
+            multipart(FICHE_JSON, png.toByteArray()));
+
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        assertThat(connection.getContentType()).isEqualTo(HttpGenerationServer.DOCX_TYPE);
+        assertThat(connection.getHeaderField("Content-Disposition")).contains("F001 - CJ123 - QU551001.docx");
+        Path docx = tempDir.resolve("fiche.docx");
+        try (InputStream in = connection.getInputStream()) {
+            Files.copy(in, docx);
+        }
+        try (ZipFile zip = new ZipFile(docx.toFile())) {
+            assertThat(zip.getEntry("word/media/image1.png")).isNotNull();
+        }
+
+        HttpURLConnection invalide = post(port, "application/json",
+            FICHE_JSON.replace("CJ123", "").getBytes(StandardCharsets.UTF_8));
+        assertThat(invalide.getResponseCode()).isEqualTo(422);
+
+        HttpURLConnection stats = (HttpURLConnection) new URL("http://127.0.0.1:" + port + "/stats").openConnection();
+        String json;
+        try (InputStream in = stats.getInputStream()) {
+            json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertThat(json).contains("\"generees\":1", "\"invalides\":1", "\"echantillons\":1", "\"p95\":");
+    }
+
+    @Test
+    void testPostFiche_queueFull_shouldRespond429() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WordGeneratorXML blockingGenerator = new WordGeneratorXML() {
+            @Override
+            public void genererFicheDeControle(FicheDto fiche, OutputStream out, GenerationListener listener)
+                    throws Exception {
+                started.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                super.genererFicheDeControle(fiche, out, listener);
+            }
+        };
+        server = new HttpGenerationServer(0, 1, 0, 1024 * 1024, 4, blockingGenerator);
+        int port = server.start();
+        byte[] fiche = FICHE_JSON.getBytes(StandardCharsets.UTF_8);
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return post(port, "application/json", fiche).getResponseCode();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        HttpURLConnection second = post(port, "application/json", fiche);
+        assertThat(second.getResponseCode()).isEqualTo(429);
+        assertThat(second.getHeaderField("Retry-After")).isEqualTo("1");
+
+        release.countDown();
+        assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo(200);
+    }
+}
@@ -0,0 +1,163 @@
+package com.fichedecontrole.service;
+
+import com.fichedecontrole.generator.GenerationListener;
+import com.fichedecontrole.generator.GenerationPhase;
+import com.fichedecontrole.generator.WordGeneratorXML;
+import com.fichedecontrole.model.CaptureCategory;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.NatureDemande;
+import com.fichedecontrole.model.Risque;
+import com.fichedecontrole.model.ScreenCapture;
+import com.fichedecontrole.model.TypeDemande;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour DocumentCache (cache des documents, génération partagée)
+ */
+class DocumentCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static FicheDto createFiche(int pixel) {
+        FicheDto fiche = new FicheDto();
+        fiche.setContratJuridique("CJ123");
+        fiche.setNumFormulaire("F001");
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(1, 1, pixel);
+        fiche.setCaptures(Collections.singletonList(new ScreenCapture(CaptureCategory.TEST_ADHESION, image, 1)));
+        return fiche;
+    }
+
+    @Test
+    void testKey_shouldDependOnContentTemplateAndDateOnly() throws Exception {
+        String key = DocumentCache.key(createFiche(0xFF0000), "modele1", "10/03/2025");
+
+        assertThat(DocumentCache.key(createFiche(0xFF0000), "modele1", "10/03/2025")).isEqualTo(key);
+        assertThat(DocumentCache.key(createFiche(0x00FF00), "modele1", "10/03/2025")).isNotEqualTo(key);
+        assertThat(DocumentCache.key(createFiche(0xFF0000), "modele2", "10/03/2025")).isNotEqualTo(key);
+        assertThat(DocumentCache.key(createFiche(0xFF0000), "modele1", "11/03/2025")).isNotEqualTo(key);
+        FicheDto renamed = createFiche(0xFF0000);
+        renamed.setStructure2("F001");
+        assertThat(DocumentCache.key(renamed, "modele1", "10/03/2025")).isNotEqualTo(key);
+    }
+
+    @Test
+    void testGet_concurrentIdenticalRequests_shouldRenderOnceAndEvictLeastRecentlyUsed() throws Exception {
+        DocumentCache cache = new DocumentCache(250);
+        AtomicInteger renders = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> cache.get("a", GenerationListener.NONE, () -> {
+                    renders.incrementAndGet();
+                    release.await(10, TimeUnit.SECONDS);
+                    return new byte[100];
+                })));
+            }
+            Thread.sleep(200); // les 4 demandes sont arrivées pendant la génération
+            release.countDown();
+            for (Future<byte[]> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).hasSize(100);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(renders.get()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(3);
+        assertThat(cache.getBytesSaved()).isEqualTo(300);
+
+        cache.get("b", GenerationListener.NONE, () -> new byte[100]);
+        cache.get("a", GenerationListener.NONE, () -> new byte[100]);   // "a" redevient le plus récent
+        cache.get("c", GenerationListener.NONE, () -> new byte[100]);   // dépasse 250 octets : "b" sort
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getCachedBytes()).isEqualTo(200);
+        cache.get("b", GenerationListener.NONE, () -> new byte[100]);
+        assertThat(cache.getMisses()).isEqualTo(4);
+        assertThat(cache.toString()).contains("4/8");
+    }
+
+    @Test
+    void testGet_waiterCancelledDuringIdenticalGeneration_shouldStopWaiting() throws Exception {
+        DocumentCache cache = new DocumentCache(250);
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        GenerationListener waiter = new GenerationListener() {
+            @Override
+            public void onPhase(GenerationPhase phase) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelled.get();
+            }
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<byte[]> first = pool.submit(() -> cache.get("a", GenerationListener.NONE, () -> {
+                rendering.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return new byte[100];
+            }));
+            assertThat(rendering.await(10, TimeUnit.SECONDS)).isTrue();
+            Future<byte[]> second = pool.submit(() -> cache.get("a", waiter, () -> new byte[100]));
+            Thread.sleep(200); // le second attend la génération identique
+            cancelled.set(true);
+
+            assertThatThrownBy(() -> second.get(2, TimeUnit.SECONDS)).hasCauseInstanceOf(CancellationException.class);
+            release.countDown();
+            assertThat(first.get(10, TimeUnit.SECONDS)).hasSize(100);
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testGenerateDocument_documentTooLargeToKeep_shouldWriteFileWithoutCaching() throws Exception {
+        FicheDto fiche = new FicheDto("CJ123", "F001", TypeDemande.O2, Risque.FSS, NatureDemande.CREATION,
+            new ArrayList<>(Arrays.asList("PG")), "01/01/2025", "DISPO", "SOCIETE", "PARAMETREUR",
+            new ArrayList<>(Arrays.asList("TPSS")), "N/A", "STRUCTURE", "", new String[]{"QU551001"});
+        File first = tempDir.resolve("premier.docx").toFile();
+        File second = tempDir.resolve("second.docx").toFile();
+
+        DocumentCache small = new DocumentCache(1024);
+        DocumentGenerationService direct = new DocumentGenerationService(new WordGeneratorXML(), small);
+        direct.generateDocument(fiche, first);
+        assertThat(first.length()).isGreaterThan(1024);
+        assertThat(small.size()).isZero();
+        assertThat(small.getMisses()).isEqualTo(1);
+
+        DocumentCache large = new DocumentCache(16L * 1024 * 1024);
+        DocumentGenerationService cached = new DocumentGenerationService(new WordGeneratorXML(), large);
+        cached.generateDocument(fiche, first);
+        cached.generateDocument(fiche, second);
+        assertThat(large.getMisses()).isEqualTo(1);
+        assertThat(large.getHits()).isEqualTo(1);
+        assertThat(Files.readAllBytes(second.toPath())).isEqualTo(Files.readAllBytes(first.toPath()));
+    }
+}
@@ -0,0 +1,120 @@
+package com.fichedecontrole.service;
+
+import com.fichedecontrole.generator.GenerationListener;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.NatureDemande;
+import com.fichedecontrole.model.Risque;
+import com.fichedecontrole.model.TypeDemande;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour GenerationQueue
+ */
+class GenerationQueueTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static FicheDto createValidFiche() {
+        return new FicheDto("CJ123", "F001", TypeDemande.O2, Risque.FSS, NatureDemande.CREATION,
+            new ArrayList<>(Arrays.asList("PG")), "01/01/2025", "DISPO", "SOCIETE", "PARAMETREUR",
+            new ArrayList<>(Arrays.asList("TPSS")), "N/A", "STRUCTURE", "", new String[]{"QU551001"});
+    }
+
+    private static void awaitFinished(GenerationJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!job.getState().isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void testSubmit_shouldGenerateFromSnapshot() throws Exception {
+        GenerationQueue queue = new GenerationQueue(new DocumentGenerationService(), 1, 5);
+        FicheDto fiche = createValidFiche();
+        File output = tempDir.resolve("fiche.docx").toFile();
+
+        GenerationJob job = queue.submit(fiche, output);
+        // Le formulaire peut être modifié dès l'ajout : la génération utilise la copie
+        fiche.setNumFormulaire(null);
+        fiche.getElements().clear();
+        awaitFinished(job);
+
+        assertThat(job.getState()).isEqualTo(GenerationJob.State.DONE);
+        assertThat(output).exists();
+        assertThat(job.getFiche()).as("fiche liberee apres ecriture").isNull();
+        assertThat(queue.getActiveCount()).isZero();
+    }
+
+    @Test
+    void testSubmit_invalidFiche_shouldFail() throws Exception {
+        GenerationQueue queue = new GenerationQueue(new DocumentGenerationService(), 1, 5);
+        FicheDto fiche = createValidFiche();
+        fiche.setContratJuridique("");
+
+        GenerationJob job = queue.submit(fiche, tempDir.resolve("invalide.docx").toFile());
+        awaitFinished(job);
+
+        assertThat(job.getState()).isEqualTo(GenerationJob.State.FAILED);
+        assertThat(job.getErrorMessage()).contains("Contrat Juridique");
+    }
+
+    @Test
+    void testSubmit_queueFull_shouldReject() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        DocumentGenerationService blockingService = new DocumentGenerationService() {
+            @Override
+            public void generateDocument(FicheDto fiche, File outputFile, GenerationListener listener) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        GenerationQueue queue = new GenerationQueue(blockingService, 1, 1);
+
+        GenerationJob running = queue.submit(createValidFiche(), tempDir.resolve("1.docx").toFile());
+        GenerationJob pending = queue.submit(createValidFiche(), tempDir.resolve("2.docx").toFile());
+
+        assertThatThrownBy(() -> queue.submit(createValidFiche(), tempDir.resolve("3.docx").toFile()))
+            .isInstanceOf(RejectedExecutionException.class);
+        assertThat(queue.getJobs()).hasSize(2);
+
+        pending.cancel();
+        release.countDown();
+        awaitFinished(running);
+        awaitFinished(pending);
+        assertThat(running.getState()).isEqualTo(GenerationJob.State.DONE);
+        assertThat(pending.getState()).isEqualTo(GenerationJob.State.CANCELLED);
+    }
+
+    @Test
+    void testSubmit_errorDuringGeneration_shouldMarkJobFailed() throws Exception {
+        DocumentGenerationService failingService = new DocumentGenerationService() {
+            @Override
+            public void generateDocument(FicheDto fiche, File outputFile, GenerationListener listener) {
+                throw new OutOfMemoryError("Java heap space");
+            }
+        };
+        GenerationQueue queue = new GenerationQueue(failingService, 1, 5);
+
+        GenerationJob job = queue.submit(createValidFiche(), tempDir.resolve("oom.docx").toFile());
+        awaitFinished(job);
+
+        assertThat(job.getState()).isEqualTo(GenerationJob.State.FAILED);
+        assertThat(job.getErrorMessage()).contains("Java heap space");
+        assertThat(queue.getActiveCount()).isZero();
+    }
+}
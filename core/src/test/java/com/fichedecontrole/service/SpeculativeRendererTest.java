@@ -0,0 +1,101 @@
+package com.fichedecontrole.service;
+
+import com.fichedecontrole.generator.GenerationListener;
+import com.fichedecontrole.generator.WordGeneratorXML;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.NatureDemande;
+import com.fichedecontrole.model.Risque;
+import com.fichedecontrole.model.TypeDemande;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour SpeculativeRenderer (génération anticipée pendant la saisie)
+ */
+class SpeculativeRendererTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static FicheDto createValidFiche() {
+        return new FicheDto("CJ123", "F001", TypeDemande.O2, Risque.FSS, NatureDemande.CREATION,
+            new ArrayList<>(Arrays.asList("PG")), "01/01/2025", "DISPO", "SOCIETE", "PARAMETREUR",
+            new ArrayList<>(Arrays.asList("TPSS")), "N/A", "STRUCTURE", "", new String[]{"QU551001"});
+    }
+
+    @Test
+    void testSubmit_validFiche_shouldPrepareDocumentServedToGeneration() throws Exception {
+        DocumentCache cache = new DocumentCache(16L * 1024 * 1024);
+        DocumentGenerationService service = new DocumentGenerationService(new WordGeneratorXML(), cache);
+        SpeculativeRenderer renderer = new SpeculativeRenderer(service);
+        try {
+            FicheDto incomplete = createValidFiche();
+            incomplete.setContratJuridique("");
+            assertThat(renderer.submit(incomplete).get(10, TimeUnit.SECONDS)).isFalse();
+            assertThat(cache.size()).isZero();
+
+            // Préparations successives : seule la dernière est gardée, hors du cache
+            FicheDto earlier = createValidFiche();
+            earlier.setStructure("AUTRE");
+            assertThat(renderer.submit(earlier).get(10, TimeUnit.SECONDS)).isTrue();
+            FicheDto fiche = createValidFiche();
+            assertThat(renderer.submit(fiche).get(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(renderer.getPrepared()).isEqualTo(2);
+            assertThat(cache.size()).isZero();
+
+            File output = tempDir.resolve("fiche.docx").toFile();
+            service.generateDocument(fiche.snapshot(), output);
+            assertThat(output).exists();
+            assertThat(cache.getMisses()).isZero();
+            assertThat(cache.getHits()).isZero();
+            assertThat(cache.size()).isEqualTo(1);
+
+            service.generateDocument(earlier.snapshot(), tempDir.resolve("autre.docx").toFile());
+            assertThat(cache.getMisses()).isEqualTo(1);
+        } finally {
+            renderer.shutdown();
+        }
+    }
+
+    @Test
+    void testSubmit_newerRequest_shouldAbandonPreparationInProgress() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        DocumentGenerationService slowService = new DocumentGenerationService() {
+            @Override
+            public boolean prerender(FicheDto fiche, GenerationListener listener) throws Exception {
+                started.countDown();
+                long deadline = System.currentTimeMillis() + 10_000;
+                while (System.currentTimeMillis() < deadline) {
+                    if (listener.isCancelled()) {
+                        throw new CancellationException("Preparation annulee");
+                    }
+                    Thread.sleep(10);
+                }
+                return true;
+            }
+        };
+        SpeculativeRenderer renderer = new SpeculativeRenderer(slowService);
+        try {
+            Future<Boolean> first = renderer.submit(createValidFiche());
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+            renderer.cancel();   // le formulaire a été modifié
+
+            assertThat(first.get(10, TimeUnit.SECONDS)).isFalse();
+            assertThat(renderer.getAbandoned()).isEqualTo(1);
+            assertThat(renderer.getPrepared()).isZero();
+        } finally {
+            renderer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.fichedecontrole;
+
+import com.fichedecontrole.config.ConfigManager;
+import com.fichedecontrole.instance.InstanceClient;
+import com.fichedecontrole.instance.ResidentApp;
+import com.fichedecontrole.instance.SingleInstance;
+import com.fichedecontrole.monitoring.MemoryMonitor;
+import com.fichedecontrole.monitoring.StallWatchdog;
+import com.fichedecontrole.service.WarmUpService;
+import com.fichedecontrole.ui.FicheDeControleFrame;
+import com.fichedecontrole.util.StartupClock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.GraphicsEnvironment;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Point d'entrée principal de l'application
+ *
+ * En mode instance unique (instance.unique=true), un second lancement demande à
+ * l'instance en cours d'ouvrir une fenêtre puis s'arrête (voir {@link ResidentApp}).
+ *
+ * Options (utilisées par le build, pas par les utilisateurs) :
+ * - {@code --entrainement} : ouvre la fenêtre, génère un document factice puis quitte
+ *   (exécution d'entraînement pour l'archive AppCDS, voir la tâche deployPackage)
+ * - {@code --mesure-demarrage} : affiche le temps jusqu'à la fenêtre puis quitte
+ *   (voir la tâche benchmarkDemarrage)
+ */
+public class Main {
+
+    private static final Logger logger = LoggerFactory.getLogger(Main.class);
+
+    private static final String OPTION_ENTRAINEMENT = "--entrainement";
+    private static final String OPTION_MESURE = "--mesure-demarrage";
+
+    public static void main(String[] args) {
+        logger.info("Demarrage de FicheDeControle v1.0");
+
+        List<String> options = Arrays.asList(args);
+        boolean entrainement = options.contains(OPTION_ENTRAINEMENT);
+        boolean mesure = options.contains(OPTION_MESURE);
+
+        try {
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+        } catch (Exception e) {
+            logger.warn("Impossible de definir le Look and Feel systeme", e);
+        }
+
+        if (GraphicsEnvironment.isHeadless()) {
+            if (entrainement) {
+                // Pas d'écran (machine de build) : entraînement limité à la génération
+                entrainer(null);
+            } else {
+                logger.error("Aucun affichage disponible : l'interface ne peut pas etre ouverte");
+                System.exit(1);
+            }
+            return;
+        }
+
+        // Instance unique : déléguer à l'instance déjà lancée si elle répond
+        SingleInstance instance = null;
+        if (!entrainement && !mesure && Boolean.parseBoolean(ConfigManager.getValue("instance.unique", "true"))) {
+            instance = SingleInstance.tryAcquire();
+            if (instance == null) {
+                if (InstanceClient.requestWindow()) {
+                    logger.info("Instance deja lancee : fenetre ouverte dans celle-ci");
+                    System.exit(0);
+                }
+                logger.warn("Instance deja lancee mais injoignable : lancement independant");
+            }
+        }
+        SingleInstance residentInstance = instance;
+
+        SwingUtilities.invokeLater(() -> {
+            FicheDeControleFrame app = residentInstance != null
+                ? startResident(residentInstance)
+                : new FicheDeControleFrame();
+            app.setVisible(true);
+            logger.info("Interface utilisateur affichee");
+
+            if (mesure) {
+                // Mesurer après le traitement des événements de peinture en attente
+                SwingUtilities.invokeLater(() -> {
+                    System.out.println("TEMPS_FENETRE_MS=" + StartupClock.elapsedMs());
+                    System.exit(0);
+                });
+                return;
+            }
+            if (entrainement) {
+                new Thread(() -> entrainer(app), "entrainement").start();
+                return;
+            }
+
+            StallWatchdog.startFromConfig();
+            MemoryMonitor.get().start(ConfigManager.getInt("memoire.controle.secondes", 5) * 1000L);
+
+            // Préchauffage en arrière-plan, une fois la fenêtre affichée
+            if (Boolean.parseBoolean(ConfigManager.getValue("prechauffage.actif", "true"))) {
+                new WarmUpService().start();
+            }
+        });
+    }
+
+    /**
+     * Démarre l'application résidente et ouvre sa première fenêtre
+     */
+    private static FicheDeControleFrame startResident(SingleInstance instance) {
+        ResidentApp residentApp = new ResidentApp(instance);
+        try {
+            residentApp.start();
+        } catch (IOException e) {
+            logger.warn("Ecoute des lancements suivants impossible : instance non partagee", e);
+        }
+        return residentApp.openWindow();
+    }
+
+    /**
+     * Exécution d'entraînement : charge les classes d'une utilisation typique
+     * (préchauffage complet, dont la génération d'un document factice) puis quitte
+     */
+    private static void entrainer(FicheDeControleFrame app) {
+        logger.info("Execution d'entrainement");
+        new WarmUpService().start().join();
+        if (app != null) {
+            SwingUtilities.invokeLater(app::dispose);
+        }
+        logger.info("Entrainement termine en {} ms", StartupClock.elapsedMs());
+        System.exit(0);
+    }
+}
@@ -0,0 +1,142 @@
+package com.fichedecontrole.instance;
+
+import com.fichedecontrole.config.ConfigManager;
+import com.fichedecontrole.generator.TemplateCache;
+import com.fichedecontrole.monitoring.MemoryMonitor;
+import com.fichedecontrole.monitoring.StallWatchdog;
+import com.fichedecontrole.remote.RemoteDocumentGenerationService;
+import com.fichedecontrole.service.GenerationQueue;
+import com.fichedecontrole.ui.FicheDeControleFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.Frame;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application résidente (mode instance unique).
+ *
+ * Fermer la fenêtre ne quitte pas la JVM : les lancements suivants ouvrent une
+ * nouvelle fenêtre dans ce processus, avec modèle, configuration et code déjà chauds.
+ * La file de génération est partagée entre les fenêtres successives.
+ * Sans fenêtre ni génération, le tas est allégé après instance.allegement.secondes,
+ * et le processus s'arrête après instance.arret.minutes.
+ */
+public class ResidentApp {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResidentApp.class);
+
+    private static final long CHECK_INTERVAL_SECONDS = 15;
+
+    private final SingleInstance instance;
+    private final GenerationQueue generationQueue;
+    private final long trimDelayMs;
+    private final long exitDelayMs;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "instance-residente");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Modifiés uniquement sur l'EDT
+    private long idleSince;
+    private boolean trimmed;
+
+    public ResidentApp(SingleInstance instance) {
+        this.instance = instance;
+        this.generationQueue = new GenerationQueue(RemoteDocumentGenerationService.fromConfig());
+        this.trimDelayMs = TimeUnit.SECONDS.toMillis(ConfigManager.getInt("instance.allegement.secondes", 60));
+        this.exitDelayMs = TimeUnit.MINUTES.toMillis(ConfigManager.getInt("instance.arret.minutes", 480));
+    }
+
+    /**
+     * Démarre l'écoute des lancements suivants et la surveillance d'inactivité
+     */
+    public void start() throws IOException {
+        instance.listen(() -> SwingUtilities.invokeLater(this::openWindow));
+        scheduler.scheduleWithFixedDelay(() -> SwingUtilities.invokeLater(this::checkIdle),
+            CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Remet au premier plan la fenêtre ouverte, ou en ouvre une nouvelle (EDT)
+     */
+    public FicheDeControleFrame openWindow() {
+        idleSince = 0;
+        trimmed = false;
+
+        for (Frame frame : Frame.getFrames()) {
+            if (frame instanceof FicheDeControleFrame && frame.isDisplayable()) {
+                frame.setExtendedState(frame.getExtendedState() & ~Frame.ICONIFIED);
+                frame.setVisible(true);
+                frame.toFront();
+                frame.requestFocus();
+                return (FicheDeControleFrame) frame;
+            }
+        }
+
+        FicheDeControleFrame frame = new FicheDeControleFrame(generationQueue, true);
+        frame.setVisible(true);
+        return frame;
+    }
+
+    /**
+     * Allège puis arrête le processus s'il reste inactif (EDT)
+     */
+    private void checkIdle() {
+        if (hasOpenWindow() || generationQueue.getActiveCount() > 0) {
+            idleSince = 0;
+            trimmed = false;
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (idleSince == 0) {
+            idleSince = now;
+        }
+        long idleMs = now - idleSince;
+
+        if (!trimmed && idleMs >= trimDelayMs) {
+            trimmed = true;
+            trim();
+        }
+        if (idleMs >= exitDelayMs) {
+            logger.info("Arret de l'instance residente apres {} min d'inactivite", TimeUnit.MILLISECONDS.toMinutes(idleMs));
+            StallWatchdog.stopGlobal();
+            generationQueue.shutdown(5_000);
+            instance.close();
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Libère la mémoire inutile pendant l'attente : jobs terminés, puis GC complet
+     * (avec -XX:MaxHeapFreeRatio, la JVM rend la mémoire libérée au système). Le modèle
+     * reste chargé pour la prochaine fenêtre, sauf en mode économe.
+     */
+    private void trim() {
+        generationQueue.clearFinished();
+        if (MemoryMonitor.get().isLowFootprint()) {
+            TemplateCache.clear();
+        }
+        Runtime rt = Runtime.getRuntime();
+        long usedBefore = rt.totalMemory() - rt.freeMemory();
+        System.gc();
+        long usedAfter = rt.totalMemory() - rt.freeMemory();
+        logger.info("Instance residente allegee : {} Mo -> {} Mo utilises, {} Mo alloues",
+            usedBefore / (1024 * 1024), usedAfter / (1024 * 1024), rt.totalMemory() / (1024 * 1024));
+    }
+
+    private static boolean hasOpenWindow() {
+        for (Frame frame : Frame.getFrames()) {
+            if (frame instanceof FicheDeControleFrame && frame.isDisplayable()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
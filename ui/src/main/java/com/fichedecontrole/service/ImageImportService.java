@@ -0,0 +1,146 @@
+package com.fichedecontrole.service;
+
+import com.fichedecontrole.model.CaptureCategory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * Service d'import d'images existantes (fichiers PNG/JPEG, presse-papiers)
+ * comme captures d'écran.
+ *
+ * Les fichiers beaucoup plus larges que la colonne Word cible sont décodés
+ * avec un sous-échantillonnage source (ImageReadParam) : le raster complet
+ * n'est jamais alloué, ce qui évite de saturer le heap sur une photo de 20 Mpx.
+ */
+public class ImageImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageImportService.class);
+
+    /** EMU par pixel à 96 DPI (914 400 EMU/pouce ÷ 96) */
+    private static final long EMU_PER_PIXEL = 9525L;
+
+    /**
+     * Résolution conservée par rapport à la largeur affichée dans Word,
+     * pour que le texte reste lisible au zoom et à l'impression.
+     */
+    private static final int RESOLUTION_FACTOR = 3;
+
+    /**
+     * Décode un fichier image pour une catégorie donnée.
+     *
+     * @param file     le fichier PNG ou JPEG
+     * @param category la catégorie cible (détermine la largeur utile)
+     * @return l'image décodée, éventuellement sous-échantillonnée
+     * @throws IOException si le fichier n'est pas une image lisible
+     */
+    public BufferedImage decode(File file, CaptureCategory category) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            if (input == null) {
+                throw new IOException("Impossible d'ouvrir le fichier : " + file.getName());
+            }
+
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Format d'image non reconnu : " + file.getName());
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                int subsampling = computeSubsampling(sourceWidth, category);
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+
+                BufferedImage image = reader.read(0, param);
+                logger.info("Image importee : {} ({}x{} px, sous-echantillonnage 1/{}) → {}x{} px",
+                    file.getName(), sourceWidth, sourceHeight, subsampling,
+                    image.getWidth(), image.getHeight());
+                return image;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Convertit une image du presse-papiers en BufferedImage ARGB,
+     * réduite si elle dépasse largement la largeur utile de la catégorie.
+     *
+     * @param image    l'image issue du presse-papiers
+     * @param category la catégorie cible
+     * @return l'image prête à être ajoutée comme capture, ou null si l'image est vide
+     */
+    public BufferedImage fromClipboard(Image image, CaptureCategory category) {
+        int width = image.getWidth(null);
+        int height = image.getHeight(null);
+        if (width <= 0 || height <= 0) {
+            logger.warn("Image du presse-papiers vide ou non chargee");
+            return null;
+        }
+
+        // Le presse-papiers fournit une image déjà décodée : on ne peut que la réduire
+        int subsampling = computeSubsampling(width, category);
+        int targetWidth = Math.max(1, width / subsampling);
+        int targetHeight = Math.max(1, height / subsampling);
+
+        BufferedImage result = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = result.createGraphics();
+        if (subsampling > 1) {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                               RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        g.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+        g.dispose();
+
+        logger.info("Image collee depuis le presse-papiers : {}x{} px → {}x{} px",
+            width, height, targetWidth, targetHeight);
+        return result;
+    }
+
+    /**
+     * Calcule le pas de sous-échantillonnage (1 = aucun) pour une largeur source.
+     * On ne sous-échantillonne que si l'image fait au moins deux fois
+     * la largeur utile (largeur de colonne × RESOLUTION_FACTOR).
+     *
+     * @param sourceWidth largeur de l'image en pixels
+     * @param category    la catégorie cible
+     * @return le pas de sous-échantillonnage, toujours >= 1
+     */
+    public static int computeSubsampling(int sourceWidth, CaptureCategory category) {
+        long usefulWidth = getTargetWidthPixels(category) * RESOLUTION_FACTOR;
+        int factor = (int) (sourceWidth / usefulWidth);
+        return factor >= 2 ? factor : 1;
+    }
+
+    /**
+     * Largeur de la colonne Word de la catégorie, en pixels à 96 DPI
+     */
+    public static long getTargetWidthPixels(CaptureCategory category) {
+        return Math.max(1, category.getTargetWidthEmu() / EMU_PER_PIXEL);
+    }
+
+    /**
+     * Vérifie si le fichier a une extension d'image supportée (PNG, JPEG)
+     */
+    public static boolean isSupported(File file) {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        return file.isFile()
+            && (name.endsWith(".png") || name.endsWith(".jpg") || name.endsWith(".jpeg"));
+    }
+}
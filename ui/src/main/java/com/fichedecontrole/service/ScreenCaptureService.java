@@ -0,0 +1,447 @@
+package com.fichedecontrole.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service de capture d'écran avec sélection rectangulaire.
+ * Affiche un overlay transparent plein écran et permet à l'utilisateur
+ * de tracer un rectangle pour capturer une zone précise.
+ * Propose aussi une capture défilante : la zone choisie est recapturée
+ * à intervalle régulier pendant que l'utilisateur fait défiler, et les images
+ * sont assemblées en une seule (voir {@link ScrollStitcher}).
+ */
+public class ScreenCaptureService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScreenCaptureService.class);
+
+    /** Intervalle entre deux captures en mode défilant */
+    private static final long SCROLL_CAPTURE_INTERVAL_MS = 250;
+
+    // Robot partagé : sa création (accès au pilote d'affichage) est coûteuse sous Citrix
+    private static Robot robot;
+
+    /**
+     * Lance une capture d'écran interactive.
+     * 1. Prend un screenshot complet de l'écran
+     * 2. Affiche un overlay avec le screenshot en fond (légèrement assombri)
+     * 3. L'utilisateur trace un rectangle
+     * 4. Retourne l'image de la zone sélectionnée
+     *
+     * @return CompletableFuture contenant l'image capturée, ou null si annulé (Echap)
+     */
+    public CompletableFuture<BufferedImage> captureRegion() {
+        CompletableFuture<BufferedImage> future = new CompletableFuture<>();
+
+        try {
+            // 1. Capturer l'écran complet AVANT d'afficher l'overlay
+            Robot robot = getRobot();
+            Rectangle screenBounds = getFullScreenBounds();
+            BufferedImage fullScreenshot = robot.createScreenCapture(screenBounds);
+
+            // 2. Afficher l'overlay de sélection (sur l'EDT)
+            CompletableFuture<Rectangle> selection = showSelectionOverlay(fullScreenshot, screenBounds);
+
+            // 3. Extraire la zone sélectionnée du screenshot original
+            selection.thenAccept(rect -> future.complete(rect == null ? null : copyRegion(fullScreenshot, rect)));
+
+        } catch (AWTException e) {
+            logger.error("Impossible de créer Robot pour la capture d'écran", e);
+            future.complete(null);
+        }
+
+        return future;
+    }
+
+    /**
+     * Lance une capture défilante.
+     * 1. L'utilisateur trace le rectangle de la zone à capturer (même overlay que captureRegion)
+     * 2. La zone est recapturée toutes les 250 ms pendant qu'il fait défiler le contenu
+     * 3. Chaque capture est fusionnée au fur et à mesure (seules les nouvelles lignes sont gardées)
+     * 4. Le bouton "Terminer" de la petite fenêtre de contrôle retourne l'image assemblée
+     *
+     * @return CompletableFuture contenant l'image assemblée, ou null si annulé
+     */
+    public CompletableFuture<BufferedImage> captureScrolling() {
+        CompletableFuture<BufferedImage> future = new CompletableFuture<>();
+
+        try {
+            Robot robot = getRobot();
+            Rectangle screenBounds = getFullScreenBounds();
+            BufferedImage fullScreenshot = robot.createScreenCapture(screenBounds);
+
+            showSelectionOverlay(fullScreenshot, screenBounds).thenAccept(rect -> {
+                if (rect == null) {
+                    future.complete(null);
+                    return;
+                }
+                // Coordonnées écran de la zone (l'overlay commence à screenBounds.x/y)
+                Rectangle region = new Rectangle(screenBounds.x + rect.x, screenBounds.y + rect.y,
+                                                 rect.width, rect.height);
+                SwingUtilities.invokeLater(() -> new ScrollCaptureSession(robot, region, screenBounds, future).start());
+            });
+
+        } catch (AWTException e) {
+            logger.error("Impossible de créer Robot pour la capture d'écran", e);
+            future.complete(null);
+        }
+
+        return future;
+    }
+
+    /**
+     * Retourne le Robot partagé, créé au premier appel (ou par le préchauffage)
+     */
+    static synchronized Robot getRobot() throws AWTException {
+        if (robot == null) {
+            robot = new Robot();
+        }
+        return robot;
+    }
+
+    /**
+     * Affiche l'overlay de sélection sur l'EDT
+     *
+     * @return le rectangle sélectionné (relatif à l'overlay), ou null si annulé
+     */
+    private CompletableFuture<Rectangle> showSelectionOverlay(BufferedImage screenshot, Rectangle screenBounds) {
+        CompletableFuture<Rectangle> selection = new CompletableFuture<>();
+        SwingUtilities.invokeLater(() -> {
+            SelectionOverlay overlay = new SelectionOverlay(screenshot, screenBounds, selection);
+            overlay.setVisible(true);
+        });
+        return selection;
+    }
+
+    /**
+     * Copie une zone du screenshot (getSubimage partage le raster)
+     */
+    private static BufferedImage copyRegion(BufferedImage screenshot, Rectangle selection) {
+        BufferedImage captured = screenshot.getSubimage(
+            selection.x, selection.y, selection.width, selection.height
+        );
+
+        BufferedImage result = new BufferedImage(
+            captured.getWidth(), captured.getHeight(), BufferedImage.TYPE_INT_ARGB
+        );
+        Graphics2D g = result.createGraphics();
+        g.drawImage(captured, 0, 0, null);
+        g.dispose();
+
+        logger.info("Capture réussie : {}x{} pixels", result.getWidth(), result.getHeight());
+        return result;
+    }
+
+    /**
+     * Calcule les dimensions totales de tous les écrans combinés
+     */
+    private Rectangle getFullScreenBounds() {
+        GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
+        Rectangle totalBounds = new Rectangle();
+        for (GraphicsDevice gd : ge.getScreenDevices()) {
+            totalBounds = totalBounds.union(gd.getDefaultConfiguration().getBounds());
+        }
+        return totalBounds;
+    }
+
+    /**
+     * Overlay transparent plein écran pour la sélection rectangulaire
+     */
+    private static class SelectionOverlay extends JWindow {
+
+        private final BufferedImage screenshot;
+        private final CompletableFuture<Rectangle> future;
+
+        // Points de sélection
+        private Point startPoint;
+        private Point currentPoint;
+        private boolean selecting = false;
+
+        SelectionOverlay(BufferedImage screenshot, Rectangle bounds,
+                         CompletableFuture<Rectangle> future) {
+            this.screenshot = screenshot;
+            this.future = future;
+
+            setBounds(bounds);
+            setAlwaysOnTop(true);
+            setCursor(Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR));
+
+            // Panel de dessin
+            JPanel panel = new JPanel() {
+                @Override
+                protected void paintComponent(Graphics g) {
+                    super.paintComponent(g);
+                    drawOverlay(g);
+                }
+            };
+            panel.setOpaque(false);
+            setContentPane(panel);
+
+            // Gestion souris
+            MouseAdapter mouseHandler = new MouseAdapter() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    if (SwingUtilities.isLeftMouseButton(e)) {
+                        startPoint = e.getPoint();
+                        currentPoint = e.getPoint();
+                        selecting = true;
+                    }
+                }
+
+                @Override
+                public void mouseDragged(MouseEvent e) {
+                    if (selecting) {
+                        currentPoint = e.getPoint();
+                        repaint();
+                    }
+                }
+
+                @Override
+                public void mouseReleased(MouseEvent e) {
+                    if (selecting && SwingUtilities.isLeftMouseButton(e)) {
+                        currentPoint = e.getPoint();
+                        selecting = false;
+                        finishCapture();
+                    }
+                }
+            };
+            panel.addMouseListener(mouseHandler);
+            panel.addMouseMotionListener(mouseHandler);
+
+            // Touche Echap pour annuler
+            panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                 .put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), "cancel");
+            panel.getActionMap().put("cancel", new AbstractAction() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    cancelCapture();
+                }
+            });
+
+            // Rendre le panel focusable pour les raccourcis clavier
+            panel.setFocusable(true);
+            panel.requestFocusInWindow();
+        }
+
+        /**
+         * Dessine l'overlay avec le screenshot assombri et le rectangle de sélection
+         */
+        private void drawOverlay(Graphics g) {
+            Graphics2D g2d = (Graphics2D) g;
+
+            // Dessiner le screenshot complet
+            g2d.drawImage(screenshot, 0, 0, null);
+
+            // Assombrir tout l'écran
+            g2d.setColor(new Color(0, 0, 0, 100));
+            g2d.fillRect(0, 0, getWidth(), getHeight());
+
+            // Si sélection en cours, dessiner la zone claire + bordure
+            if (startPoint != null && currentPoint != null) {
+                Rectangle selection = getSelectionRectangle();
+
+                // Zone sélectionnée : afficher le screenshot original (sans assombrissement)
+                g2d.setClip(selection);
+                g2d.drawImage(screenshot, 0, 0, null);
+                g2d.setClip(null);
+
+                // Bordure bleue
+                g2d.setColor(new Color(0, 120, 215));
+                g2d.setStroke(new BasicStroke(2));
+                g2d.drawRect(selection.x, selection.y, selection.width, selection.height);
+
+                // Afficher les dimensions
+                String dimensions = selection.width + " x " + selection.height;
+                g2d.setFont(new Font("Arial", Font.BOLD, 14));
+                g2d.setColor(new Color(0, 120, 215));
+                int textX = selection.x + 5;
+                int textY = selection.y > 25 ? selection.y - 8 : selection.y + selection.height + 18;
+                // Fond pour le texte
+                FontMetrics fm = g2d.getFontMetrics();
+                g2d.setColor(new Color(255, 255, 255, 200));
+                g2d.fillRect(textX - 2, textY - fm.getAscent() - 2,
+                             fm.stringWidth(dimensions) + 4, fm.getHeight() + 4);
+                g2d.setColor(new Color(0, 120, 215));
+                g2d.drawString(dimensions, textX, textY);
+            }
+
+            // Instructions en haut
+            g2d.setFont(new Font("Arial", Font.BOLD, 16));
+            String instruction = "Tracez un rectangle pour capturer - Echap pour annuler";
+            FontMetrics fm = g2d.getFontMetrics();
+            int textWidth = fm.stringWidth(instruction);
+            int x = (getWidth() - textWidth) / 2;
+            int y = 30;
+            // Fond semi-transparent pour le texte
+            g2d.setColor(new Color(0, 0, 0, 180));
+            g2d.fillRoundRect(x - 15, y - fm.getAscent() - 5, textWidth + 30, fm.getHeight() + 10, 10, 10);
+            g2d.setColor(Color.WHITE);
+            g2d.drawString(instruction, x, y);
+        }
+
+        /**
+         * Calcule le rectangle de sélection (gère les directions de tracé)
+         */
+        private Rectangle getSelectionRectangle() {
+            int x = Math.min(startPoint.x, currentPoint.x);
+            int y = Math.min(startPoint.y, currentPoint.y);
+            int width = Math.abs(currentPoint.x - startPoint.x);
+            int height = Math.abs(currentPoint.y - startPoint.y);
+            return new Rectangle(x, y, width, height);
+        }
+
+        /**
+         * Termine la sélection et retourne le rectangle choisi
+         */
+        private void finishCapture() {
+            Rectangle selection = getSelectionRectangle();
+
+            // Vérifier que la sélection a une taille minimale
+            if (selection.width < 10 || selection.height < 10) {
+                logger.warn("Sélection trop petite ({}x{}), capture annulée",
+                           selection.width, selection.height);
+                cancelCapture();
+                return;
+            }
+
+            dispose();
+            future.complete(selection);
+        }
+
+        /**
+         * Annule la capture
+         */
+        private void cancelCapture() {
+            logger.info("Capture annulée par l'utilisateur");
+            dispose();
+            future.complete(null);
+        }
+    }
+
+    /**
+     * Session de capture défilante : capture périodique de la zone sur un thread dédié
+     * et petite fenêtre de contrôle (Terminer / Annuler) placée hors de la zone capturée.
+     */
+    private static class ScrollCaptureSession {
+
+        private final Robot robot;
+        private final Rectangle region;
+        private final Rectangle screenBounds;
+        private final CompletableFuture<BufferedImage> future;
+        private final ScrollStitcher stitcher = new ScrollStitcher();
+        private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "capture-defilante");
+            t.setDaemon(true);
+            return t;
+        });
+
+        private JWindow controlWindow;
+        private JLabel lblStatus;
+        private ScheduledFuture<?> task;
+
+        ScrollCaptureSession(Robot robot, Rectangle region, Rectangle screenBounds,
+                             CompletableFuture<BufferedImage> future) {
+            this.robot = robot;
+            this.region = region;
+            this.screenBounds = screenBounds;
+            this.future = future;
+        }
+
+        /**
+         * Affiche la fenêtre de contrôle et démarre les captures (sur l'EDT)
+         */
+        void start() {
+            controlWindow = new JWindow();
+            controlWindow.setAlwaysOnTop(true);
+
+            JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
+            panel.setBorder(BorderFactory.createLineBorder(new Color(0, 120, 215), 2));
+            lblStatus = new JLabel("Faites défiler la zone...");
+            JButton btnFinish = new JButton("Terminer");
+            btnFinish.addActionListener(e -> finish());
+            JButton btnCancel = new JButton("Annuler");
+            btnCancel.addActionListener(e -> cancel());
+            panel.add(lblStatus);
+            panel.add(btnFinish);
+            panel.add(btnCancel);
+            controlWindow.setContentPane(panel);
+            controlWindow.pack();
+            controlWindow.setLocation(computeControlLocation(controlWindow.getSize()));
+            controlWindow.setVisible(true);
+
+            logger.info("Capture défilante démarrée sur la zone {}x{} en ({}, {})",
+                region.width, region.height, region.x, region.y);
+            task = scheduler.scheduleWithFixedDelay(this::grabFrame, 0,
+                SCROLL_CAPTURE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Capture la zone et la fusionne (thread de capture)
+         */
+        private void grabFrame() {
+            try {
+                BufferedImage frame = robot.createScreenCapture(region);
+                stitcher.addFrame(frame);
+                int frames = stitcher.getFrameCount();
+                int height = stitcher.getHeight();
+                SwingUtilities.invokeLater(() ->
+                    lblStatus.setText(frames + " image(s) - " + height + " px"));
+            } catch (RuntimeException e) {
+                logger.error("Erreur pendant la capture défilante", e);
+            }
+        }
+
+        private void finish() {
+            stop().thenAccept(v -> {
+                BufferedImage result = stitcher.build();
+                if (result != null) {
+                    logger.info("Capture défilante terminée : {} image(s) assemblées en {}x{} pixels",
+                        stitcher.getFrameCount(), result.getWidth(), result.getHeight());
+                }
+                future.complete(result);
+            });
+        }
+
+        private void cancel() {
+            logger.info("Capture défilante annulée par l'utilisateur");
+            stop().thenAccept(v -> future.complete(null));
+        }
+
+        /**
+         * Arrête les captures et ferme la fenêtre de contrôle.
+         * La fusion éventuellement en cours se termine avant l'assemblage final.
+         */
+        private CompletableFuture<Void> stop() {
+            controlWindow.dispose();
+            task.cancel(false);
+            return CompletableFuture.runAsync(() -> { }, scheduler)
+                .whenComplete((v, e) -> scheduler.shutdown());
+        }
+
+        /**
+         * Place la fenêtre de contrôle sous la zone, sinon au-dessus, sinon en haut de l'écran
+         */
+        private Point computeControlLocation(Dimension size) {
+            int x = Math.max(screenBounds.x, Math.min(region.x, screenBounds.x + screenBounds.width - size.width));
+            int below = region.y + region.height + 8;
+            if (below + size.height <= screenBounds.y + screenBounds.height) {
+                return new Point(x, below);
+            }
+            int above = region.y - size.height - 8;
+            if (above >= screenBounds.y) {
+                return new Point(x, above);
+            }
+            return new Point(screenBounds.x + screenBounds.width - size.width, screenBounds.y);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.fichedecontrole.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Assemble incrémentalement des captures successives d'une même zone
+ * pendant que l'utilisateur fait défiler son écran (tableaux Plei@de plus longs qu'un écran).
+ *
+ * Chaque ligne de pixels est réduite à un hash 64 bits. Le recouvrement entre la fin
+ * de l'image assemblée et le début de la nouvelle capture est le plus long préfixe
+ * de la capture qui soit aussi un suffixe de l'image assemblée : il est trouvé
+ * en temps linéaire par l'algorithme KMP sur les hashes de lignes.
+ * Seules les nouvelles lignes de chaque capture sont conservées.
+ *
+ * Non thread-safe : destiné à être alimenté par un seul thread de capture.
+ */
+public class ScrollStitcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScrollStitcher.class);
+
+    /** Hauteur maximale de l'image assemblée (garde-fou mémoire) */
+    public static final int MAX_HEIGHT = 20000;
+
+    private final List<BufferedImage> slices = new ArrayList<>();
+    private long[] rowHashes = new long[1024];
+    private int height;
+    private int width = -1;
+    private int frameCount;
+
+    /**
+     * Ajoute une capture de la zone.
+     *
+     * @param frame la capture (même largeur que les précédentes)
+     * @return le nombre de nouvelles lignes conservées (0 si la zone n'a pas défilé)
+     */
+    public int addFrame(BufferedImage frame) {
+        if (width == -1) {
+            width = frame.getWidth();
+        } else if (frame.getWidth() != width) {
+            throw new IllegalArgumentException("Largeur de capture differente : "
+                + frame.getWidth() + " au lieu de " + width);
+        }
+
+        long[] frameHashes = hashRows(frame);
+        int overlap = frameCount == 0 ? 0 : findOverlap(frameHashes);
+        frameCount++;
+
+        int newRows = frame.getHeight() - overlap;
+        if (newRows <= 0) {
+            return 0;
+        }
+        if (height + newRows > MAX_HEIGHT) {
+            newRows = MAX_HEIGHT - height;
+            if (newRows <= 0) {
+                logger.warn("Hauteur maximale atteinte ({} px), capture ignoree", MAX_HEIGHT);
+                return 0;
+            }
+        }
+        if (overlap == 0 && height > 0) {
+            logger.warn("Aucun recouvrement trouve avec la capture precedente (defilement trop rapide ?)");
+        }
+
+        slices.add(copyRows(frame, overlap, newRows));
+        ensureCapacity(height + newRows);
+        System.arraycopy(frameHashes, overlap, rowHashes, height, newRows);
+        height += newRows;
+
+        logger.debug("Capture {} : recouvrement {} lignes, {} nouvelles lignes (hauteur {} px)",
+            frameCount, overlap, newRows, height);
+        return newRows;
+    }
+
+    /**
+     * Construit l'image finale à partir des tranches conservées.
+     *
+     * @return l'image assemblée, ou null si aucune capture n'a été ajoutée
+     */
+    public BufferedImage build() {
+        if (height == 0) {
+            return null;
+        }
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = result.createGraphics();
+        int y = 0;
+        for (BufferedImage slice : slices) {
+            g.drawImage(slice, 0, y, null);
+            y += slice.getHeight();
+        }
+        g.dispose();
+        return result;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Longueur du plus long préfixe de la capture égal à un suffixe de l'image assemblée.
+     * KMP : table des bords sur les lignes de la capture, puis parcours des dernières
+     * lignes assemblées (au plus la hauteur de la capture).
+     */
+    int findOverlap(long[] frameHashes) {
+        int m = frameHashes.length;
+        if (m == 0 || height == 0) {
+            return 0;
+        }
+
+        int[] border = new int[m];
+        for (int i = 1, k = 0; i < m; i++) {
+            while (k > 0 && frameHashes[i] != frameHashes[k]) {
+                k = border[k - 1];
+            }
+            if (frameHashes[i] == frameHashes[k]) {
+                k++;
+            }
+            border[i] = k;
+        }
+
+        int j = 0;
+        for (int i = Math.max(0, height - m); i < height; i++) {
+            while (j > 0 && (j == m || rowHashes[i] != frameHashes[j])) {
+                j = border[j - 1];
+            }
+            if (rowHashes[i] == frameHashes[j]) {
+                j++;
+            }
+        }
+        return j;
+    }
+
+    /**
+     * Calcule un hash FNV-1a 64 bits pour chaque ligne de pixels
+     */
+    static long[] hashRows(BufferedImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        long[] hashes = new long[h];
+        int[] row = new int[w];
+        for (int y = 0; y < h; y++) {
+            image.getRGB(0, y, w, 1, row, 0, w);
+            long hash = 0xcbf29ce484222325L;
+            for (int pixel : row) {
+                hash ^= pixel;
+                hash *= 0x100000001b3L;
+            }
+            hashes[y] = hash;
+        }
+        return hashes;
+    }
+
+    /**
+     * Copie des lignes d'une capture (getSubimage partage le raster de la capture complète)
+     */
+    private BufferedImage copyRows(BufferedImage frame, int fromRow, int rowCount) {
+        BufferedImage slice = new BufferedImage(frame.getWidth(), rowCount, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = slice.createGraphics();
+        g.drawImage(frame.getSubimage(0, fromRow, frame.getWidth(), rowCount), 0, 0, null);
+        g.dispose();
+        return slice;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > rowHashes.length) {
+            rowHashes = Arrays.copyOf(rowHashes, Math.max(required, rowHashes.length * 2));
+        }
+    }
+}
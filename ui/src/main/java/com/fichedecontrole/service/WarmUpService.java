@@ -0,0 +1,133 @@
+package com.fichedecontrole.service;
+
+import com.fichedecontrole.config.ConfigManager;
+import com.fichedecontrole.generator.GenerationListener;
+import com.fichedecontrole.generator.TemplateCache;
+import com.fichedecontrole.generator.WordGeneratorXML;
+import com.fichedecontrole.model.CaptureCategory;
+import com.fichedecontrole.model.FicheDto;
+import com.fichedecontrole.model.NatureDemande;
+import com.fichedecontrole.model.Risque;
+import com.fichedecontrole.model.ScreenCapture;
+import com.fichedecontrole.model.TypeDemande;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Préchauffage au démarrage, en arrière-plan.
+ *
+ * Paie à l'avance ce que la première génération paierait sinon : chargement de la
+ * configuration, décompression du modèle, découverte des plugins ImageIO, compilation
+ * JIT des remplacements XML (rendu d'une fiche factice vers un flux nul) et création du Robot.
+ * Les étapes indépendantes tournent en parallèle sur des threads démons de faible priorité ;
+ * chaque étape est chronométrée dans le log. Un échec n'a aucune conséquence :
+ * l'étape sera simplement faite à la première utilisation.
+ */
+public class WarmUpService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmUpService.class);
+
+    private static final int THREADS = 2;
+
+    private final ExecutorService executor;
+
+    public WarmUpService() {
+        AtomicInteger threadCount = new AtomicInteger(1);
+        this.executor = Executors.newFixedThreadPool(THREADS, r -> {
+            Thread t = new Thread(r, "prechauffage-" + threadCount.getAndIncrement());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * Lance le préchauffage sans attendre
+     *
+     * @return terminé quand toutes les étapes sont passées (réussies ou non)
+     */
+    public CompletableFuture<Void> start() {
+        long start = System.nanoTime();
+
+        // Rendu factice : nécessite la configuration et le modèle
+        CompletableFuture<Void> config = step("configuration", () -> ConfigManager.getList("formule"));
+        CompletableFuture<Void> template = step("modele", () -> TemplateCache.get());
+        CompletableFuture<Void> render = CompletableFuture.allOf(config, template)
+            .thenCompose(v -> step("rendu factice", this::renderDummy));
+
+        CompletableFuture<Void> png = step("encodeur PNG", WarmUpService::initPngWriter);
+        CompletableFuture<Void> robot = GraphicsEnvironment.isHeadless()
+            ? CompletableFuture.completedFuture(null)
+            : step("robot", ScreenCaptureService::getRobot);
+
+        return CompletableFuture.allOf(render, png, robot).whenComplete((v, e) -> {
+            logger.info("Prechauffage termine en {} ms", elapsedMs(start));
+            executor.shutdown();
+        });
+    }
+
+    /**
+     * Exécute une étape chronométrée ; une erreur est seulement journalisée
+     */
+    private CompletableFuture<Void> step(String name, Step step) {
+        return CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                step.run();
+                logger.info("Prechauffage {} : {} ms", name, elapsedMs(start));
+            } catch (Exception | LinkageError e) {
+                logger.warn("Prechauffage {} en echec apres {} ms : {}", name, elapsedMs(start), e.toString());
+            }
+        }, executor);
+    }
+
+    /**
+     * Génère une fiche factice (avec une capture) vers un flux nul
+     */
+    private void renderDummy() throws Exception {
+        FicheDto fiche = new FicheDto("CJ", "PRECHAUFFAGE", TypeDemande.E_CONTRACTU, Risque.FSS,
+            NatureDemande.CREATION, Arrays.asList("PG"), "01/01/2025", "", "", "", Collections.emptyList(),
+            "", "", "", new String[]{"PC"});
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        fiche.setCaptures(Collections.singletonList(
+            new ScreenCapture(CaptureCategory.COTISATIONS_FORMULAIRE, image, 1)));
+
+        new WordGeneratorXML().genererFicheDeControle(fiche, OutputStream.nullOutputStream(), GenerationListener.NONE);
+    }
+
+    /**
+     * Force la découverte des plugins ImageIO et l'initialisation de l'encodeur PNG
+     */
+    private static void initPngWriter() throws Exception {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("png");
+        if (!writers.hasNext()) {
+            throw new IllegalStateException("Aucun encodeur PNG disponible");
+        }
+        writers.next().dispose();
+        ImageIO.write(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB), "png", OutputStream.nullOutputStream());
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Étape de préchauffage (peut lever une exception)
+     */
+    private interface Step {
+        void run() throws Exception;
+    }
+}
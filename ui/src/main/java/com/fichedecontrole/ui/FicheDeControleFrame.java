@@ -16,19 +16,38 @@ import com.fichedecontrole.model.NatureDemande;
 import com.fichedecontrole.model.Risque;
 import com.fichedecontrole.model.TypeDemande;
 import com.fichedecontrole.config.ConfigManager;
+import com.fichedecontrole.monitoring.MemoryMonitor;
+import com.fichedecontrole.monitoring.StallWatchdog;
+import com.fichedecontrole.remote.RemoteDocumentGenerationService;
 import com.fichedecontrole.service.DocumentGenerationService;
-import com.fichedecontrole.service.DocumentGenerationException;
+import com.fichedecontrole.service.GenerationQueue;
+import com.fichedecontrole.service.SpeculativeRenderer;
+import com.fichedecontrole.service.ValidationResult;
+import com.fichedecontrole.ui.components.GenerationQueuePanel;
+import com.fichedecontrole.ui.components.MemoryStatusLabel;
 import com.fichedecontrole.ui.components.ScreenCapturePanel;
+import com.fichedecontrole.util.StartupClock;
 
 import java.awt.*;
+import java.awt.event.AWTEventListener;
 import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.File;
 import java.text.ParseException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Fenêtre principale de l'application de génération de fiches de contrôle Word
+ *
+ * Construction par étapes : les champs visibles à l'ouverture sont créés avant l'affichage,
+ * les panneaux secondaires (éléments de modification, 2ème structure, captures) une fois
+ * la fenêtre ouverte, une étape par événement pour ne pas bloquer la saisie, ou dès
+ * qu'ils sont nécessaires. Les menus contextuels sont créés au premier clic droit.
  */
 public class FicheDeControleFrame extends JFrame {
 
@@ -91,15 +110,41 @@ public class FicheDeControleFrame extends JFrame {
     private JLabel lblDateJour;
     private JButton btnGenerer;
     private ScreenCapturePanel screenCapturePanel;
+    private GenerationQueuePanel generationQueuePanel;
+
+    // Emplacements des panneaux construits après l'ouverture
+    private JPanel pnlStructure2Row;
+    private JPanel pnlCapturesHolder;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private final DocumentGenerationService documentService;
+    private final GenerationQueue generationQueue;
+    private final boolean resident;
+    // Attente des générations avant fermeture, hors de l'EDT
+    private boolean fermetureEnCours;
+    // Génération anticipée pendant la saisie (null si désactivée)
+    private final SpeculativeRenderer speculativeRenderer;
 
     public FicheDeControleFrame() {
+        this(new GenerationQueue(RemoteDocumentGenerationService.fromConfig()), false);
+    }
+
+    /**
+     * @param generationQueue la file de génération (partagée en mode résident)
+     * @param resident        true si le processus reste lancé après fermeture de la fenêtre
+     */
+    public FicheDeControleFrame(GenerationQueue generationQueue, boolean resident) {
         logger.info("Initialisation de la fenetre FicheDeControle");
         this.documentService = new DocumentGenerationService();
+        this.generationQueue = generationQueue;
+        this.resident = resident;
+        this.speculativeRenderer = SpeculativeRenderer.isEnabled()
+            ? new SpeculativeRenderer(generationQueue.getDocumentService()) : null;
+        long start = System.nanoTime();
         initUI();
-        enablePopupOnAll(this);
+        installPopupMenusOnDemand();
+        logger.info("Fenetre construite en {} ms (panneaux secondaires differes)",
+            (System.nanoTime() - start) / 1_000_000);
     }
     
     /**
@@ -107,7 +152,20 @@ public class FicheDeControleFrame extends JFrame {
      */
     private void initUI() {
         setTitle("FicheDeControle");
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // Fermeture gérée : attendre les générations en file avant de quitter
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                quitter();
+            }
+
+            @Override
+            public void windowOpened(WindowEvent e) {
+                logger.info("Fenetre affichee a {} ms du lancement", StartupClock.elapsedMs());
+                SwingUtilities.invokeLater(FicheDeControleFrame.this::buildSecondaryStages);
+            }
+        });
         setSize(850, 900);
         setLocationRelativeTo(null);
 
@@ -126,13 +184,19 @@ public class FicheDeControleFrame extends JFrame {
         scrollPane.setBorder(null);
         centerPanel.add(scrollPane, BorderLayout.CENTER);
 
-        // Panel des boutons
-        JPanel buttonPanel = createButtonPanel();
+        // Panel des boutons + état de la file de génération + barre d'état mémoire
+        JPanel southPanel = new JPanel(new BorderLayout(0, 5));
+        generationQueuePanel = new GenerationQueuePanel(generationQueue);
+        southPanel.add(generationQueuePanel, BorderLayout.CENTER);
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.add(createButtonPanel(), BorderLayout.CENTER);
+        bottomPanel.add(new MemoryStatusLabel(MemoryMonitor.get()), BorderLayout.SOUTH);
+        southPanel.add(bottomPanel, BorderLayout.SOUTH);
 
         // Assemblage
         mainPanel.add(titlePanel, BorderLayout.NORTH);
         mainPanel.add(centerPanel, BorderLayout.CENTER);
-        mainPanel.add(buttonPanel, BorderLayout.SOUTH);
+        mainPanel.add(southPanel, BorderLayout.SOUTH);
 
         add(mainPanel);
     }
@@ -270,23 +334,8 @@ public class FicheDeControleFrame extends JFrame {
         pnlElementsCreation.add(chkRG);
 
         // ── Éléments Modification : Formule / Cotis / Tx Chgt / Dispo / CJ / Autre  (séparateur " / ")
+        // Cases construites plus tard (buildElementsModification)
         pnlElementsModification = new JPanel(new GridLayout(2, 3, 15, 5));
-        chkFormule = new JCheckBox(ElementPleiade.FORMULE.getLibelle());
-        chkCotis   = new JCheckBox(ElementPleiade.COTIS.getLibelle());
-        chkTxChgt  = new JCheckBox(ElementPleiade.TX_CHGT.getLibelle());
-        chkDispo   = new JCheckBox(ElementPleiade.DISPO.getLibelle());
-        chkCJ      = new JCheckBox(ElementPleiade.CJ.getLibelle());
-        chkFermeturePC = new JCheckBox(ElementPleiade.FERMETURE_PC.getLibelle());
-        chkFermetureRG = new JCheckBox(ElementPleiade.FERMETURE_RG.getLibelle());
-        chkAutre   = new JCheckBox(ElementPleiade.AUTRE.getLibelle());
-        pnlElementsModification.add(chkFormule);
-        pnlElementsModification.add(chkCotis);
-        pnlElementsModification.add(chkTxChgt);
-        pnlElementsModification.add(chkDispo);
-        pnlElementsModification.add(chkCJ);
-        pnlElementsModification.add(chkFermeturePC);
-        pnlElementsModification.add(chkFermetureRG);
-        pnlElementsModification.add(chkAutre);
         pnlElementsModification.setVisible(false); // caché car Création est sélectionnée par défaut
 
         // Conteneur global : affiche l'un ou l'autre selon la nature
@@ -299,11 +348,14 @@ public class FicheDeControleFrame extends JFrame {
         ActionListener naturDemandeListener = e -> {
             boolean isCreation = rdoNatCreation.isSelected();
             boolean isModif    = rdoNatModif.isSelected();
+            if (isModif) {
+                buildElementsModification();
+            }
             pnlElements.setVisible(isCreation || isModif);
             pnlElementsCreation.setVisible(isCreation);
             pnlElementsModification.setVisible(isModif);
             // Décocher le groupe devenu invisible
-            if (isCreation) {
+            if (isCreation && chkFormule != null) {
                 chkFormule.setSelected(false); chkCotis.setSelected(false);
                 chkTxChgt.setSelected(false);  chkDispo.setSelected(false);
                 chkCJ.setSelected(false);      chkFermeturePC.setSelected(false);
@@ -377,19 +429,17 @@ public class FicheDeControleFrame extends JFrame {
         gbc.gridy = row++;
         panel.add(fullLabeledRow("Structure :", cmbStructure), gbc);
 
-        // ── 2ème structure (checkbox + ComboBox masqué par défaut) ──────────
+        // ── 2ème structure (checkbox + ComboBox masqué par défaut, construit plus tard) ──
         chkStructure2 = new JCheckBox("2ème structure :");
-        cmbStructure2 = new JComboBox<>(ConfigManager.getList("structure"));
-        cmbStructure2.setEditable(true);
-        setUpperCase(cmbStructure2);
-        cmbStructure2.setVisible(false);
         chkStructure2.addActionListener(e -> {
+            buildStructure2();
             cmbStructure2.setVisible(chkStructure2.isSelected());
             panel.revalidate();
             panel.repaint();
         });
+        pnlStructure2Row = fullLabeledRow(chkStructure2, new JPanel());
         gbc.gridy = row++;
-        panel.add(fullLabeledRow(chkStructure2, cmbStructure2), gbc);
+        panel.add(pnlStructure2Row, gbc);
 
         // ── Produits Ciblés + Captures (occupe l'espace restant) ────────────
         JPanel pcPanel = new JPanel();
@@ -428,9 +478,9 @@ public class FicheDeControleFrame extends JFrame {
         pcLeftPanel.add(pcNorthContent, BorderLayout.NORTH);
         mainContentPanel.add(pcLeftPanel, BorderLayout.WEST);
 
-        screenCapturePanel = new ScreenCapturePanel();
-        screenCapturePanel.setParentFrame(this);
-        mainContentPanel.add(screenCapturePanel, BorderLayout.CENTER);
+        // Captures : construites plus tard (buildCapturePanel)
+        pnlCapturesHolder = new JPanel(new BorderLayout());
+        mainContentPanel.add(pnlCapturesHolder, BorderLayout.CENTER);
 
         gbc.gridy = row;
         gbc.weighty = 1.0;
@@ -440,6 +490,90 @@ public class FicheDeControleFrame extends JFrame {
         return panel;
     }
 
+    /**
+     * Construit les panneaux secondaires après l'ouverture de la fenêtre,
+     * une étape par événement pour laisser passer la saisie entre deux
+     */
+    private void buildSecondaryStages() {
+        logger.info("Fenetre interactive a {} ms du lancement", StartupClock.elapsedMs());
+        SwingUtilities.invokeLater(() -> {
+            buildCapturePanel();
+            SwingUtilities.invokeLater(() -> {
+                buildElementsModification();
+                SwingUtilities.invokeLater(() -> {
+                    buildStructure2();
+                    installSpeculativeRendering();
+                    logger.info("Interface complete a {} ms du lancement", StartupClock.elapsedMs());
+                });
+            });
+        });
+    }
+
+    /**
+     * Garantit que tous les panneaux secondaires existent (avant lecture ou réinitialisation du formulaire)
+     */
+    private void ensureSecondaryUI() {
+        buildCapturePanel();
+        buildElementsModification();
+        buildStructure2();
+    }
+
+    /**
+     * Cases à cocher des éléments de modification (idempotent)
+     */
+    private void buildElementsModification() {
+        if (chkFormule != null) {
+            return;
+        }
+        chkFormule = new JCheckBox(ElementPleiade.FORMULE.getLibelle());
+        chkCotis   = new JCheckBox(ElementPleiade.COTIS.getLibelle());
+        chkTxChgt  = new JCheckBox(ElementPleiade.TX_CHGT.getLibelle());
+        chkDispo   = new JCheckBox(ElementPleiade.DISPO.getLibelle());
+        chkCJ      = new JCheckBox(ElementPleiade.CJ.getLibelle());
+        chkFermeturePC = new JCheckBox(ElementPleiade.FERMETURE_PC.getLibelle());
+        chkFermetureRG = new JCheckBox(ElementPleiade.FERMETURE_RG.getLibelle());
+        chkAutre   = new JCheckBox(ElementPleiade.AUTRE.getLibelle());
+        pnlElementsModification.add(chkFormule);
+        pnlElementsModification.add(chkCotis);
+        pnlElementsModification.add(chkTxChgt);
+        pnlElementsModification.add(chkDispo);
+        pnlElementsModification.add(chkCJ);
+        pnlElementsModification.add(chkFermeturePC);
+        pnlElementsModification.add(chkFermetureRG);
+        pnlElementsModification.add(chkAutre);
+        pnlElementsModification.revalidate();
+    }
+
+    /**
+     * ComboBox de la 2ème structure et sa liste issue de la configuration (idempotent)
+     */
+    private void buildStructure2() {
+        if (cmbStructure2 != null) {
+            return;
+        }
+        cmbStructure2 = new JComboBox<>(ConfigManager.getList("structure"));
+        cmbStructure2.setEditable(true);
+        setUpperCase(cmbStructure2);
+        cmbStructure2.setVisible(chkStructure2.isSelected());
+        pnlStructure2Row.remove(((BorderLayout) pnlStructure2Row.getLayout()).getLayoutComponent(BorderLayout.CENTER));
+        pnlStructure2Row.add(cmbStructure2, BorderLayout.CENTER);
+        pnlStructure2Row.revalidate();
+    }
+
+    /**
+     * Panel des captures d'écran (idempotent)
+     */
+    private void buildCapturePanel() {
+        if (screenCapturePanel != null) {
+            return;
+        }
+        screenCapturePanel = new ScreenCapturePanel();
+        screenCapturePanel.setParentFrame(this);
+        pnlCapturesHolder.add(screenCapturePanel, BorderLayout.CENTER);
+        pnlCapturesHolder.revalidate();
+        pnlCapturesHolder.repaint();
+    }
+
     /**
      * Assemble deux demi-panneaux côte à côte avec une séparation stricte à 50/50.
      * GridLayout(1, 2) garantit l'égalité quelle que soit la taille des contenus.
@@ -538,13 +672,23 @@ public class FicheDeControleFrame extends JFrame {
     }
     
     /**
-     * Génère le document Word
+     * Génère le document Word.
+     * La validation et le choix du fichier se font sur l'EDT ; la génération est
+     * ajoutée à la file (copie figée de la fiche et des captures), ce qui permet
+     * de réinitialiser le formulaire et d'enchaîner sans attendre l'écriture.
      */
     private void genererDocument() {
         try {
             // Récupération des données depuis l'UI
             FicheDto fiche = collectFormData();
 
+            // Valider avant de demander le fichier de destination
+            ValidationResult validation = documentService.validate(fiche);
+            if (!validation.isValid()) {
+                showValidationErrorDialog(validation.getErrors());
+                return;
+            }
+
             // Générer le nom de fichier via le service
             String nomFichier = documentService.generateFileName(
                 fiche.getNumFormulaire(),
@@ -560,27 +704,15 @@ public class FicheDeControleFrame extends JFrame {
             if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
                 File outputFile = fileChooser.getSelectedFile();
 
-                // Générer le document via le service (inclut la validation)
-                documentService.generateDocument(fiche, outputFile);
-
-                // Afficher succès
-                JOptionPane.showMessageDialog(this,
-                    "Document généré avec succès !\n\nFichier : " + outputFile.getName(),
-                    "Succès",
-                    JOptionPane.INFORMATION_MESSAGE);
+                // Générer le document en arrière-plan
+                generationQueue.submit(fiche, outputFile);
             }
 
-        } catch (DocumentGenerationException ex) {
-            // Erreur de validation ou de génération
-            if (ex.hasValidationErrors()) {
-                showValidationErrorDialog(ex.getValidationErrors());
-            } else {
-                logger.error("Erreur lors de la génération du document", ex);
-                JOptionPane.showMessageDialog(this,
-                    "Erreur lors de la génération du document :\n" + ex.getMessage(),
-                    "Erreur",
-                    JOptionPane.ERROR_MESSAGE);
-            }
+        } catch (RejectedExecutionException ex) {
+            JOptionPane.showMessageDialog(this,
+                "Trop de générations en attente.\nVeuillez patienter avant d'en ajouter une nouvelle.",
+                "File de génération pleine",
+                JOptionPane.WARNING_MESSAGE);
         } catch (Exception ex) {
             logger.error("Erreur inattendue lors de la génération", ex);
             JOptionPane.showMessageDialog(this,
@@ -590,10 +722,79 @@ public class FicheDeControleFrame extends JFrame {
         }
     }
 
+    /**
+     * Ferme l'application après confirmation si des générations sont encore en file.
+     * En mode résident, seule la fenêtre est fermée : les générations continuent.
+     * L'attente des générations se fait hors de l'EDT : la fenêtre reste dessinée et
+     * la file continue d'afficher l'avancement jusqu'à la fermeture.
+     */
+    private void quitter() {
+        if (fermetureEnCours) {
+            return;
+        }
+        if (resident) {
+            logger.info("Fermeture de la fenetre (instance residente conservee)");
+            dispose();
+            return;
+        }
+
+        int actifs = generationQueue.getActiveCount();
+        if (actifs == 0) {
+            fermerApplication();
+            return;
+        }
+
+        int choice = JOptionPane.showConfirmDialog(this,
+            actifs + " génération(s) en cours ou en attente.\n" +
+            "Attendre leur fin avant de quitter ?",
+            "Générations en cours",
+            JOptionPane.YES_NO_CANCEL_OPTION,
+            JOptionPane.QUESTION_MESSAGE);
+
+        if (choice == JOptionPane.CANCEL_OPTION || choice == JOptionPane.CLOSED_OPTION) {
+            return;
+        }
+        long timeoutMs;
+        if (choice == JOptionPane.YES_OPTION) {
+            timeoutMs = 60_000;
+        } else {
+            generationQueue.getJobs().forEach(job -> job.cancel());
+            timeoutMs = 5_000;
+        }
+
+        fermetureEnCours = true;
+        setTitle("FicheDeControle - fermeture : fin des générations en cours...");
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        btnGenerer.setEnabled(false);
+        new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() {
+                return generationQueue.shutdown(timeoutMs);
+            }
+
+            @Override
+            protected void done() {
+                fermerApplication();
+            }
+        }.execute();
+    }
+
+    /**
+     * Arrête la surveillance et termine le processus
+     */
+    private void fermerApplication() {
+        logger.info("Fermeture de l'application");
+        StallWatchdog.stopGlobal();
+        dispose();
+        System.exit(0);
+    }
+
     /**
      * Collecte les données du formulaire dans un DTO
      */
     private FicheDto collectFormData() {
+        ensureSecondaryUI();
+
         String contratJuridique = txtContratJuridique.getText().trim();
         String numDemande = txtNumDemande.getText().trim();
 
@@ -729,6 +930,8 @@ public class FicheDeControleFrame extends JFrame {
      * Réinitialise le formulaire
      */
     private void resetForm() {
+        ensureSecondaryUI();
+
         txtContratJuridique.setText("");
         txtNumDemande.setText("");
         txtPC1.setText("");
@@ -832,18 +1035,80 @@ public class FicheDeControleFrame extends JFrame {
     }
 
     /**
-     * Permet d'ajouter le menu contextuel à tous les JTextComponent d'un conteneur
-     * @param root le conteneur racine à parcourir pour trouver les JTextComponent
+     * Ajoute le menu contextuel aux JTextComponent de la fenêtre au premier clic droit,
+     * plutôt que de parcourir tout l'arbre de composants à la construction
+     * (les champs construits plus tard sont couverts aussi)
      */
-    private void enablePopupOnAll(Container root) {
-        for (Component c : root.getComponents()) {
-            if (c instanceof JTextComponent) {
-                addCopyPasteMenu((JTextComponent) c);
+    private void installPopupMenusOnDemand() {
+        AWTEventListener listener = event -> {
+            MouseEvent e = (MouseEvent) event;
+            if (!e.isPopupTrigger() || !(e.getComponent() instanceof JTextComponent)) {
+                return;
+            }
+            JTextComponent textComponent = (JTextComponent) e.getComponent();
+            if (textComponent.getComponentPopupMenu() != null
+                    || SwingUtilities.getWindowAncestor(textComponent) != this) {
+                return;
             }
-            if (c instanceof Container) {
-                enablePopupOnAll((Container) c);
+            addCopyPasteMenu(textComponent);
+            // Ce clic-ci a pu être traité avant l'ajout du menu : l'afficher nous-mêmes
+            int x = e.getX();
+            int y = e.getY();
+            SwingUtilities.invokeLater(() -> {
+                JPopupMenu menu = textComponent.getComponentPopupMenu();
+                if (menu != null && !menu.isVisible() && textComponent.isShowing()) {
+                    menu.show(textComponent, x, y);
+                }
+            });
+        };
+        Toolkit.getDefaultToolkit().addAWTEventListener(listener, AWTEvent.MOUSE_EVENT_MASK);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                Toolkit.getDefaultToolkit().removeAWTEventListener(listener);
             }
+        });
+    }
+
+    /**
+     * Génération anticipée : après chaque pause de saisie (clavier, souris, captures),
+     * la fiche en cours est confiée au {@link SpeculativeRenderer} ; toute nouvelle saisie
+     * abandonne la préparation en cours. Le clic sur « Générer » ne l'interrompt pas :
+     * la génération reprend le document préparé, ou attend sa fin s'il est en cours.
+     */
+    private void installSpeculativeRendering() {
+        if (speculativeRenderer == null) {
+            return;
         }
+        Timer pause = new Timer(SpeculativeRenderer.getDelayMs(), e -> speculativeRenderer.submit(collectFormData()));
+        pause.setRepeats(false);
+        Runnable modified = () -> {
+            speculativeRenderer.cancel();
+            pause.restart();
+        };
+
+        AWTEventListener listener = event -> {
+            int id = event.getID();
+            if (id != KeyEvent.KEY_RELEASED && id != MouseEvent.MOUSE_RELEASED) {
+                return;
+            }
+            Object source = event.getSource();
+            if (source != btnGenerer && source instanceof Component
+                    && SwingUtilities.getWindowAncestor((Component) source) == this) {
+                modified.run();
+            }
+        };
+        Toolkit.getDefaultToolkit().addAWTEventListener(listener, AWTEvent.KEY_EVENT_MASK | AWTEvent.MOUSE_EVENT_MASK);
+        // Captures ajoutées de façon asynchrone (sélection d'écran, import, glisser-déposer)
+        screenCapturePanel.addCapturesListener(modified);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                Toolkit.getDefaultToolkit().removeAWTEventListener(listener);
+                pause.stop();
+                speculativeRenderer.shutdown();
+            }
+        });
     }
 
     /**
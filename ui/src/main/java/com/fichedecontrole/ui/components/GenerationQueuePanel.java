@@ -0,0 +1,212 @@
+package com.fichedecontrole.ui.components;
+
+import com.fichedecontrole.service.GenerationJob;
+import com.fichedecontrole.service.GenerationQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Panel d'état de la file de génération.
+ * Liste les générations en attente, en cours, terminées ou en échec,
+ * et permet d'ouvrir le document généré (double-clic ou bouton "Ouvrir").
+ */
+public class GenerationQueuePanel extends JPanel {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationQueuePanel.class);
+
+    private final GenerationQueue queue;
+    private final DefaultListModel<GenerationJob> listModel;
+    private final GenerationQueue.Listener queueListener = job -> SwingUtilities.invokeLater(this::refresh);
+
+    // Composants UI
+    private JList<GenerationJob> lstJobs;
+    private JButton btnOuvrir;
+    private JButton btnAnnuler;
+    private JButton btnEffacer;
+    private JLabel lblResume;
+
+    public GenerationQueuePanel(GenerationQueue queue) {
+        this.queue = queue;
+        this.listModel = new DefaultListModel<>();
+        initUI();
+    }
+
+    /**
+     * Abonnement à la file tant que le panel est affiché
+     * (la file peut survivre à la fenêtre en mode résident)
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        queue.addListener(queueListener);
+        refresh();
+    }
+
+    @Override
+    public void removeNotify() {
+        queue.removeListener(queueListener);
+        super.removeNotify();
+    }
+
+    private void initUI() {
+        setLayout(new BorderLayout(5, 5));
+        setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createEtchedBorder(),
+            "Générations",
+            TitledBorder.LEFT,
+            TitledBorder.TOP,
+            new Font("Arial", Font.BOLD, 12)
+        ));
+
+        lstJobs = new JList<>(listModel);
+        lstJobs.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        lstJobs.setVisibleRowCount(3);
+        lstJobs.setCellRenderer(new JobListRenderer());
+        lstJobs.addListSelectionListener(e -> updateButtons());
+        lstJobs.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    ouvrirDocument();
+                }
+            }
+        });
+
+        JScrollPane scrollPane = new JScrollPane(lstJobs);
+        scrollPane.setPreferredSize(new Dimension(0, 70));
+        add(scrollPane, BorderLayout.CENTER);
+
+        JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 2));
+
+        btnOuvrir = new JButton("Ouvrir");
+        btnOuvrir.addActionListener(e -> ouvrirDocument());
+        bottomPanel.add(btnOuvrir);
+
+        btnAnnuler = new JButton("Annuler");
+        btnAnnuler.addActionListener(e -> annulerJob());
+        bottomPanel.add(btnAnnuler);
+
+        btnEffacer = new JButton("Effacer les terminées");
+        btnEffacer.addActionListener(e -> {
+            queue.clearFinished();
+            refresh();
+        });
+        bottomPanel.add(btnEffacer);
+
+        lblResume = new JLabel();
+        lblResume.setForeground(Color.GRAY);
+        bottomPanel.add(lblResume);
+
+        add(bottomPanel, BorderLayout.SOUTH);
+        refresh();
+    }
+
+    /**
+     * Resynchronise la liste avec la file (EDT)
+     */
+    private void refresh() {
+        GenerationJob selected = lstJobs.getSelectedValue();
+        listModel.clear();
+        for (GenerationJob job : queue.getJobs()) {
+            listModel.addElement(job);
+        }
+        if (selected != null && listModel.contains(selected)) {
+            lstJobs.setSelectedValue(selected, false);
+        }
+
+        int actifs = queue.getActiveCount();
+        lblResume.setText(actifs == 0 ? "Aucune génération en cours" : actifs + " génération(s) en cours");
+        updateButtons();
+    }
+
+    private void updateButtons() {
+        GenerationJob job = lstJobs.getSelectedValue();
+        btnOuvrir.setEnabled(job != null && job.getState() == GenerationJob.State.DONE);
+        btnAnnuler.setEnabled(job != null && !job.getState().isFinished() && !job.isCancelled());
+        btnEffacer.setEnabled(listModel.size() > queue.getActiveCount());
+    }
+
+    /**
+     * Ouvre le document généré avec l'application associée (Word)
+     */
+    private void ouvrirDocument() {
+        GenerationJob job = lstJobs.getSelectedValue();
+        if (job == null || job.getState() != GenerationJob.State.DONE) {
+            return;
+        }
+
+        File file = job.getOutputFile();
+        try {
+            if (!Desktop.isDesktopSupported() || !Desktop.getDesktop().isSupported(Desktop.Action.OPEN)) {
+                throw new IOException("Ouverture de fichier non supportee sur ce poste");
+            }
+            Desktop.getDesktop().open(file);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Impossible d'ouvrir le document : {}", file.getAbsolutePath(), e);
+            JOptionPane.showMessageDialog(this,
+                "Impossible d'ouvrir le document :\n" + file.getAbsolutePath(),
+                "Ouvrir",
+                JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    private void annulerJob() {
+        GenerationJob job = lstJobs.getSelectedValue();
+        if (job != null) {
+            job.cancel();
+            logger.info("Annulation demandee pour la generation #{}", job.getId());
+            updateButtons();
+        }
+    }
+
+    /**
+     * Renderer : nom du fichier, état et étape en cours (message d'erreur en infobulle)
+     */
+    private static class JobListRenderer extends DefaultListCellRenderer {
+
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value,
+                int index, boolean isSelected, boolean cellHasFocus) {
+
+            JLabel label = (JLabel) super.getListCellRendererComponent(
+                list, value, index, isSelected, cellHasFocus);
+
+            if (value instanceof GenerationJob) {
+                GenerationJob job = (GenerationJob) value;
+                StringBuilder text = new StringBuilder();
+                text.append(job.getLabel()).append(" - ").append(job.getState().getDisplayName());
+
+                if (job.getState() == GenerationJob.State.RUNNING && job.getPhase() != null) {
+                    text.append(" : ").append(job.getPhase().getDisplayName())
+                        .append(" (").append(job.getPhase().getPercent()).append(" %)");
+                } else if (job.getState() == GenerationJob.State.DONE) {
+                    text.append(" (").append(job.getDurationMs()).append(" ms)");
+                } else if (job.getState() == GenerationJob.State.FAILED && job.getErrorMessage() != null) {
+                    text.append(" : ").append(job.getErrorMessage());
+                }
+                label.setText(text.toString());
+                label.setToolTipText(job.getOutputFile().getAbsolutePath());
+
+                if (!isSelected) {
+                    if (job.getState() == GenerationJob.State.FAILED) {
+                        label.setForeground(new Color(180, 0, 0));
+                    } else if (job.getState() == GenerationJob.State.DONE) {
+                        label.setForeground(new Color(0, 120, 0));
+                    } else if (job.getState() == GenerationJob.State.CANCELLED) {
+                        label.setForeground(Color.GRAY);
+                    }
+                }
+            }
+
+            return label;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.fichedecontrole.ui.components;
+
+import com.fichedecontrole.monitoring.MemoryMonitor;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Indicateur de barre d'état : mémoire occupée, mode économe et dernier allègement
+ * (en infobulle). Mis à jour après chaque contrôle de {@link MemoryMonitor}.
+ */
+public class MemoryStatusLabel extends JLabel {
+
+    private static final long MO = 1024 * 1024;
+
+    private final MemoryMonitor monitor;
+    private final MemoryMonitor.Listener monitorListener = m -> SwingUtilities.invokeLater(this::refresh);
+
+    public MemoryStatusLabel(MemoryMonitor monitor) {
+        this.monitor = monitor;
+        setFont(getFont().deriveFont(Font.PLAIN, 11f));
+        setForeground(Color.GRAY);
+        setBorder(BorderFactory.createEmptyBorder(0, 8, 2, 8));
+        refresh();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        monitor.addListener(monitorListener);
+        refresh();
+    }
+
+    @Override
+    public void removeNotify() {
+        monitor.removeListener(monitorListener);
+        super.removeNotify();
+    }
+
+    private void refresh() {
+        String text = "Mémoire : " + monitor.getUsedBytes() / MO + " / " + monitor.getMaxBytes() / MO + " Mo";
+        if (monitor.isLowFootprint()) {
+            text += " - mode économe";
+        }
+        setText(text);
+        String lastTrim = monitor.getLastTrim();
+        setToolTipText(lastTrim != null ? "Dernier allègement à " + lastTrim : "Aucun allègement");
+    }
+}
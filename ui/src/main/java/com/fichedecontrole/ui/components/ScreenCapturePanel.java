@@ -0,0 +1,537 @@
+package com.fichedecontrole.ui.components;
+
+import com.fichedecontrole.model.CaptureCategory;
+import com.fichedecontrole.model.ScreenCapture;
+import com.fichedecontrole.monitoring.MemoryMonitor;
+import com.fichedecontrole.service.ImageImportService;
+import com.fichedecontrole.service.ScreenCaptureService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.awt.*;
+import java.awt.datatransfer.Clipboard;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Panel de gestion des captures d'écran dans le formulaire.
+ * Contient un ComboBox pour choisir le type, un bouton pour capturer,
+ * et une liste affichant les captures effectuées avec possibilité de supprimer.
+ * Accepte aussi les images collées (Ctrl+V) et les fichiers PNG/JPEG glissés-déposés,
+ * décodés en arrière-plan pour ne pas bloquer l'EDT.
+ * En mode économe ({@link MemoryMonitor}), les captures sont compactées en PNG.
+ */
+public class ScreenCapturePanel extends JPanel {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScreenCapturePanel.class);
+
+    private final ScreenCaptureService captureService;
+    private final ImageImportService importService;
+    private final List<ScreenCapture> captures;
+    private final DefaultListModel<ScreenCapture> listModel;
+    private final MemoryMonitor.Trimmer captureTrimmer = this::compactCaptures;
+
+    // Composants UI
+    private JComboBox<CaptureCategory> cmbCategory;
+    private JButton btnCapture;
+    private JButton btnScrollCapture;
+    private JButton btnPaste;
+    private JList<ScreenCapture> lstCaptures;
+    private JButton btnDelete;
+    private JLabel lblCount;
+
+    // Référence vers la fenêtre parente (pour minimiser/restaurer)
+    private JFrame parentFrame;
+
+    public ScreenCapturePanel() {
+        this.captureService = new ScreenCaptureService();
+        this.importService = new ImageImportService();
+        // Lue par le thread de surveillance mémoire
+        this.captures = new CopyOnWriteArrayList<>();
+        this.listModel = new DefaultListModel<>();
+        initUI();
+    }
+
+    public void setParentFrame(JFrame frame) {
+        this.parentFrame = frame;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        MemoryMonitor.get().addTrimmer(captureTrimmer);
+    }
+
+    @Override
+    public void removeNotify() {
+        MemoryMonitor.get().removeTrimmer(captureTrimmer);
+        super.removeNotify();
+    }
+
+    /**
+     * Mode économe : ne garde que le PNG des captures (thread de surveillance mémoire)
+     */
+    private String compactCaptures() {
+        int count = 0;
+        long freed = 0;
+        for (ScreenCapture capture : captures) {
+            try {
+                long bytes = capture.compact();
+                if (bytes > 0) {
+                    count++;
+                    freed += bytes;
+                }
+            } catch (IOException e) {
+                logger.warn("Compactage impossible : {}", capture.getDisplayName(), e);
+            }
+        }
+        return count == 0 ? null
+            : count + " capture(s) compactée(s) (" + freed / (1024 * 1024) + " Mo)";
+    }
+
+    private void initUI() {
+        setLayout(new BorderLayout(5, 5));
+        setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createEtchedBorder(),
+            "Captures d'écran",
+            TitledBorder.LEFT,
+            TitledBorder.TOP,
+            new Font("Arial", Font.BOLD, 12)
+        ));
+
+        // === Panel du haut : ComboBox + Bouton Capturer ===
+        JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 2));
+
+        topPanel.add(new JLabel("Type :"));
+
+        cmbCategory = new JComboBox<>(CaptureCategory.values());
+        cmbCategory.setPreferredSize(new Dimension(220, 28));
+        topPanel.add(cmbCategory);
+
+        btnCapture = new JButton("Capturer");
+        btnCapture.setFont(new Font("Arial", Font.BOLD, 12));
+        btnCapture.setPreferredSize(new Dimension(110, 28));
+        btnCapture.addActionListener(e -> startCapture(false));
+        topPanel.add(btnCapture);
+
+        btnScrollCapture = new JButton("Défilante");
+        btnScrollCapture.setToolTipText("Capturer une zone pendant que vous faites défiler (tableaux plus longs qu'un écran)");
+        btnScrollCapture.setPreferredSize(new Dimension(100, 28));
+        btnScrollCapture.addActionListener(e -> startCapture(true));
+        topPanel.add(btnScrollCapture);
+
+        btnPaste = new JButton("Coller");
+        btnPaste.setToolTipText("Coller une image du presse-papiers (Ctrl+V) - ou glisser-déposer des fichiers PNG/JPEG");
+        btnPaste.setPreferredSize(new Dimension(90, 28));
+        btnPaste.addActionListener(e -> pasteFromClipboard());
+        topPanel.add(btnPaste);
+
+        add(topPanel, BorderLayout.NORTH);
+
+        // === Panel central : Liste des captures ===
+        lstCaptures = new JList<>(listModel);
+        lstCaptures.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        lstCaptures.setVisibleRowCount(4);
+        lstCaptures.setCellRenderer(new CaptureListRenderer());
+
+        JScrollPane scrollPane = new JScrollPane(lstCaptures);
+        scrollPane.setPreferredSize(new Dimension(0, 100));
+        add(scrollPane, BorderLayout.CENTER);
+
+        // === Panel du bas : Bouton Supprimer + Compteur ===
+        JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 2));
+
+        btnDelete = new JButton("Supprimer");
+        btnDelete.setEnabled(false);
+        btnDelete.addActionListener(e -> deleteSelectedCapture());
+        bottomPanel.add(btnDelete);
+
+        lblCount = new JLabel("0 capture(s)");
+        lblCount.setForeground(Color.GRAY);
+        bottomPanel.add(lblCount);
+
+        add(bottomPanel, BorderLayout.SOUTH);
+
+        // Activer/désactiver le bouton supprimer selon la sélection
+        lstCaptures.addListSelectionListener(e -> {
+            btnDelete.setEnabled(!lstCaptures.isSelectionEmpty());
+        });
+
+        // Glisser-déposer de fichiers ou d'images sur le panel et la liste
+        ImageTransferHandler transferHandler = new ImageTransferHandler();
+        setTransferHandler(transferHandler);
+        lstCaptures.setTransferHandler(transferHandler);
+
+        // Ctrl+V n'importe où dans le panel
+        getInputMap(JComponent.WHEN_ANCESTOR_OF_FOCUSED_COMPONENT)
+            .put(KeyStroke.getKeyStroke(KeyEvent.VK_V, InputEvent.CTRL_DOWN_MASK), "pasteImage");
+        getActionMap().put("pasteImage", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                pasteFromClipboard();
+            }
+        });
+    }
+
+    /**
+     * Lance le processus de capture d'écran
+     *
+     * @param scrolling true pour une capture défilante (plusieurs captures assemblées)
+     */
+    private void startCapture(boolean scrolling) {
+        CaptureCategory selectedCategory = (CaptureCategory) cmbCategory.getSelectedItem();
+        if (selectedCategory == null) {
+            return;
+        }
+
+        if (!confirmReplaceIfNeeded(selectedCategory)) {
+            return;
+        }
+
+        // Minimiser la fenêtre parente
+        if (parentFrame != null) {
+            parentFrame.setState(Frame.ICONIFIED);
+        }
+
+        // Petit délai pour laisser la fenêtre se minimiser
+        Timer delayTimer = new Timer(400, e -> {
+            ((Timer) e.getSource()).stop();
+
+            CompletableFuture<BufferedImage> capture = scrolling
+                ? captureService.captureScrolling()
+                : captureService.captureRegion();
+            capture.thenAccept(image -> {
+                SwingUtilities.invokeLater(() -> {
+                    // Restaurer la fenêtre parente
+                    if (parentFrame != null) {
+                        parentFrame.setState(Frame.NORMAL);
+                        parentFrame.toFront();
+                    }
+
+                    if (image != null) {
+                        addCapture(selectedCategory, image);
+                    }
+                });
+            });
+        });
+        delayTimer.setRepeats(false);
+        delayTimer.start();
+    }
+
+    /**
+     * Vérifie si la catégorie est unique et déjà capturée : demande confirmation
+     * et supprime l'ancienne capture si l'utilisateur accepte de la remplacer.
+     *
+     * @return true si l'ajout peut continuer
+     */
+    private boolean confirmReplaceIfNeeded(CaptureCategory category) {
+        if (category.isMultiple() || !hasCaptureForCategory(category)) {
+            return true;
+        }
+
+        int choice = JOptionPane.showConfirmDialog(this,
+            "Une capture existe déjà pour \"" + category.getDisplayName() + "\".\n" +
+            "Voulez-vous la remplacer ?",
+            "Capture existante",
+            JOptionPane.YES_NO_OPTION,
+            JOptionPane.QUESTION_MESSAGE);
+
+        if (choice != JOptionPane.YES_OPTION) {
+            return false;
+        }
+        // Supprimer l'ancienne capture de cette catégorie
+        removeCapturesForCategory(category);
+        return true;
+    }
+
+    /**
+     * Colle l'image (ou les fichiers image) présente dans le presse-papiers
+     */
+    private void pasteFromClipboard() {
+        try {
+            Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+            Transferable contents = clipboard.getContents(null);
+            if (contents == null || !importTransferable(contents)) {
+                JOptionPane.showMessageDialog(this,
+                    "Le presse-papiers ne contient pas d'image.",
+                    "Coller une image",
+                    JOptionPane.INFORMATION_MESSAGE);
+            }
+        } catch (IllegalStateException e) {
+            logger.warn("Presse-papiers indisponible", e);
+        }
+    }
+
+    /**
+     * Lance l'import d'un contenu (presse-papiers ou glisser-déposer) pour la catégorie sélectionnée.
+     * Les données sont extraites immédiatement (un dépôt n'est plus lisible une fois terminé),
+     * seul le décodage est fait en arrière-plan.
+     *
+     * @return false si le contenu ne contient ni image ni fichier image
+     */
+    private boolean importTransferable(Transferable transferable) {
+        List<File> files = null;
+        Image image = null;
+        try {
+            if (transferable.isDataFlavorSupported(DataFlavor.javaFileListFlavor)) {
+                @SuppressWarnings("unchecked")
+                List<File> data = (List<File>) transferable.getTransferData(DataFlavor.javaFileListFlavor);
+                files = new ArrayList<>(data);
+            } else if (transferable.isDataFlavorSupported(DataFlavor.imageFlavor)) {
+                image = (Image) transferable.getTransferData(DataFlavor.imageFlavor);
+            } else {
+                return false;
+            }
+        } catch (Exception e) {
+            logger.warn("Impossible de lire le contenu colle ou depose", e);
+            return false;
+        }
+
+        CaptureCategory selectedCategory = (CaptureCategory) cmbCategory.getSelectedItem();
+        List<File> importFiles = files;
+        Image importImage = image;
+        // Différer hors du callback DnD : le dialogue de remplacement est modal
+        SwingUtilities.invokeLater(() -> {
+            if (selectedCategory == null || !confirmReplaceIfNeeded(selectedCategory)) {
+                return;
+            }
+            setImportInProgress(true);
+            new ImportWorker(selectedCategory, importFiles, importImage).execute();
+        });
+        return true;
+    }
+
+    /**
+     * Désactive les boutons d'ajout pendant un import
+     */
+    private void setImportInProgress(boolean inProgress) {
+        btnCapture.setEnabled(!inProgress);
+        btnScrollCapture.setEnabled(!inProgress);
+        btnPaste.setEnabled(!inProgress);
+        setCursor(inProgress ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+    }
+
+    /**
+     * Ajoute une capture à la liste
+     */
+    private void addCapture(CaptureCategory category, BufferedImage image) {
+        int index = countCapturesForCategory(category) + 1;
+        ScreenCapture capture = new ScreenCapture(category, image, index);
+        captures.add(capture);
+        listModel.addElement(capture);
+        updateCount();
+        logger.info("Capture ajoutée : {}", capture.getDisplayName());
+    }
+
+    /**
+     * Supprime la capture sélectionnée
+     */
+    private void deleteSelectedCapture() {
+        int selectedIndex = lstCaptures.getSelectedIndex();
+        if (selectedIndex >= 0) {
+            ScreenCapture capture = listModel.get(selectedIndex);
+            captures.remove(capture);
+            listModel.remove(selectedIndex);
+            updateCount();
+            logger.info("Capture supprimée : {}", capture.getDisplayName());
+        }
+    }
+
+    /**
+     * Vérifie si une capture existe déjà pour une catégorie
+     */
+    private boolean hasCaptureForCategory(CaptureCategory category) {
+        return captures.stream().anyMatch(c -> c.getCategory() == category);
+    }
+
+    /**
+     * Supprime toutes les captures d'une catégorie
+     */
+    private void removeCapturesForCategory(CaptureCategory category) {
+        captures.removeIf(c -> c.getCategory() == category);
+        // Reconstruire le modèle de liste
+        listModel.clear();
+        captures.forEach(listModel::addElement);
+        updateCount();
+    }
+
+    /**
+     * Compte les captures pour une catégorie
+     */
+    private int countCapturesForCategory(CaptureCategory category) {
+        return (int) captures.stream().filter(c -> c.getCategory() == category).count();
+    }
+
+    /**
+     * Met à jour le compteur de captures
+     */
+    private void updateCount() {
+        lblCount.setText(captures.size() + " capture(s)");
+    }
+
+    /**
+     * Notifié (sur l'EDT) à chaque ajout ou suppression de capture
+     */
+    public void addCapturesListener(Runnable listener) {
+        listModel.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                listener.run();
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+                listener.run();
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                listener.run();
+            }
+        });
+    }
+
+    /**
+     * Retourne la liste des captures effectuées
+     */
+    public List<ScreenCapture> getCaptures() {
+        return new ArrayList<>(captures);
+    }
+
+    /**
+     * Réinitialise toutes les captures
+     */
+    public void reset() {
+        captures.clear();
+        listModel.clear();
+        updateCount();
+        cmbCategory.setSelectedIndex(0);
+    }
+
+    /**
+     * Décode en arrière-plan les images collées ou déposées.
+     * Les fichiers sont décodés avec sous-échantillonnage si nécessaire ;
+     * une catégorie unique ne reçoit que la première image.
+     */
+    private class ImportWorker extends SwingWorker<List<BufferedImage>, Void> {
+
+        private final CaptureCategory category;
+        private final List<File> files;   // fichiers déposés, ou null
+        private final Image image;        // image du presse-papiers, ou null
+
+        ImportWorker(CaptureCategory category, List<File> files, Image image) {
+            this.category = category;
+            this.files = files;
+            this.image = image;
+        }
+
+        @Override
+        protected List<BufferedImage> doInBackground() throws Exception {
+            List<BufferedImage> images = new ArrayList<>();
+
+            if (files != null) {
+                for (File file : files) {
+                    if (!ImageImportService.isSupported(file)) {
+                        logger.warn("Fichier ignore (format non supporte) : {}", file.getName());
+                        continue;
+                    }
+                    images.add(importService.decode(file, category));
+                    if (!category.isMultiple()) {
+                        break;
+                    }
+                }
+            } else if (image != null) {
+                BufferedImage converted = importService.fromClipboard(image, category);
+                if (converted != null) {
+                    images.add(converted);
+                }
+            }
+
+            return images;
+        }
+
+        @Override
+        protected void done() {
+            setImportInProgress(false);
+            try {
+                List<BufferedImage> images = get();
+                if (images.isEmpty()) {
+                    JOptionPane.showMessageDialog(ScreenCapturePanel.this,
+                        "Aucune image PNG ou JPEG exploitable.",
+                        "Import d'image",
+                        JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
+                for (BufferedImage image : images) {
+                    addCapture(category, image);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                logger.error("Erreur lors de l'import d'image", e.getCause());
+                JOptionPane.showMessageDialog(ScreenCapturePanel.this,
+                    "Impossible d'importer l'image :\n" + e.getCause().getMessage(),
+                    "Import d'image",
+                    JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    /**
+     * TransferHandler acceptant les images et les listes de fichiers
+     */
+    private class ImageTransferHandler extends TransferHandler {
+
+        @Override
+        public boolean canImport(TransferSupport support) {
+            return btnPaste.isEnabled()
+                && (support.isDataFlavorSupported(DataFlavor.javaFileListFlavor)
+                    || support.isDataFlavorSupported(DataFlavor.imageFlavor));
+        }
+
+        @Override
+        public boolean importData(TransferSupport support) {
+            return canImport(support) && importTransferable(support.getTransferable());
+        }
+    }
+
+    /**
+     * Renderer personnalisé pour afficher les captures dans la liste
+     */
+    private static class CaptureListRenderer extends DefaultListCellRenderer {
+
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value,
+                int index, boolean isSelected, boolean cellHasFocus) {
+
+            JLabel label = (JLabel) super.getListCellRendererComponent(
+                list, value, index, isSelected, cellHasFocus);
+
+            if (value instanceof ScreenCapture) {
+                ScreenCapture capture = (ScreenCapture) value;
+                label.setText((index + 1) + ". " + capture.getDisplayName());
+
+                // Miniature de 40x30 px, calculée une fois par capture
+                label.setIcon(new ImageIcon(capture.getThumbnail(40, 30)));
+                label.setIconTextGap(8);
+            }
+
+            return label;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.fichedecontrole.service;
+
+import com.fichedecontrole.model.CaptureCategory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour ImageImportService
+ */
+class ImageImportServiceTest {
+
+    private ImageImportService importService;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ImageImportService();
+    }
+
+    @Test
+    void testComputeSubsampling_smallImage_shouldNotSubsample() {
+        assertThat(ImageImportService.computeSubsampling(1200, CaptureCategory.COTISATIONS_PLEIADE)).isEqualTo(1);
+    }
+
+    @Test
+    void testComputeSubsampling_hugeImage_shouldSubsample() {
+        // 5472 px (20 Mpx) pour une colonne de ~368 px → largeur utile ~1104 px
+        int factor = ImageImportService.computeSubsampling(5472, CaptureCategory.COTISATIONS_PLEIADE);
+        assertThat(factor).isGreaterThanOrEqualTo(2);
+        assertThat((long) (5472 / factor)).isGreaterThanOrEqualTo(ImageImportService.getTargetWidthPixels(CaptureCategory.COTISATIONS_PLEIADE));
+    }
+
+    @Test
+    void testDecode_largePng_shouldReturnSubsampledImage() throws IOException {
+        File file = tempDir.resolve("grande.png").toFile();
+        ImageIO.write(new BufferedImage(4000, 1000, BufferedImage.TYPE_INT_RGB), "png", file);
+
+        BufferedImage image = importService.decode(file, CaptureCategory.COTISATIONS_FORMULAIRE);
+
+        int factor = ImageImportService.computeSubsampling(4000, CaptureCategory.COTISATIONS_FORMULAIRE);
+        assertThat(factor).isGreaterThan(1);
+        assertThat(image.getWidth()).isEqualTo((4000 + factor - 1) / factor);
+    }
+
+    @Test
+    void testDecode_notAnImage_shouldThrow() throws IOException {
+        File file = tempDir.resolve("texte.png").toFile();
+        Files.writeString(file.toPath(), "pas une image");
+
+        assertThatThrownBy(() -> importService.decode(file, CaptureCategory.TEST_ADHESION))
+            .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void testIsSupported_shouldAcceptPngAndJpeg() throws IOException {
+        File png = Files.createFile(tempDir.resolve("a.PNG")).toFile();
+        File jpeg = Files.createFile(tempDir.resolve("b.jpeg")).toFile();
+        File gif = Files.createFile(tempDir.resolve("c.gif")).toFile();
+
+        assertThat(ImageImportService.isSupported(png)).isTrue();
+        assertThat(ImageImportService.isSupported(jpeg)).isTrue();
+        assertThat(ImageImportService.isSupported(gif)).isFalse();
+    }
+}
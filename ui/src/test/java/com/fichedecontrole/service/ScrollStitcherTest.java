@@ -0,0 +1,101 @@
+package com.fichedecontrole.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour ScrollStitcher
+ */
+class ScrollStitcherTest {
+
+    /** Crée un "document" dont chaque ligne a une couleur distincte */
+    private static BufferedImage createDocument(int width, int height) {
+        BufferedImage doc = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                doc.setRGB(x, y, 0xFF000000 | (y * 7919 + x) & 0xFFFFFF);
+            }
+        }
+        return doc;
+    }
+
+    /** Simule la zone visible à une position de défilement */
+    private static BufferedImage viewport(BufferedImage doc, int scrollY, int height) {
+        BufferedImage frame = new BufferedImage(doc.getWidth(), height, BufferedImage.TYPE_INT_ARGB);
+        frame.getGraphics().drawImage(doc.getSubimage(0, scrollY, doc.getWidth(), height), 0, 0, null);
+        return frame;
+    }
+
+    private static void assertSameRows(BufferedImage actual, BufferedImage expected, int rows) {
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertThat(actual.getRGB(x, y)).as("pixel (%d,%d)", x, y).isEqualTo(expected.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    void testAddFrame_overlappingFrames_shouldKeepOnlyNewRows() {
+        BufferedImage doc = createDocument(20, 300);
+        ScrollStitcher stitcher = new ScrollStitcher();
+
+        assertThat(stitcher.addFrame(viewport(doc, 0, 100))).isEqualTo(100);
+        assertThat(stitcher.addFrame(viewport(doc, 40, 100))).isEqualTo(40);
+        assertThat(stitcher.addFrame(viewport(doc, 130, 100))).isEqualTo(90);
+        assertThat(stitcher.addFrame(viewport(doc, 200, 100))).isEqualTo(70);
+
+        BufferedImage result = stitcher.build();
+        assertThat(result.getHeight()).isEqualTo(300);
+        assertSameRows(result, doc, 300);
+    }
+
+    @Test
+    void testAddFrame_noScroll_shouldIgnoreFrame() {
+        BufferedImage doc = createDocument(20, 200);
+        ScrollStitcher stitcher = new ScrollStitcher();
+
+        stitcher.addFrame(viewport(doc, 0, 100));
+        assertThat(stitcher.addFrame(viewport(doc, 0, 100))).isZero();
+
+        assertThat(stitcher.getHeight()).isEqualTo(100);
+        assertThat(stitcher.getFrameCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testAddFrame_repeatedRows_shouldFindLongestOverlap() {
+        // Lignes blanches répétées : le recouvrement doit rester maximal
+        BufferedImage doc = new BufferedImage(10, 150, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 150; y++) {
+            int color = (y % 30 < 20) ? 0xFFFFFFFF : 0xFF000000 | y;
+            for (int x = 0; x < 10; x++) {
+                doc.setRGB(x, y, color);
+            }
+        }
+        ScrollStitcher stitcher = new ScrollStitcher();
+
+        stitcher.addFrame(viewport(doc, 0, 80));
+        stitcher.addFrame(viewport(doc, 35, 80));
+        stitcher.addFrame(viewport(doc, 70, 80));
+
+        BufferedImage result = stitcher.build();
+        assertThat(result.getHeight()).isEqualTo(150);
+        assertSameRows(result, doc, 150);
+    }
+
+    @Test
+    void testAddFrame_differentWidth_shouldThrow() {
+        ScrollStitcher stitcher = new ScrollStitcher();
+        stitcher.addFrame(new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB));
+
+        assertThatThrownBy(() -> stitcher.addFrame(new BufferedImage(12, 10, BufferedImage.TYPE_INT_ARGB)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testBuild_withoutFrame_shouldReturnNull() {
+        assertThat(new ScrollStitcher().build()).isNull();
+    }
+}